@@ -0,0 +1,58 @@
+"""
+Compara dos archivos JSON de resultados JMH (por ejemplo, de dos commits) y
+marca las regresiones que superan el umbral.
+
+Uso:
+    python compare_results.py jmh-results/base.json jmh-results/nuevo.json [--threshold 0.05]
+"""
+
+import argparse
+import json
+import sys
+
+
+def load(path):
+    with open(path) as f:
+        results = json.load(f)
+
+    scores = {}
+    for r in results:
+        params = ",".join(f"{k}={v}" for k, v in sorted(r.get("params", {}).items()))
+        key = f"{r['benchmark'].split('.')[-2]}.{r['benchmark'].split('.')[-1]}({params})"
+        metric = r["primaryMetric"]
+        scores[key] = (r["mode"], metric["score"], metric["scoreError"], metric["scoreUnit"])
+    return scores
+
+
+def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("base")
+    parser.add_argument("new")
+    parser.add_argument("--threshold", type=float, default=0.05,
+                        help="Cambio relativo a partir del cual se reporta una regresion")
+    args = parser.parse_args()
+
+    base = load(args.base)
+    new = load(args.new)
+
+    regressions = 0
+    for key in sorted(base.keys() & new.keys()):
+        mode, old_score, _, unit = base[key]
+        _, new_score, new_error, _ = new[key]
+
+        # En modo throughput mas es mejor, en los demas modos (tiempos) menos es mejor
+        change = (new_score - old_score) / old_score
+        worse = change < -args.threshold if mode == "thrpt" else change > args.threshold
+        regressions += worse
+
+        flag = "REGRESION" if worse else ""
+        print(f"{key:90s} {old_score:12.3f} -> {new_score:12.3f} ± {new_error:8.3f} {unit:10s} {change:+7.1%} {flag}")
+
+    for key in sorted(new.keys() - base.keys()):
+        print(f"{key:90s} (nuevo)")
+
+    sys.exit(1 if regressions else 0)
+
+
+if __name__ == "__main__":
+    main()
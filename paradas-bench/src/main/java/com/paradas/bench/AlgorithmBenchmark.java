@@ -0,0 +1,123 @@
+package com.paradas.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.uma.jmetal.operator.crossover.CrossoverOperator;
+import org.uma.jmetal.operator.crossover.impl.TwoPointCrossover;
+import org.uma.jmetal.operator.mutation.MutationOperator;
+import org.uma.jmetal.operator.mutation.impl.IntegerPolynomialMutation;
+import org.uma.jmetal.operator.selection.SelectionOperator;
+import org.uma.jmetal.operator.selection.impl.BinaryTournamentSelection;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.comparator.RankingAndCrowdingDistanceComparator;
+import org.uma.jmetal.util.evaluator.impl.SequentialSolutionListEvaluator;
+
+import com.paradas.Abstraccion.ParadasProblem;
+import com.paradas.utils.CustomAlgorithm;
+
+/**
+ * One generation's {@link CustomAlgorithm#reproduction} (crossover + mutation of the
+ * mating pool) and {@link CustomAlgorithm#replacement} (RankingAndCrowdingSelection
+ * over the joint population), with the operators and sizes used by {@code Main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class AlgorithmBenchmark {
+
+    @Param({ "1000", "10000", "100000", "mvd" })
+    public String instance;
+
+    @Param({ "300" })
+    public int populationSize;
+
+    private ExposedAlgorithm algorithm;
+    private List<IntegerSolution> population;
+    private List<IntegerSolution> offspring;
+    private List<IntegerSolution> matingPool;
+
+    @Setup
+    public void setUp() {
+        ParadasProblem problem = new ParadasProblem(Instances.load(instance), 0.65, 0.20, 0.15);
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        CrossoverOperator<IntegerSolution> crossover = new TwoPointCrossover(0.9);
+        MutationOperator<IntegerSolution> mutation = new IntegerPolynomialMutation(0.06, 6);
+        SelectionOperator<List<IntegerSolution>, IntegerSolution> selection = new BinaryTournamentSelection<>(
+                new RankingAndCrowdingDistanceComparator<>());
+
+        algorithm = new ExposedAlgorithm(problem, populationSize, crossover, mutation, selection);
+
+        population = evaluated(problem, populationSize);
+        offspring = evaluated(problem, populationSize);
+
+        // Rank the population once so the tournament has ranking and crowding attributes
+        population = algorithm.replace(population, offspring);
+        matingPool = algorithm.select(population);
+    }
+
+    @Benchmark
+    public List<IntegerSolution> reproduction() {
+        return algorithm.reproduce(matingPool);
+    }
+
+    @Benchmark
+    public List<IntegerSolution> replacement() {
+        return algorithm.replace(population, offspring);
+    }
+
+    private static List<IntegerSolution> evaluated(ParadasProblem problem, int size) {
+        List<IntegerSolution> solutions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            solutions.add(problem.evaluate(problem.createSolution()));
+        }
+        return solutions;
+    }
+
+    /**
+     * Opens up the protected generation steps of {@link CustomAlgorithm}.
+     */
+    @SuppressWarnings("serial")
+    static final class ExposedAlgorithm extends CustomAlgorithm<IntegerSolution> {
+
+        ExposedAlgorithm(Problem<IntegerSolution> problem, int populationSize,
+                CrossoverOperator<IntegerSolution> crossover, MutationOperator<IntegerSolution> mutation,
+                SelectionOperator<List<IntegerSolution>, IntegerSolution> selection) {
+            super(problem, Integer.MAX_VALUE, populationSize, populationSize, populationSize, crossover, mutation,
+                    selection, new SequentialSolutionListEvaluator<>());
+        }
+
+        List<IntegerSolution> initialPopulation() {
+            return createInitialPopulation();
+        }
+
+        List<IntegerSolution> select(List<IntegerSolution> population) {
+            return selection(population);
+        }
+
+        List<IntegerSolution> reproduce(List<IntegerSolution> matingPool) {
+            return reproduction(matingPool);
+        }
+
+        List<IntegerSolution> replace(List<IntegerSolution> population, List<IntegerSolution> offspring) {
+            return replacement(population, offspring);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.paradas.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Accepts the usual JMH command line
+ * (benchmark regexps, {@code -p instance=mvd}, {@code -f}, ...) but writes the
+ * results as JSON to {@code jmh-results/jmh_<timestamp>.json} unless {@code -rff}
+ * says otherwise, so runs of different commits can be compared with
+ * {@code compare_results.py}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        Path resultFile = Paths.get(commandLine.getResult().orElse("jmh-results/jmh_" + timestamp + ".json"));
+        if (resultFile.getParent() != null) {
+            Files.createDirectories(resultFile.getParent());
+        }
+
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(resultFile.toString())
+                .build();
+
+        new Runner(options).run();
+
+        System.out.println("Benchmark results saved to: " + resultFile);
+    }
+}
@@ -0,0 +1,79 @@
+package com.paradas.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import com.paradas.Abstraccion.KernelType;
+import com.paradas.Abstraccion.ParadasProblem;
+
+/**
+ * {@link ParadasProblem#evaluate} for a single solution and for a whole population,
+ * and {@link ParadasProblem#evaluateAll} for the same population, on one thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g", "--add-modules", "jdk.incubator.vector" })
+public class EvaluationBenchmark {
+
+    @Param({ "1000", "10000", "100000", "mvd" })
+    public String instance;
+
+    @Param({ "CSR", "BITSET", "VECTOR" })
+    public String kernel;
+
+    @Param({ "300" })
+    public int populationSize;
+
+    private ParadasProblem problem;
+    private List<IntegerSolution> population;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        problem = new ParadasProblem(Instances.load(instance), 0.65, 0.20, 0.15);
+        problem.setKernel(KernelType.valueOf(kernel));
+
+        population = new ArrayList<>(populationSize);
+        for (int i = 0; i < populationSize; i++) {
+            population.add(problem.createSolution());
+        }
+    }
+
+    @Benchmark
+    public IntegerSolution evaluateSolution() {
+        IntegerSolution solution = population.get(next);
+        next = next + 1 == populationSize ? 0 : next + 1;
+        return problem.evaluate(solution);
+    }
+
+    @Benchmark
+    public List<IntegerSolution> evaluatePopulation() {
+        for (IntegerSolution solution : population) {
+            problem.evaluate(solution);
+        }
+        return population;
+    }
+
+    @Benchmark
+    public List<IntegerSolution> evaluatePopulationBatch() {
+        problem.evaluateAll(population);
+        return population;
+    }
+}
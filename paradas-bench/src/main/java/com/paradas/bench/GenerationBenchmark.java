@@ -0,0 +1,87 @@
+package com.paradas.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.uma.jmetal.operator.crossover.CrossoverOperator;
+import org.uma.jmetal.operator.crossover.impl.TwoPointCrossover;
+import org.uma.jmetal.operator.mutation.MutationOperator;
+import org.uma.jmetal.operator.mutation.impl.IntegerPolynomialMutation;
+import org.uma.jmetal.operator.selection.impl.BinaryTournamentSelection;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import com.paradas.Abstraccion.ParadasProblem;
+import com.paradas.bench.AlgorithmBenchmark.ExposedAlgorithm;
+import com.paradas.utils.NonDominatedSorting;
+import com.paradas.utils.RankAndCrowdingComparator;
+
+/**
+ * One full generation (selection, reproduction, incremental evaluation, replacement)
+ * with and without the pooled population. Run with {@code -prof gc} to compare the
+ * bytes allocated per generation ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class GenerationBenchmark {
+
+    @Param({ "10000", "mvd" })
+    public String instance;
+
+    @Param({ "300" })
+    public int populationSize;
+
+    @Param({ "false", "true" })
+    public boolean pooled;
+
+    private ParadasProblem problem;
+    private ExposedAlgorithm algorithm;
+    private List<IntegerSolution> population;
+
+    @Setup
+    public void setUp() {
+        problem = new ParadasProblem(Instances.load(instance), 0.65, 0.20, 0.15);
+        problem.setIncrementalEvaluation(true);
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        CrossoverOperator<IntegerSolution> crossover = new TwoPointCrossover(0.9);
+        MutationOperator<IntegerSolution> mutation = new IntegerPolynomialMutation(0.06, 6);
+
+        algorithm = new ExposedAlgorithm(problem, populationSize, crossover, mutation,
+                new BinaryTournamentSelection<>(new RankAndCrowdingComparator<>()));
+        algorithm.setNonDominatedSorting(new NonDominatedSorting());
+        if (pooled) {
+            algorithm.setSolutionPool(problem.enableSolutionArena(2 * populationSize + 2));
+        }
+
+        population = algorithm.initialPopulation();
+        for (IntegerSolution solution : population) {
+            problem.evaluate(solution);
+        }
+        population = algorithm.replace(population, List.of());
+    }
+
+    @Benchmark
+    public List<IntegerSolution> generation() {
+        List<IntegerSolution> offspring = algorithm.reproduce(algorithm.select(population));
+        for (IntegerSolution solution : offspring) {
+            problem.evaluate(solution);
+        }
+        population = algorithm.replace(population, offspring);
+        return population;
+    }
+}
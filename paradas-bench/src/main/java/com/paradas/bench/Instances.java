@@ -0,0 +1,65 @@
+package com.paradas.bench;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import com.paradas.Main;
+import com.paradas.Abstraccion.CompiledInstance;
+import com.paradas.Abstraccion.CompiledODMatrix;
+import com.paradas.Abstraccion.MappedODMatrixLoader;
+
+/**
+ * OD matrices the benchmarks are parametrised over: {@code "mvd"} is the real
+ * Montevideo instance from the classpath, any number is a synthetic matrix with
+ * that many segments, and anything else is a file, e.g. one written by
+ * {@code InstanceGenerator}: a CSV if it ends in {@code .csv}, a compiled instance
+ * otherwise.
+ */
+final class Instances {
+
+    // Destinations drawn per origin in synthetic matrices
+    static final int DESTINATIONS_PER_ORIGIN = 8;
+    static final long SEED = 42;
+
+    private Instances() {
+    }
+
+    static CompiledODMatrix load(String instance) {
+        if ("mvd".equals(instance)) {
+            return CompiledODMatrix.compile(Main.readCsvToMap("data_mvd.csv"));
+        }
+        if (instance.chars().allMatch(Character::isDigit)) {
+            return CompiledODMatrix.compile(synthetic(Integer.parseInt(instance), DESTINATIONS_PER_ORIGIN, SEED));
+        }
+        Path file = Paths.get(instance);
+        return instance.endsWith(".csv") ? MappedODMatrixLoader.load(file) : CompiledInstance.read(file);
+    }
+
+    /**
+     * Random sparse matrix with heavy-tailed passenger counts, so that demand and
+     * cost factors spread over the whole range like in the real instances.
+     */
+    static Map<String, Map<String, Integer>> synthetic(int segments, int destinationsPerOrigin, long seed) {
+        Random random = new Random(seed);
+        Map<String, Map<String, Integer>> matrix = new HashMap<>(segments * 2);
+
+        for (int o = 0; o < segments; o++) {
+            Map<String, Integer> row = new HashMap<>(destinationsPerOrigin * 2);
+            for (int k = 0; k < destinationsPerOrigin; k++) {
+                int d = random.nextInt(segments);
+                int passengers = (int) Math.min(100_000, Math.floor(1 / Math.pow(1 - random.nextDouble(), 1.0 / 1.5)));
+                row.put(segmentCode(d), passengers);
+            }
+            matrix.put(segmentCode(o), row);
+        }
+
+        return matrix;
+    }
+
+    private static String segmentCode(int index) {
+        return "S" + index;
+    }
+}
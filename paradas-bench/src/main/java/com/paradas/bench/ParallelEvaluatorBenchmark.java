@@ -0,0 +1,70 @@
+package com.paradas.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import com.paradas.Abstraccion.ParadasProblem;
+import com.paradas.utils.ParallelEvaluator;
+
+/**
+ * {@link ParallelEvaluator#evaluate} over populations of different sizes, on all
+ * processors, with automatic ({@code 0}) or fixed chunk sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class ParallelEvaluatorBenchmark {
+
+    @Param({ "1000", "10000", "100000", "mvd" })
+    public String instance;
+
+    @Param({ "50", "300", "1000" })
+    public int populationSize;
+
+    @Param({ "0", "1", "16" })
+    public int chunkSize;
+
+    private ParadasProblem problem;
+    private ParallelEvaluator<IntegerSolution> evaluator;
+    private List<IntegerSolution> population;
+
+    @Setup
+    public void setUp() {
+        problem = new ParadasProblem(Instances.load(instance), 0.65, 0.20, 0.15);
+        int threads = Runtime.getRuntime().availableProcessors();
+        evaluator = new ParallelEvaluator<>(threads, chunkSize, 2 * threads);
+
+        population = new ArrayList<>(populationSize);
+        for (int i = 0; i < populationSize; i++) {
+            population.add(problem.createSolution());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        evaluator.shutdown();
+    }
+
+    @Benchmark
+    public List<IntegerSolution> evaluate() {
+        return evaluator.evaluate(population, problem);
+    }
+}
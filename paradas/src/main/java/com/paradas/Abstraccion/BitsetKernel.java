@@ -0,0 +1,70 @@
+package com.paradas.Abstraccion;
+
+import java.util.Arrays;
+
+/**
+ * Evaluation kernel that packs the open stops of a genome into a {@code long[]}
+ * bitset (bit {@code v} set iff gene {@code v > 0}).
+ * <p>
+ * Coverage only visits the set bits as origins and tests each destination of the
+ * CSR adjacency against the bitset; the stop count is a {@link Long#bitCount}
+ * over the words. Only the cost term still reads the gene values.
+ */
+public final class BitsetKernel implements ObjectiveKernel {
+
+    private final int numberOfSegments;
+    private final int[] rowOffsets;
+    private final int[] destinations;
+    private final int[] weights;
+    private final double[] costFactors;
+
+    private final ThreadLocal<long[]> openStops;
+
+    public BitsetKernel(CompiledODMatrix matrix) {
+        this.numberOfSegments = matrix.numberOfSegments();
+        this.rowOffsets = matrix.rowOffsets();
+        this.destinations = matrix.destinations();
+        this.weights = matrix.weights();
+        this.costFactors = matrix.costFactors();
+
+        int words = (numberOfSegments + 63) >>> 6;
+        this.openStops = ThreadLocal.withInitial(() -> new long[words]);
+    }
+
+    @Override
+    public void objectives(int[] genes, double[] out) {
+        long[] open = openStops.get();
+        Arrays.fill(open, 0L);
+
+        double cost = 0;
+        for (int v = 0; v < numberOfSegments; v++) {
+            if (genes[v] > 0) {
+                open[v >>> 6] |= 1L << v;
+            }
+            cost += genes[v] * costFactors[v];
+        }
+
+        int numStops = 0;
+        long coverage = 0;
+        for (int w = 0; w < open.length; w++) {
+            long word = open[w];
+            numStops += Long.bitCount(word);
+
+            while (word != 0) {
+                int o = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+
+                for (int k = rowOffsets[o], end = rowOffsets[o + 1]; k < end; k++) {
+                    int d = destinations[k];
+                    if ((open[d >>> 6] & (1L << d)) != 0) {
+                        coverage += weights[k];
+                    }
+                }
+            }
+        }
+
+        out[0] = coverage;
+        out[1] = numStops;
+        out[2] = cost;
+    }
+}
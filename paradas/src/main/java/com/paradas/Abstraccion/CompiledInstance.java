@@ -0,0 +1,345 @@
+package com.paradas.Abstraccion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntFunction;
+
+/**
+ * Versioned binary file holding a {@link CompiledODMatrix} exactly as it is in
+ * memory: the CSR arrays, the demand and cost factor of every segment, the
+ * normalization bounds and the segment dictionary.
+ * <p>
+ * Compiling once and reading the file avoids parsing the CSV and deriving the
+ * matrix on every start. {@link #read} maps every section read-only and copies it
+ * into the matrix's arrays in bulk, so loading costs about as much as a memory copy
+ * and nothing is re-derived: indices, cost factors and bounds are the ones written,
+ * and objectives are bit-identical to the matrix the file was made from. Concurrent
+ * JVMs reading the same file share its pages through the page cache.
+ * <p>
+ * Layout, little-endian: a header (magic, version, segments, pairs, maximum demand,
+ * dictionary bytes, the three bounds), then row offsets, destinations, passengers,
+ * weights, demand, cost factors, dictionary offsets and the UTF-8 segment codes.
+ */
+public final class CompiledInstance {
+
+    private static final int MAGIC = 0x50524B49; // "PRKI"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 6 * Integer.BYTES + 3 * Double.BYTES;
+
+    private CompiledInstance() {
+    }
+
+    /**
+     * Write {@code matrix} to {@code file}, replacing it atomically.
+     */
+    public static void write(CompiledODMatrix matrix, Path file) {
+        int n = matrix.numberOfSegments();
+        int[] destinations = new int[0];
+        int[] passengers = new int[0];
+        int[] weights = new int[0];
+        int[] demand = new int[n];
+
+        try (Writer writer = new Writer(file, n, matrix.numberOfPairs())) {
+            for (int o = 0; o < n; o++) {
+                int start = matrix.rowStart(o);
+                int count = matrix.rowEnd(o) - start;
+                if (destinations.length < count) {
+                    destinations = new int[count];
+                    passengers = new int[count];
+                    weights = new int[count];
+                }
+                for (int i = 0; i < count; i++) {
+                    destinations[i] = matrix.destination(start + i);
+                    passengers[i] = matrix.passengers(start + i);
+                    weights[i] = matrix.weight(start + i);
+                }
+                writer.addRow(destinations, passengers, weights, count);
+                demand[o] = matrix.demand(o);
+            }
+            writer.finish(demand, matrix::segment);
+        }
+    }
+
+    public static CompiledODMatrix read(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IllegalStateException("Not a compiled instance: " + file);
+            }
+            ByteBuffer header = map(channel, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IllegalStateException("Not a compiled instance: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported instance version " + version + " in " + file
+                        + ", recompile it");
+            }
+            int n = header.getInt();
+            int nnz = header.getInt();
+            int maxDemand = header.getInt();
+            int codeBytes = header.getInt();
+            double maxPossibleCoverage = header.getDouble();
+            double maxPossibleCost = header.getDouble();
+            double minPossibleCost = header.getDouble();
+
+            long expected = HEADER_BYTES + Integer.BYTES * (n + 1L + 3L * nnz + n + n + 1L)
+                    + Double.BYTES * (long) n + codeBytes;
+            if (channel.size() != expected) {
+                throw new IllegalStateException("Truncated or corrupt instance " + file + ": " + channel.size()
+                        + " bytes, expected " + expected);
+            }
+
+            long position = HEADER_BYTES;
+            int[] rowOffsets = readInts(channel, position, n + 1);
+            position += Integer.BYTES * (n + 1L);
+            int[] destinations = readInts(channel, position, nnz);
+            position += Integer.BYTES * (long) nnz;
+            int[] passengers = readInts(channel, position, nnz);
+            position += Integer.BYTES * (long) nnz;
+            int[] weights = readInts(channel, position, nnz);
+            position += Integer.BYTES * (long) nnz;
+            int[] demand = readInts(channel, position, n);
+            position += Integer.BYTES * (long) n;
+
+            double[] costFactors = new double[n];
+            map(channel, position, Double.BYTES * (long) n).asDoubleBuffer().get(costFactors);
+            position += Double.BYTES * (long) n;
+
+            int[] codeOffsets = readInts(channel, position, n + 1);
+            position += Integer.BYTES * (n + 1L);
+            byte[] codes = new byte[codeBytes];
+            map(channel, position, codeBytes).get(codes);
+            String[] segments = new String[n];
+            for (int s = 0; s < n; s++) {
+                segments[s] = new String(codes, codeOffsets[s], codeOffsets[s + 1] - codeOffsets[s],
+                        StandardCharsets.UTF_8);
+            }
+
+            return new CompiledODMatrix(segments, rowOffsets, destinations, passengers, weights, demand, maxDemand,
+                    costFactors, maxPossibleCoverage, maxPossibleCost, minPossibleCost);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read instance " + file, e);
+        }
+    }
+
+    private static int[] readInts(FileChannel channel, long position, int count) throws IOException {
+        int[] values = new int[count];
+        map(channel, position, Integer.BYTES * (long) count).asIntBuffer().get(values);
+        return values;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Writes an instance row by row, for matrices too large to hold in memory: only the
+     * row offsets are kept, every other section is streamed to its place in the file.
+     * Rows are added in origin order, then {@link #finish} writes the per-segment
+     * sections and the header and moves the file into place.
+     */
+    public static final class Writer implements AutoCloseable {
+        private final Path file;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final int n;
+        private final int nnz;
+
+        private final int[] rowOffsets;
+        private int rows = 0;
+        private long coverage = 0;
+        private final Output destinations;
+        private final Output passengers;
+        private final Output weights;
+        private boolean finished = false;
+
+        /**
+         * @param segments Number of segments
+         * @param pairs    Total number of OD pairs the rows will hold
+         */
+        public Writer(Path file, int segments, int pairs) {
+            this.file = file;
+            this.temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            this.n = segments;
+            this.nnz = pairs;
+            this.rowOffsets = new int[segments + 1];
+            try {
+                this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write instance " + file, e);
+            }
+            long position = HEADER_BYTES + Integer.BYTES * (segments + 1L);
+            destinations = new Output(channel, position);
+            position += Integer.BYTES * (long) pairs;
+            passengers = new Output(channel, position);
+            position += Integer.BYTES * (long) pairs;
+            weights = new Output(channel, position);
+        }
+
+        /**
+         * Append the row of the next origin, sorted by destination.
+         *
+         * @param rowWeights Passengers of every pair plus those of its reverse pair
+         */
+        public void addRow(int[] rowDestinations, int[] rowPassengers, int[] rowWeights, int count) {
+            if (rows == n) {
+                throw new IllegalStateException("More rows than segments: " + n);
+            }
+            if (rowOffsets[rows] + (long) count > nnz) {
+                throw new IllegalStateException("More pairs than declared: " + nnz);
+            }
+            try {
+                for (int i = 0; i < count; i++) {
+                    destinations.putInt(rowDestinations[i]);
+                    passengers.putInt(rowPassengers[i]);
+                    weights.putInt(rowWeights[i]);
+                    coverage += rowWeights[i];
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write instance " + file, e);
+            }
+            rowOffsets[rows + 1] = rowOffsets[rows] + count;
+            rows++;
+        }
+
+        /**
+         * Write the per-segment sections, derived from the demand as
+         * {@link CompiledODMatrix} does, and the header, then replace {@code file}.
+         *
+         * @param names Code of every segment by index
+         */
+        public void finish(int[] demand, IntFunction<String> names) {
+            if (rows != n || rowOffsets[n] != nnz) {
+                throw new IllegalStateException("Expected " + n + " rows and " + nnz + " pairs, got " + rows
+                        + " and " + rowOffsets[n]);
+            }
+            int maxDemand = 0;
+            for (int d : demand) {
+                maxDemand = Math.max(maxDemand, d);
+            }
+            double[] costFactors = new double[n];
+            double[] costBounds = CompiledODMatrix.costFactors(demand, maxDemand, costFactors);
+
+            try {
+                destinations.flush();
+                passengers.flush();
+                weights.flush();
+
+                Output out = new Output(channel, HEADER_BYTES);
+                for (int offset : rowOffsets) {
+                    out.putInt(offset);
+                }
+                out.flush();
+
+                out = new Output(channel, HEADER_BYTES + Integer.BYTES * (n + 1L + 3L * nnz));
+                for (int d : demand) {
+                    out.putInt(d);
+                }
+                for (double costFactor : costFactors) {
+                    out.putDouble(costFactor);
+                }
+                // Code offsets, then the codes themselves
+                int codeBytes = 0;
+                out.putInt(codeBytes);
+                for (int s = 0; s < n; s++) {
+                    codeBytes += names.apply(s).getBytes(StandardCharsets.UTF_8).length;
+                    out.putInt(codeBytes);
+                }
+                for (int s = 0; s < n; s++) {
+                    out.putBytes(names.apply(s).getBytes(StandardCharsets.UTF_8));
+                }
+                out.flush();
+
+                out = new Output(channel, 0);
+                out.putInt(MAGIC);
+                out.putInt(VERSION);
+                out.putInt(n);
+                out.putInt(nnz);
+                out.putInt(maxDemand);
+                out.putInt(codeBytes);
+                out.putDouble(coverage);
+                out.putDouble(costBounds[0]);
+                out.putDouble(costBounds[1]);
+                out.flush();
+
+                channel.close();
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write instance " + file, e);
+            }
+            finished = true;
+        }
+
+        /**
+         * Release the file; an unfinished instance is deleted.
+         */
+        @Override
+        public void close() {
+            try {
+                channel.close();
+                if (!finished) {
+                    Files.deleteIfExists(temporary);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write instance " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Buffered little-endian writes to a channel, from a given position on.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+
+        Output(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
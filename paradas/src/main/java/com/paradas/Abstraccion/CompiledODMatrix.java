@@ -0,0 +1,327 @@
+package com.paradas.Abstraccion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, primitive representation of an origin-destination matrix.
+ * <p>
+ * Segments are interned into dense indices and the OD pairs are stored in
+ * compressed-sparse-row form: the destinations of origin {@code o} live in
+ * {@code destinations[rowOffsets[o] .. rowOffsets[o + 1])}, sorted ascending.
+ * Every entry keeps both its raw passenger count and its bidirectional weight
+ * (passengers o->d plus d->o), and every segment keeps its total demand and the
+ * cost factor used by {@link ParadasProblem}.
+ * <p>
+ * Thread-safe: instances are never mutated after construction and can be shared
+ * by any number of problems and threads.
+ */
+public final class CompiledODMatrix implements ObjectiveKernel {
+
+    private final String[] segments;
+    private final Map<String, Integer> segmentToIndex;
+
+    private final int[] rowOffsets;
+    private final int[] destinations;
+    private final int[] passengers;
+    private final int[] weights;
+
+    private final int[] demand;
+    private final int maxDemand;
+    private final double[] costFactors;
+
+    // Normalization bounds for the aggregated fitness
+    private final double maxPossibleCoverage;
+    private final double maxPossibleCost;
+    private final double minPossibleCost;
+
+    // Built on first use, only incremental evaluation needs it
+    private volatile SegmentAdjacency adjacency;
+
+    CompiledODMatrix(String[] segments, int[] rowOffsets, int[] destinations, int[] passengers, int[] weights,
+            int[] demand, int maxDemand) {
+        this.segments = segments;
+        this.rowOffsets = rowOffsets;
+        this.destinations = destinations;
+        this.passengers = passengers;
+        this.weights = weights;
+        this.demand = demand;
+        this.maxDemand = maxDemand;
+        this.segmentToIndex = indexSegments(segments);
+
+        long coverage = 0;
+        for (int weight : weights) {
+            coverage += weight;
+        }
+        this.maxPossibleCoverage = coverage;
+
+        this.costFactors = new double[segments.length];
+        double[] costBounds = costFactors(demand, maxDemand, costFactors);
+        this.maxPossibleCost = costBounds[0];
+        this.minPossibleCost = costBounds[1];
+    }
+
+    /**
+     * With the derived values already computed, as stored by {@link CompiledInstance}.
+     */
+    CompiledODMatrix(String[] segments, int[] rowOffsets, int[] destinations, int[] passengers, int[] weights,
+            int[] demand, int maxDemand, double[] costFactors, double maxPossibleCoverage, double maxPossibleCost,
+            double minPossibleCost) {
+        this.segments = segments;
+        this.rowOffsets = rowOffsets;
+        this.destinations = destinations;
+        this.passengers = passengers;
+        this.weights = weights;
+        this.demand = demand;
+        this.maxDemand = maxDemand;
+        this.segmentToIndex = indexSegments(segments);
+        this.costFactors = costFactors;
+        this.maxPossibleCoverage = maxPossibleCoverage;
+        this.maxPossibleCost = maxPossibleCost;
+        this.minPossibleCost = minPossibleCost;
+    }
+
+    /**
+     * Fill in the cost factor of every segment from its demand, +1 for no demand and
+     * -1 for the busiest.
+     *
+     * @return Maximum and minimum possible cost
+     */
+    static double[] costFactors(int[] demand, int maxDemand, double[] costFactors) {
+        // Max cost: all stops at low-demand segments (factor ≈ +1)
+        // Min cost: all stops at high-demand segments (factor ≈ -1)
+        // Summed in index order, which is the order the original map-based code used.
+        double maxCost = 0;
+        double minCost = 0;
+        for (int v = 0; v < demand.length; v++) {
+            costFactors[v] = 2 * (1 - ((demand[v] * 1.0) / maxDemand)) - 1;
+            if (costFactors[v] > 0) {
+                maxCost += 3 * costFactors[v]; // 3 is max variable value
+            } else {
+                minCost += 3 * costFactors[v];
+            }
+        }
+        return new double[] { maxCost, minCost };
+    }
+
+    private static Map<String, Integer> indexSegments(String[] segments) {
+        Map<String, Integer> segmentToIndex = new HashMap<>(segments.length * 2);
+        for (int i = 0; i < segments.length; i++) {
+            segmentToIndex.put(segments[i], i);
+        }
+        return segmentToIndex;
+    }
+
+    /**
+     * Compile the nested map produced by {@code Main.readCsvToMap}.
+     * <p>
+     * Segment indices follow the iteration order of the demand map the original
+     * {@code ParadasProblem} constructor built, so variable {@code v} of a solution
+     * refers to the same segment as before and objectives are bit-identical.
+     */
+    public static CompiledODMatrix compile(Map<String, Map<String, Integer>> matrix) {
+        Map<String, Integer> demanda = new HashMap<>();
+
+        for (String origin : matrix.keySet()) {
+            int demandadx = 0;
+
+            for (String destination : matrix.get(origin).keySet()) {
+                int demandValue = matrix.get(origin).get(destination);
+
+                demandadx += demandValue;
+
+                demanda.put(destination, demanda.getOrDefault(destination, 0) + demandValue);
+            }
+
+            demanda.put(origin, demanda.getOrDefault(origin, 0) + demandadx);
+        }
+
+        int n = demanda.size();
+        String[] segments = new String[n];
+        int[] demand = new int[n];
+        Map<String, Integer> index = new HashMap<>(n * 2);
+        int maxDemanda = 0;
+
+        int next = 0;
+        for (Map.Entry<String, Integer> entry : demanda.entrySet()) {
+            segments[next] = entry.getKey();
+            demand[next] = entry.getValue();
+            index.put(entry.getKey(), next);
+            maxDemanda = maxDemanda < entry.getValue() ? entry.getValue() : maxDemanda;
+            next++;
+        }
+
+        int[] rowOffsets = new int[n + 1];
+        for (Map.Entry<String, Map<String, Integer>> row : matrix.entrySet()) {
+            rowOffsets[index.get(row.getKey()) + 1] = row.getValue().size();
+        }
+        for (int i = 0; i < n; i++) {
+            rowOffsets[i + 1] += rowOffsets[i];
+        }
+
+        int nnz = rowOffsets[n];
+        int[] destinations = new int[nnz];
+        int[] passengers = new int[nnz];
+        int[] weights = new int[nnz];
+
+        List<int[]> row = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Integer>> origin : matrix.entrySet()) {
+            row.clear();
+            for (Map.Entry<String, Integer> destination : origin.getValue().entrySet()) {
+                Map<String, Integer> reverse = matrix.get(destination.getKey());
+                int demandaDestino = reverse != null && reverse.containsKey(origin.getKey())
+                        ? reverse.get(origin.getKey())
+                        : 0;
+                row.add(new int[] { index.get(destination.getKey()), destination.getValue(),
+                        destination.getValue() + demandaDestino });
+            }
+            row.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+            int k = rowOffsets[index.get(origin.getKey())];
+            for (int[] entry : row) {
+                destinations[k] = entry[0];
+                passengers[k] = entry[1];
+                weights[k] = entry[2];
+                k++;
+            }
+        }
+
+        return new CompiledODMatrix(segments, rowOffsets, destinations, passengers, weights, demand, maxDemanda);
+    }
+
+    /**
+     * Compute [coverage, numStops, cost] for the given genes into {@code out}.
+     * Runs over primitive arrays only: no allocation, no hashing, no boxing.
+     */
+    @Override
+    public void objectives(int[] genes, double[] out) {
+        // Component 1: Passenger coverage (higher is better)
+        long coverage = 0;
+        for (int o = 0; o < segments.length; o++) {
+            if (genes[o] > 0) {
+                for (int k = rowOffsets[o], end = rowOffsets[o + 1]; k < end; k++) {
+                    if (genes[destinations[k]] > 0) {
+                        coverage += weights[k];
+                    }
+                }
+            }
+        }
+
+        // Component 2: Number of bus stops (fewer is better)
+        // Component 3: Weighted cost (lower is better in low-demand areas)
+        int numStops = 0;
+        double cost = 0;
+        for (int v = 0; v < segments.length; v++) {
+            numStops += genes[v] == 0 ? 0 : 1;
+            cost += genes[v] * costFactors[v];
+        }
+
+        out[0] = coverage;
+        out[1] = numStops;
+        out[2] = cost;
+    }
+
+    /**
+     * Per-segment incidence index, built once on first request and shared afterwards.
+     */
+    public SegmentAdjacency adjacency() {
+        SegmentAdjacency result = adjacency;
+        if (result == null) {
+            synchronized (this) {
+                result = adjacency;
+                if (result == null) {
+                    result = new SegmentAdjacency(this);
+                    adjacency = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public int numberOfSegments() {
+        return segments.length;
+    }
+
+    public int numberOfPairs() {
+        return destinations.length;
+    }
+
+    public String segment(int index) {
+        return segments[index];
+    }
+
+    /**
+     * @return Dense index of the segment, or -1 if it does not appear in the matrix
+     */
+    public int indexOf(String segment) {
+        Integer index = segmentToIndex.get(segment);
+        return index == null ? -1 : index;
+    }
+
+    public int rowStart(int origin) {
+        return rowOffsets[origin];
+    }
+
+    public int rowEnd(int origin) {
+        return rowOffsets[origin + 1];
+    }
+
+    public int destination(int entry) {
+        return destinations[entry];
+    }
+
+    public int passengers(int entry) {
+        return passengers[entry];
+    }
+
+    public int weight(int entry) {
+        return weights[entry];
+    }
+
+    public int demand(int segment) {
+        return demand[segment];
+    }
+
+    public int maxDemand() {
+        return maxDemand;
+    }
+
+    public double costFactor(int segment) {
+        return costFactors[segment];
+    }
+
+    public double maxPossibleCoverage() {
+        return maxPossibleCoverage;
+    }
+
+    public double maxPossibleCost() {
+        return maxPossibleCost;
+    }
+
+    public double minPossibleCost() {
+        return minPossibleCost;
+    }
+
+    /*
+     * Raw array access for the evaluation kernels in this package. The arrays are
+     * shared, callers must never write to them.
+     */
+
+    int[] rowOffsets() {
+        return rowOffsets;
+    }
+
+    int[] destinations() {
+        return destinations;
+    }
+
+    int[] weights() {
+        return weights;
+    }
+
+    double[] costFactors() {
+        return costFactors;
+    }
+}
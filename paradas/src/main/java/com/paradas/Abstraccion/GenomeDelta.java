@@ -0,0 +1,32 @@
+package com.paradas.Abstraccion;
+
+/**
+ * Change set carried by an offspring so it can be scored relative to its parent.
+ * <p>
+ * Stored in the solution attributes under {@link ParadasProblem#GENOME_DELTA} and
+ * consumed (removed) by the next {@link ParadasProblem#evaluate} call. Pooled
+ * solutions keep one in their scratch slot instead and refill it for every child,
+ * using {@code pending} in place of the attribute's presence.
+ */
+public final class GenomeDelta {
+
+    double[] parentObjectives;
+    int[] changed;
+    int[] previousValues;
+    int size;
+    boolean pending;
+
+    GenomeDelta(double[] parentObjectives, int[] changed, int[] previousValues) {
+        this.parentObjectives = parentObjectives;
+        this.changed = changed;
+        this.previousValues = previousValues;
+        this.size = changed.length;
+    }
+
+    /**
+     * @return Number of variables that differ from the parent
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,30 @@
+package com.paradas.Abstraccion;
+
+/**
+ * Evaluation kernels selectable on {@link ParadasProblem}.
+ */
+public enum KernelType {
+    // Compressed-sparse-row scan over int[] genes
+    CSR,
+    // Open stops packed into a long[] bitset, coverage by bit tests
+    BITSET,
+    // SIMD on the Vector API, CSR when jdk.incubator.vector is not available
+    VECTOR;
+
+    public ObjectiveKernel create(CompiledODMatrix matrix) {
+        switch (this) {
+            case BITSET:
+                return new BitsetKernel(matrix);
+            case VECTOR:
+                if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+                    return new VectorKernel(matrix);
+                }
+                System.err.println("jdk.incubator.vector is not available, falling back to the CSR kernel"
+                        + " (run with --add-modules jdk.incubator.vector)");
+                return matrix;
+            case CSR:
+            default:
+                return matrix;
+        }
+    }
+}
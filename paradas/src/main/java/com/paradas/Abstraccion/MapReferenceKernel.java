@@ -0,0 +1,83 @@
+package com.paradas.Abstraccion;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The original string-keyed evaluation of {@link ParadasProblem}, kept as a
+ * reference to verify the compiled kernels against. Slow: every OD pair costs
+ * several hash lookups.
+ */
+public final class MapReferenceKernel implements ObjectiveKernel {
+
+    private final Map<String, Map<String, Integer>> matrix;
+    private final Map<String, Map<String, Integer>> bidirectionalDemand;
+    private final Map<String, Integer> demanda;
+    private int maxDemanda = 0;
+    private final CompiledODMatrix index;
+
+    /**
+     * @param matrix The nested OD map
+     * @param index  Compiled form of the same map, used only to map segments to gene indices
+     */
+    public MapReferenceKernel(Map<String, Map<String, Integer>> matrix, CompiledODMatrix index) {
+        this.matrix = matrix;
+        this.index = index;
+        this.demanda = new HashMap<>();
+        this.bidirectionalDemand = new HashMap<>();
+
+        for (String origin : matrix.keySet()) {
+            int demandadx = 0;
+            bidirectionalDemand.put(origin, new HashMap<>());
+
+            for (String destination : matrix.get(origin).keySet()) {
+                int demandValue = matrix.get(origin).get(destination);
+
+                int demandaDestino = matrix.get(destination) != null && matrix.get(destination).containsKey(origin)
+                        ? matrix.get(destination).get(origin)
+                        : 0;
+                bidirectionalDemand.get(origin).put(destination, demandValue + demandaDestino);
+
+                demandadx += demandValue;
+
+                demanda.put(destination, demanda.getOrDefault(destination, 0) + demandValue);
+            }
+
+            demanda.put(origin, demanda.getOrDefault(origin, 0) + demandadx);
+        }
+
+        for (String d : demanda.keySet()) {
+            maxDemanda = demanda.get(d) != null && maxDemanda < demanda.get(d) ? demanda.get(d) : maxDemanda;
+        }
+    }
+
+    // Function to determine if a given origin-destionation bus stop are present on
+    // the solution
+    private int cubierto(int[] genes, String origen, String destino) {
+        return genes[index.indexOf(origen)] > 0 && genes[index.indexOf(destino)] > 0 ? 1 : 0;
+    }
+
+    @Override
+    public void objectives(int[] genes, double[] out) {
+        double coverage = 0;
+        for (String origin : matrix.keySet()) {
+            for (String destination : matrix.get(origin).keySet()) {
+                coverage += bidirectionalDemand.get(origin).get(destination) * cubierto(genes, origin, destination);
+            }
+        }
+
+        double numStops = 0;
+        for (int v = 0; v < genes.length; v++) {
+            numStops += genes[v] == 0 ? 0 : 1;
+        }
+
+        double cost = 0;
+        for (int v = 0; v < genes.length; v++) {
+            cost += genes[v] * (2 * (1 - ((demanda.get(index.segment(v)) * 1.0) / maxDemanda)) - 1);
+        }
+
+        out[0] = coverage;
+        out[1] = numStops;
+        out[2] = cost;
+    }
+}
@@ -0,0 +1,320 @@
+package com.paradas.Abstraccion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Loads an {@code origin,destination,passengers} CSV straight into a
+ * {@link CompiledODMatrix}, without the nested map of {@code Main.readCsvToMap}.
+ * <p>
+ * The file is memory-mapped in windows and parsed byte by byte: no line is turned
+ * into a {@code String}, segment codes are interned into dense indices through an
+ * open-addressing table over their bytes, and only one {@code String} per distinct
+ * segment is ever created. The OD pairs go into growing primitive arrays and are
+ * laid out in CSR form with a counting sort by origin.
+ * <p>
+ * Same input rules as {@code readCsvToMap}: the first line is a header, lines that do
+ * not have exactly three fields are skipped, and a repeated (origin, destination) pair
+ * keeps its last count. A trailing {@code \r} is accepted, a malformed count is an error.
+ * <p>
+ * Segments are indexed in order of first appearance instead of the iteration order
+ * of a {@code HashMap}, so genomes are not interchangeable with a matrix compiled from
+ * the map. Objectives of the same stops by segment code are the same, except for the
+ * rounding of the cost bounds, which are summed in index order.
+ */
+public final class MappedODMatrixLoader {
+
+    // Bytes mapped at once; a window ends at the last complete line it holds
+    private static final long WINDOW = 1L << 28;
+
+    private MappedODMatrixLoader() {
+    }
+
+    public static CompiledODMatrix load(Path file) {
+        Parser parser = new Parser();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(WINDOW, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean last = position + length == size;
+                int consumed = parser.parse(buffer, (int) length, last);
+                if (consumed == 0) {
+                    throw new IllegalArgumentException("Line longer than " + WINDOW + " bytes in " + file);
+                }
+                position += consumed;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + file, e);
+        }
+        return parser.build();
+    }
+
+    /**
+     * Parsing state shared between windows: the segment dictionary and the pairs read so far.
+     */
+    private static final class Parser {
+        private boolean header = true;
+        private long line = 0;
+
+        // Segment dictionary: codes' bytes back to back, open-addressing table of indices
+        private byte[] codeBytes = new byte[1 << 16];
+        private int codeBytesUsed = 0;
+        private int[] codeStart = new int[1024];
+        private int[] codeLength = new int[1024];
+        private int[] codeHash = new int[1024];
+        private int segments = 0;
+        private int[] table = newTable(2048);
+
+        // OD pairs in file order
+        private int[] origins = new int[1024];
+        private int[] destinations = new int[1024];
+        private int[] passengers = new int[1024];
+        private int pairs = 0;
+
+        /**
+         * Parse the complete lines of {@code buffer[0 .. length)}, or all of it if
+         * {@code last}.
+         *
+         * @return Bytes consumed, up to the end of the last complete line
+         */
+        int parse(MappedByteBuffer buffer, int length, boolean last) {
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(i) == '\n') {
+                    parseLine(buffer, start, i);
+                    start = i + 1;
+                }
+            }
+            if (last && start < length) {
+                parseLine(buffer, start, length);
+                start = length;
+            }
+            return start;
+        }
+
+        private void parseLine(MappedByteBuffer buffer, int from, int to) {
+            line++;
+            if (header) {
+                header = false;
+                return;
+            }
+            if (to > from && buffer.get(to - 1) == '\r') {
+                to--;
+            }
+
+            int firstComma = -1;
+            int secondComma = -1;
+            for (int i = from; i < to; i++) {
+                if (buffer.get(i) == ',') {
+                    if (firstComma < 0) {
+                        firstComma = i;
+                    } else if (secondComma < 0) {
+                        secondComma = i;
+                    } else {
+                        return;
+                    }
+                }
+            }
+            if (secondComma < 0 || secondComma + 1 == to) {
+                return;
+            }
+
+            int origin = intern(buffer, from, firstComma);
+            int destination = intern(buffer, firstComma + 1, secondComma);
+            int count = parseInt(buffer, secondComma + 1, to);
+
+            if (pairs == origins.length) {
+                origins = Arrays.copyOf(origins, 2 * pairs);
+                destinations = Arrays.copyOf(destinations, 2 * pairs);
+                passengers = Arrays.copyOf(passengers, 2 * pairs);
+            }
+            origins[pairs] = origin;
+            destinations[pairs] = destination;
+            passengers[pairs] = count;
+            pairs++;
+        }
+
+        private int parseInt(MappedByteBuffer buffer, int from, int to) {
+            boolean negative = false;
+            int i = from;
+            if (buffer.get(i) == '-' || buffer.get(i) == '+') {
+                negative = buffer.get(i) == '-';
+                i++;
+            }
+            if (i == to) {
+                throw invalidCount(buffer, from, to);
+            }
+            long value = 0;
+            for (; i < to; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw invalidCount(buffer, from, to);
+                }
+                value = value * 10 + digit;
+                if (value > Integer.MAX_VALUE + 1L) {
+                    throw invalidCount(buffer, from, to);
+                }
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw invalidCount(buffer, from, to);
+            }
+            return (int) value;
+        }
+
+        private IllegalArgumentException invalidCount(MappedByteBuffer buffer, int from, int to) {
+            byte[] bytes = new byte[to - from];
+            buffer.get(from, bytes);
+            return new IllegalArgumentException("Invalid passenger count at line " + line + ": "
+                    + new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @return Index of the segment code in {@code buffer[from .. to)}, adding it if new
+         */
+        private int intern(MappedByteBuffer buffer, int from, int to) {
+            int hash = 0x811c9dc5;
+            for (int i = from; i < to; i++) {
+                hash = (hash ^ buffer.get(i)) * 0x01000193;
+            }
+
+            int mask = table.length - 1;
+            int slot = hash & mask;
+            while (table[slot] >= 0) {
+                int s = table[slot];
+                if (codeHash[s] == hash && sameCode(s, buffer, from, to)) {
+                    return s;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            int length = to - from;
+            if (codeBytesUsed + length > codeBytes.length) {
+                codeBytes = Arrays.copyOf(codeBytes, Math.max(2 * codeBytes.length, codeBytesUsed + length));
+            }
+            buffer.get(from, codeBytes, codeBytesUsed, length);
+            if (segments == codeStart.length) {
+                codeStart = Arrays.copyOf(codeStart, 2 * segments);
+                codeLength = Arrays.copyOf(codeLength, 2 * segments);
+                codeHash = Arrays.copyOf(codeHash, 2 * segments);
+            }
+            codeStart[segments] = codeBytesUsed;
+            codeLength[segments] = length;
+            codeHash[segments] = hash;
+            codeBytesUsed += length;
+            table[slot] = segments;
+
+            int index = segments++;
+            // Keep the table at most half full
+            if (2 * segments > table.length) {
+                rehash(2 * table.length);
+            }
+            return index;
+        }
+
+        private boolean sameCode(int s, MappedByteBuffer buffer, int from, int to) {
+            if (codeLength[s] != to - from) {
+                return false;
+            }
+            int offset = codeStart[s];
+            for (int i = from; i < to; i++) {
+                if (codeBytes[offset++] != buffer.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash(int capacity) {
+            table = newTable(capacity);
+            int mask = capacity - 1;
+            for (int s = 0; s < segments; s++) {
+                int slot = codeHash[s] & mask;
+                while (table[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = s;
+            }
+        }
+
+        private static int[] newTable(int capacity) {
+            int[] table = new int[capacity];
+            Arrays.fill(table, -1);
+            return table;
+        }
+
+        CompiledODMatrix build() {
+            int n = segments;
+            String[] names = new String[n];
+            for (int s = 0; s < n; s++) {
+                names[s] = new String(codeBytes, codeStart[s], codeLength[s], StandardCharsets.UTF_8);
+            }
+
+            // Counting sort of the pairs by origin, keeping file order within a row
+            int[] rowOffsets = new int[n + 1];
+            for (int p = 0; p < pairs; p++) {
+                rowOffsets[origins[p] + 1]++;
+            }
+            for (int i = 0; i < n; i++) {
+                rowOffsets[i + 1] += rowOffsets[i];
+            }
+            long[] row = new long[pairs];
+            int[] fill = Arrays.copyOf(rowOffsets, n);
+            for (int p = 0; p < pairs; p++) {
+                // Destination in the high bits, file position in the low ones
+                row[fill[origins[p]]++] = ((long) destinations[p] << 32) | p;
+            }
+
+            // Sort every row by destination; of repeated destinations the last line wins
+            int[] offsets = new int[n + 1];
+            int[] columns = new int[pairs];
+            int[] counts = new int[pairs];
+            int nnz = 0;
+            for (int o = 0; o < n; o++) {
+                Arrays.sort(row, rowOffsets[o], rowOffsets[o + 1]);
+                for (int k = rowOffsets[o]; k < rowOffsets[o + 1]; k++) {
+                    int destination = (int) (row[k] >>> 32);
+                    if (k + 1 < rowOffsets[o + 1] && (int) (row[k + 1] >>> 32) == destination) {
+                        continue;
+                    }
+                    columns[nnz] = destination;
+                    counts[nnz] = passengers[(int) row[k]];
+                    nnz++;
+                }
+                offsets[o + 1] = nnz;
+            }
+            row = null;
+            origins = null;
+            destinations = null;
+            passengers = null;
+
+            columns = Arrays.copyOf(columns, nnz);
+            counts = Arrays.copyOf(counts, nnz);
+            int[] weights = new int[nnz];
+            int[] demand = new int[n];
+            for (int o = 0; o < n; o++) {
+                for (int k = offsets[o]; k < offsets[o + 1]; k++) {
+                    int d = columns[k];
+                    int reverse = Arrays.binarySearch(columns, offsets[d], offsets[d + 1], o);
+                    weights[k] = counts[k] + (reverse >= 0 ? counts[reverse] : 0);
+                    demand[o] += counts[k];
+                    demand[d] += counts[k];
+                }
+            }
+            int maxDemand = 0;
+            for (int v = 0; v < n; v++) {
+                maxDemand = Math.max(maxDemand, demand[v]);
+            }
+
+            return new CompiledODMatrix(names, offsets, columns, counts, weights, demand, maxDemand);
+        }
+    }
+}
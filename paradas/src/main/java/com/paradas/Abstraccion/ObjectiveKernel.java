@@ -0,0 +1,15 @@
+package com.paradas.Abstraccion;
+
+/**
+ * Strategy computing the raw objectives of a genome for {@link ParadasProblem}.
+ * <p>
+ * Implementations must be thread-safe, since {@code ParallelEvaluator} calls
+ * them concurrently.
+ */
+public interface ObjectiveKernel {
+
+    /**
+     * Compute [coverage, numStops, cost] for the given genes into {@code out}.
+     */
+    void objectives(int[] genes, double[] out);
+}
@@ -5,7 +5,7 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -13,99 +13,93 @@ import org.uma.jmetal.problem.integerproblem.impl.AbstractIntegerProblem;
 import org.uma.jmetal.solution.integersolution.IntegerSolution;
 import org.uma.jmetal.solution.integersolution.impl.DefaultIntegerSolution;
 
-public class ParadasProblem extends AbstractIntegerProblem {
+import com.paradas.utils.BatchEvaluationProblem;
+import com.paradas.utils.DeltaEvaluationProblem;
+import com.paradas.utils.IntegerSolutionArena;
+import com.paradas.utils.ParetoArchive;
+import com.paradas.utils.PooledIntegerSolution;
 
-    private final Map<String, Map<String, Integer>> matrix;
-    private final Map<String, Integer> demanda;
-    private int maxDemanda = 0;
-    private final List<String> indexToSegement;
-    private final Map<String, Integer> segmentToIndex;
+public class ParadasProblem extends AbstractIntegerProblem
+        implements DeltaEvaluationProblem<IntegerSolution>, BatchEvaluationProblem<IntegerSolution> {
 
-    private final Map<String, Map<String, Integer>> bidirectionalDemand;
+    // Solution attribute holding the raw [coverage, numStops, cost] of the last evaluation
+    public static final String RAW_OBJECTIVES = "ParadasProblem.rawObjectives";
+    // Solution attribute holding the GenomeDelta of an offspring relative to its parent
+    public static final String GENOME_DELTA = "ParadasProblem.genomeDelta";
+
+    private final CompiledODMatrix odMatrix;
+    private ObjectiveKernel kernel;
 
     // Normalization bounds for single-objective fitness
-    private double maxPossibleCoverage = 0;
+    private final double maxPossibleCoverage;
     private final int maxPossibleStops;
-    private double maxPossibleCost = 0;
-    private double minPossibleCost = 0;
+    private final double maxPossibleCost;
+    private final double minPossibleCost;
 
     // Weights for linear aggregation (coverage should dominate)
     private double weightCoverage = 0.65; // 65% - Most important
     private double weightStops = 0.20; // 20% - Infrastructure cost
     private double weightCost = 0.15; // 15% - Demand-based cost
 
-    public ParadasProblem(Map<String, Map<String, Integer>> matrix) {
-        this(matrix, 0.65, 0.20, 0.15);
-    }
-
-    public ParadasProblem(Map<String, Map<String, Integer>> matrix, double weightCoverage, double weightStops, double weightCost) {
-
-        this.matrix = matrix;
-        this.weightCoverage = weightCoverage;
-        this.weightStops = weightStops;
-        this.weightCost = weightCost;
-
-        this.demanda = new HashMap<>();
+    // Per-thread scratch space so evaluate() never allocates
+    private final ThreadLocal<Workspace> workspace;
 
-        this.indexToSegement = new ArrayList<>();
-        this.segmentToIndex = new HashMap<>();
+    // Full evaluations of evaluateAll(), built on first use
+    private volatile PopulationKernel populationKernel;
+    private final ThreadLocal<Batch> batch = ThreadLocal.withInitial(Batch::new);
 
-        this.bidirectionalDemand = new HashMap<>();
+    // Score offspring from their parent's cached objectives when a GenomeDelta is attached
+    private boolean incrementalEvaluation = false;
 
-        for (String origin : matrix.keySet()) {
-            int demandadx = 0;
-            bidirectionalDemand.put(origin, new HashMap<>());
+    // Store RAW_OBJECTIVES after every evaluation, not only for incremental evaluation
+    private boolean keepRawObjectives = false;
 
-            for (String destination : matrix.get(origin).keySet()) {
-                int demandValue = matrix.get(origin).get(destination);
+    // Optimize [-coverage, numStops, cost] as three objectives instead of the weighted fitness
+    private final boolean multiObjective;
 
-                int demandaDestino = matrix.get(destination) != null && matrix.get(destination).containsKey(origin)
-                        ? matrix.get(destination).get(origin)
-                        : 0;
-                bidirectionalDemand.get(origin).put(destination, demandValue + demandaDestino);
+    // Source of createSolution() in pooled mode, see enableSolutionArena()
+    private IntegerSolutionArena solutionArena;
 
-                demandadx += demandValue;
-
-                demanda.put(destination, demanda.getOrDefault(destination, 0) + demandValue);
-
-            }
+    public ParadasProblem(Map<String, Map<String, Integer>> matrix) {
+        this(matrix, 0.65, 0.20, 0.15);
+    }
 
-            demanda.put(origin, demanda.getOrDefault(origin, 0) + demandadx);
+    public ParadasProblem(Map<String, Map<String, Integer>> matrix, double weightCoverage, double weightStops, double weightCost) {
+        this(CompiledODMatrix.compile(matrix), weightCoverage, weightStops, weightCost);
+    }
 
-        }
+    public ParadasProblem(CompiledODMatrix odMatrix, double weightCoverage, double weightStops, double weightCost) {
+        this(odMatrix, weightCoverage, weightStops, weightCost, false);
+    }
 
-        for (String d : demanda.keySet()) {
-            maxDemanda = demanda.get(d) != null && maxDemanda < demanda.get(d) ? demanda.get(d) : maxDemanda;
+    /**
+     * Three-objective version of the problem: minimizes [-coverage, numStops, cost]
+     * with the raw values, so a single run approximates the whole Pareto front. The
+     * default weights are kept only for {@link #fitness}.
+     */
+    public static ParadasProblem multiObjective(CompiledODMatrix odMatrix) {
+        return new ParadasProblem(odMatrix, 0.65, 0.20, 0.15, true);
+    }
 
-            indexToSegement.add(d);
+    private ParadasProblem(CompiledODMatrix odMatrix, double weightCoverage, double weightStops, double weightCost,
+            boolean multiObjective) {
 
-            segmentToIndex.put(d, indexToSegement.size() - 1);
-        }
+        this.odMatrix = odMatrix;
+        this.multiObjective = multiObjective;
+        this.kernel = odMatrix;
+        this.weightCoverage = weightCoverage;
+        this.weightStops = weightStops;
+        this.weightCost = weightCost;
 
-        int cantVariables = demanda.keySet().toArray().length;
+        int cantVariables = odMatrix.numberOfSegments();
         maxPossibleStops = cantVariables;
+        maxPossibleCoverage = odMatrix.maxPossibleCoverage();
+        maxPossibleCost = odMatrix.maxPossibleCost();
+        minPossibleCost = odMatrix.minPossibleCost();
 
-        // Compute max possible coverage (sum of all bidirectional demands)
-        for (String origin : bidirectionalDemand.keySet()) {
-            for (Integer demand : bidirectionalDemand.get(origin).values()) {
-                maxPossibleCoverage += demand;
-            }
-        }
+        this.workspace = ThreadLocal.withInitial(() -> new Workspace(cantVariables));
 
-        // Compute theoretical cost bounds
-        // Max cost: all stops at low-demand segments (factor ≈ +1)
-        // Min cost: all stops at high-demand segments (factor ≈ -1)
-        for (String segment : demanda.keySet()) {
-            double demandRatio = (demanda.get(segment) * 1.0) / maxDemanda;
-            double costFactor = 2 * (1 - demandRatio) - 1;
-            if (costFactor > 0) {
-                maxPossibleCost += 3 * costFactor; // 3 is max variable value
-            } else {
-                minPossibleCost += 3 * costFactor;
-            }
-        }
-
-        numberOfObjectives(1); // Single objective now
+        numberOfObjectives(multiObjective ? 3 : 1);
 
         List<Integer> lowerLimit = new ArrayList<>(cantVariables);
         List<Integer> upperLimit = new ArrayList<>(cantVariables);
@@ -125,27 +119,117 @@ public class ParadasProblem extends AbstractIntegerProblem {
 
     @Override
     public IntegerSolution createSolution() {
+        if (solutionArena != null) {
+            return solutionArena.createSolution();
+        }
         return new DefaultIntegerSolution(this.variableBounds(), this.numberOfObjectives(), 0);
     }
 
-    // Function to determine if a given origin-destionation bus stop are present on
-    // the solution
-    private int cubierto(IntegerSolution solution, String origen, String destino) {
-        try {
-            return solution.variables().get(segmentToIndex.get(origen)) > 0
-                    && solution.variables().get(segmentToIndex.get(destino)) > 0 ? 1 : 0;
-        } catch (Exception e) {
-            return 0;
+    @Override
+    public IntegerSolution evaluate(IntegerSolution solution) {
+        Workspace ws = workspace.get();
+        loadGenes(solution, ws.genes);
+
+        double[] objectives = ws.objectives;
+        GenomeDelta delta = incrementalEvaluation ? takeDelta(solution) : null;
+        if (delta != null) {
+            applyDelta(delta, ws);
+        } else {
+            kernel.objectives(ws.genes, objectives);
         }
+
+        setObjectives(solution, objectives);
+        return solution;
     }
 
+    /**
+     * Evaluate every solution of {@code population} as {@link #evaluate} would, with
+     * the ones that need a full evaluation scored together by a {@link PopulationKernel}:
+     * the OD matrix is read once for all of them instead of once per solution. Offspring
+     * with a recorded change set are still scored incrementally, one by one.
+     * <p>
+     * The objectives are bit-identical to {@link KernelType#CSR}'s. The batch scan only
+     * stands in for that kernel: with another one selected by {@link #setKernel}, every
+     * solution goes through {@link #evaluate} and that kernel. Thread-safe, like
+     * {@link #evaluate}.
+     */
     @Override
-    public IntegerSolution evaluate(IntegerSolution solution) {
-        double[] objectives = calculateObjectives(solution);
-        double coverage = objectives[0];
-        double numStops = objectives[1];
-        double cost = objectives[2];
+    public void evaluateAll(List<IntegerSolution> population) {
+        if (kernel != odMatrix) {
+            for (IntegerSolution solution : population) {
+                evaluate(solution);
+            }
+            return;
+        }
+
+        Batch b = batch.get();
+        b.clear(population.size());
+        for (IntegerSolution solution : population) {
+            if (incrementalEvaluation && hasDelta(solution)) {
+                evaluate(solution);
+            } else {
+                b.add(solution);
+            }
+        }
+        if (b.count == 0) {
+            return;
+        }
+
+        populationKernel().objectives(b.genes, b.count, b.objectives);
+        double[] objectives = workspace.get().objectives;
+        for (int i = 0; i < b.count; i++) {
+            System.arraycopy(b.objectives, 3 * i, objectives, 0, 3);
+            setObjectives(b.solutions[i], objectives);
+            b.solutions[i] = null;
+            b.genes[i] = null;
+        }
+    }
+
+    private PopulationKernel populationKernel() {
+        PopulationKernel result = populationKernel;
+        if (result == null) {
+            synchronized (this) {
+                result = populationKernel;
+                if (result == null) {
+                    result = new PopulationKernel(odMatrix);
+                    populationKernel = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Store the raw {@code objectives} of an evaluation in {@code solution}: its
+     * objective values and, for incremental evaluation, a copy of the raw values.
+     */
+    private void setObjectives(IntegerSolution solution, double[] objectives) {
+        if (incrementalEvaluation || keepRawObjectives) {
+            if (solution instanceof PooledIntegerSolution pooled && pooled.cache().length == objectives.length) {
+                // The copy's cache is its own, the parent's values are left untouched
+                System.arraycopy(objectives, 0, pooled.cache(), 0, objectives.length);
+                solution.attributes().put(RAW_OBJECTIVES, pooled.cache());
+            } else {
+                // Always a fresh array: copies made by the operators share the parent's one
+                solution.attributes().put(RAW_OBJECTIVES, objectives.clone());
+            }
+        }
+
+        if (multiObjective) {
+            // Coverage is maximized, negate it for minimization
+            solution.objectives()[0] = -objectives[0];
+            solution.objectives()[1] = objectives[1];
+            solution.objectives()[2] = objectives[2];
+        } else {
+            // Negate for minimization (NSGA-II minimizes by default)
+            solution.objectives()[0] = -fitness(objectives[0], objectives[1], objectives[2]);
+        }
+    }
 
+    /**
+     * Weighted fitness of the raw objectives, between 0 and 1 (higher is better).
+     */
+    public double fitness(double coverage, double numStops, double cost) {
         double normalizedCoverage = (coverage / maxPossibleCoverage);
         double normalizedStops = ((maxPossibleStops - numStops) / maxPossibleStops); // Inverted: fewer stops =
                                                                                             // better
@@ -154,14 +238,9 @@ public class ParadasProblem extends AbstractIntegerProblem {
                                                                                                          // better
 
         // Linear aggregation with weights (coverage dominates)
-        double fitness = weightCoverage * normalizedCoverage
+        return weightCoverage * normalizedCoverage
                 + weightStops * normalizedStops
                 + weightCost * normalizedCost;
-
-        // Negate for minimization (NSGA-II minimizes by default)
-        solution.objectives()[0] = -fitness;
-
-        return solution;
     }
 
     /**
@@ -170,35 +249,219 @@ public class ParadasProblem extends AbstractIntegerProblem {
      * @return Array with [coverage, numStops, cost]
      */
     private double[] calculateObjectives(IntegerSolution solution) {
-        // Component 1: Passenger coverage (higher is better)
-        double coverage = 0;
-        for (String origin : matrix.keySet()) {
-            for (String destination : matrix.get(origin).keySet()) {
-                coverage += bidirectionalDemand.get(origin).get(destination) * cubierto(solution, origin, destination);
+        int[] genes = new int[numberOfVariables()];
+        loadGenes(solution, genes);
+
+        double[] objectives = new double[3];
+        kernel.objectives(genes, objectives);
+
+        return objectives;
+    }
+
+    /**
+     * Score the genes in {@code ws} starting from the parent's objectives, touching
+     * only the OD pairs incident to segments whose open state changed.
+     * Coverage and stop count are exact; the cost differs from a full evaluation
+     * only by floating-point summation order.
+     */
+    private void applyDelta(GenomeDelta delta, Workspace ws) {
+        int[] genes = ws.genes;
+        int epoch = ws.nextEpoch();
+
+        double coverage = delta.parentObjectives[0];
+        double numStops = delta.parentObjectives[1];
+        double cost = delta.parentObjectives[2];
+
+        int flipCount = 0;
+        for (int i = 0; i < delta.size; i++) {
+            int v = delta.changed[i];
+            int previous = delta.previousValues[i];
+
+            cost += (genes[v] - previous) * odMatrix.costFactor(v);
+
+            if ((previous > 0) != (genes[v] > 0)) {
+                numStops += genes[v] > 0 ? 1 : -1;
+                ws.flipped[v] = epoch;
+                ws.flips[flipCount++] = v;
             }
         }
 
-        // Component 2: Number of bus stops (fewer is better)
-        double numStops = 0;
-        for (int v = 0; v < numberOfVariables(); v++) {
-            numStops += solution.variables().get(v) == 0 ? 0 : 1;
+        coverage += odMatrix.adjacency().coverageDelta(genes, ws.flips, flipCount, ws.flipped, ws.processed, epoch);
+
+        ws.objectives[0] = coverage;
+        ws.objectives[1] = numStops;
+        ws.objectives[2] = cost;
+    }
+
+    /**
+     * Record which variables of {@code child} differ from {@code parent} so the next
+     * evaluation only re-scores the OD pairs incident to them. Declines (leaving the
+     * child for a full evaluation) when incremental evaluation is off, the parent has
+     * no cached objectives, or the changed segments touch more than half of the pairs.
+     */
+    @Override
+    public void recordParent(IntegerSolution parent, IntegerSolution child) {
+        PooledIntegerSolution pooled = child instanceof PooledIntegerSolution p ? p : null;
+        if (pooled != null && pooled.scratch() instanceof GenomeDelta reusable) {
+            reusable.pending = false;
+        }
+        child.attributes().remove(GENOME_DELTA);
+        if (!incrementalEvaluation) {
+            return;
+        }
+
+        double[] parentObjectives = (double[]) parent.attributes().get(RAW_OBJECTIVES);
+        if (parentObjectives == null) {
+            return;
         }
 
-        // Component 3: Weighted cost (lower is better in low-demand areas)
-        double cost = 0;
+        Workspace ws = workspace.get();
+        int[] before = genesOf(parent, ws.parentGenes);
+        int[] after = genesOf(child, ws.childGenes);
+        SegmentAdjacency adjacency = odMatrix.adjacency();
+        long touched = 0;
+        int count = 0;
+
         for (int v = 0; v < numberOfVariables(); v++) {
-            cost += solution.variables().get(v)
-                    * (2 * (1 - ((demanda.get(indexToSegement.get(v)) * 1.0) / maxDemanda)) - 1);
+            int previous = before[v];
+            if (previous != after[v]) {
+                touched += adjacency.degree(v);
+                if (touched > adjacency.size() / 2) {
+                    return;
+                }
+                ws.flips[count] = v;
+                ws.genes[count] = previous;
+                count++;
+            }
+        }
+
+        if (pooled != null) {
+            // Refill the child's own change set instead of allocating one
+            GenomeDelta delta = pooled.scratch() instanceof GenomeDelta reusable ? reusable : null;
+            if (delta == null || delta.changed.length < count) {
+                int capacity = Math.max(count, 16);
+                delta = new GenomeDelta(parentObjectives, new int[capacity], new int[capacity]);
+                pooled.setScratch(delta);
+            }
+            System.arraycopy(ws.flips, 0, delta.changed, 0, count);
+            System.arraycopy(ws.genes, 0, delta.previousValues, 0, count);
+            delta.parentObjectives = parentObjectives;
+            delta.size = count;
+            delta.pending = true;
+            return;
+        }
+
+        child.attributes().put(GENOME_DELTA, new GenomeDelta(parentObjectives,
+                Arrays.copyOf(ws.flips, count), Arrays.copyOf(ws.genes, count)));
+    }
+
+    /**
+     * Take the change set recorded for {@code solution}, if any, so it is used once.
+     */
+    private static GenomeDelta takeDelta(IntegerSolution solution) {
+        if (solution instanceof PooledIntegerSolution pooled && pooled.scratch() instanceof GenomeDelta delta
+                && delta.pending) {
+            delta.pending = false;
+            return delta;
+        }
+        return (GenomeDelta) solution.attributes().remove(GENOME_DELTA);
+    }
+
+    /**
+     * Whether {@code solution} has a change set to be evaluated from, without taking it.
+     */
+    private static boolean hasDelta(IntegerSolution solution) {
+        if (solution instanceof PooledIntegerSolution pooled && pooled.scratch() instanceof GenomeDelta delta
+                && delta.pending) {
+            return true;
+        }
+        return solution.attributes().containsKey(GENOME_DELTA);
+    }
+
+    /**
+     * Create an arena of {@code capacity} pooled solutions and make
+     * {@link #createSolution()} draw from it.
+     */
+    public IntegerSolutionArena enableSolutionArena(int capacity) {
+        this.solutionArena = new IntegerSolutionArena(variableBounds(), numberOfObjectives(), 3, capacity);
+        return solutionArena;
+    }
+
+    /**
+     * Select the kernel used for full evaluations. Defaults to {@link KernelType#CSR}.
+     */
+    public void setKernel(KernelType type) {
+        this.kernel = type.create(odMatrix);
+    }
+
+    public void setKernel(ObjectiveKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    public void setIncrementalEvaluation(boolean incrementalEvaluation) {
+        this.incrementalEvaluation = incrementalEvaluation;
+    }
+
+    /**
+     * Keep the raw objectives of every evaluation in {@link #RAW_OBJECTIVES}, for
+     * {@link #archivePoint}, even without incremental evaluation.
+     */
+    public void setKeepRawObjectives(boolean keepRawObjectives) {
+        this.keepRawObjectives = keepRawObjectives;
+    }
+
+    /**
+     * Write the [-coverage, numStops, cost] of the last evaluation of {@code solution}
+     * into {@code point}, for a {@link ParetoArchive}.
+     *
+     * @return Whether the solution holds its raw objectives, see {@link #setKeepRawObjectives}
+     */
+    public boolean archivePoint(IntegerSolution solution, double[] point) {
+        double[] objectives = (double[]) solution.attributes().get(RAW_OBJECTIVES);
+        if (objectives == null) {
+            return false;
         }
+        point[0] = -objectives[0];
+        point[1] = objectives[1];
+        point[2] = objectives[2];
+        return true;
+    }
 
-        return new double[] { coverage, numStops, cost };
+    /**
+     * @return Best possible [-coverage, numStops, cost]
+     */
+    public double[] idealPoint() {
+        return new double[] { -maxPossibleCoverage, 0, minPossibleCost };
+    }
+
+    /**
+     * @return Worst [-coverage, numStops, cost]: nothing covered, every segment a stop
+     *         at the most expensive level
+     */
+    public double[] nadirPoint() {
+        return new double[] { 0, maxPossibleStops, maxPossibleCost };
+    }
+
+    public boolean isIncrementalEvaluation() {
+        return incrementalEvaluation;
+    }
+
+    private static void loadGenes(IntegerSolution solution, int[] genes) {
+        if (solution instanceof PooledIntegerSolution pooled) {
+            System.arraycopy(pooled.genes(), 0, genes, 0, genes.length);
+            return;
+        }
+        List<Integer> variables = solution.variables();
+        for (int v = 0; v < genes.length; v++) {
+            genes[v] = variables.get(v);
+        }
     }
 
     public void printResult(IntegerSolution solution) {
         System.out.println("-----------------");
         System.out.println("CODSEG,value");
         for (int v = 0; v < numberOfVariables(); v++)
-            System.out.println(indexToSegement.get(v) + "," + String.valueOf(solution.variables().get(v)));
+            System.out.println(odMatrix.segment(v) + "," + String.valueOf(solution.variables().get(v)));
 
         System.out.println("-----------------");
         System.out.println("Fitness value: " + (-solution.objectives()[0]) + " (out of 1)");
@@ -219,7 +482,7 @@ public class ParadasProblem extends AbstractIntegerProblem {
             writer.write("CODSEG,value\n");
 
             for (int v = 0; v < numberOfVariables(); v++) {
-                writer.write(indexToSegement.get(v) + "," + solution.variables().get(v) + "\n");
+                writer.write(odMatrix.segment(v) + "," + solution.variables().get(v) + "\n");
             }
 
             System.out.println("Results saved to: " + fileName);
@@ -250,4 +513,92 @@ public class ParadasProblem extends AbstractIntegerProblem {
         return best;
     }
 
+    /**
+     * @return Weights of coverage, stops and cost in the aggregated fitness
+     */
+    public double[] getWeights() {
+        return new double[] { weightCoverage, weightStops, weightCost };
+    }
+
+    public boolean isMultiObjective() {
+        return multiObjective;
+    }
+
+    public CompiledODMatrix getODMatrix() {
+        return odMatrix;
+    }
+
+    /**
+     * @return The genes of {@code solution}, read into {@code buffer} unless it is pooled
+     */
+    private static int[] genesOf(IntegerSolution solution, int[] buffer) {
+        if (solution instanceof PooledIntegerSolution pooled) {
+            return pooled.genes();
+        }
+        loadGenes(solution, buffer);
+        return buffer;
+    }
+
+    /**
+     * Solutions of one {@link #evaluateAll} call that need a full evaluation, with their
+     * genes: pooled solutions lend their own array, others are read into a buffer.
+     */
+    private final class Batch {
+        IntegerSolution[] solutions = new IntegerSolution[0];
+        int[][] genes = new int[0][];
+        int[][] buffers = new int[0][];
+        double[] objectives = new double[0];
+        int count;
+
+        void clear(int capacity) {
+            count = 0;
+            if (solutions.length < capacity) {
+                solutions = new IntegerSolution[capacity];
+                genes = new int[capacity][];
+                buffers = Arrays.copyOf(buffers, capacity);
+                objectives = new double[3 * capacity];
+            }
+        }
+
+        void add(IntegerSolution solution) {
+            if (buffers[count] == null) {
+                buffers[count] = new int[numberOfVariables()];
+            }
+            solutions[count] = solution;
+            genes[count] = genesOf(solution, buffers[count]);
+            count++;
+        }
+    }
+
+    private static final class Workspace {
+        final int[] genes;
+        final int[] parentGenes;
+        final int[] childGenes;
+        final double[] objectives = new double[3];
+
+        // Incremental evaluation markers, stamped with an epoch instead of cleared
+        final int[] flips;
+        final int[] flipped;
+        final int[] processed;
+        int epoch = 0;
+
+        Workspace(int numberOfVariables) {
+            this.genes = new int[numberOfVariables];
+            this.parentGenes = new int[numberOfVariables];
+            this.childGenes = new int[numberOfVariables];
+            this.flips = new int[numberOfVariables];
+            this.flipped = new int[numberOfVariables];
+            this.processed = new int[numberOfVariables];
+        }
+
+        int nextEpoch() {
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(flipped, 0);
+                Arrays.fill(processed, 0);
+                epoch = 1;
+            }
+            return epoch;
+        }
+    }
+
 }
@@ -0,0 +1,124 @@
+package com.paradas.Abstraccion;
+
+import java.util.Arrays;
+
+/**
+ * Scores a whole population in one pass over a {@link CompiledODMatrix}, for
+ * {@link ParadasProblem#evaluateAll}.
+ * <p>
+ * Evaluating solutions one at a time streams the whole CSR structure, and the genes
+ * of random destinations, through the cache once per solution. Here the population
+ * is transposed into a segment-major bit matrix: row {@code v} holds one bit per
+ * solution, set if that solution opens segment {@code v}. Each OD pair is then read
+ * once per batch, in the outer loop, and the inner loop runs over the solutions 64 at
+ * a time: the AND of the origin's and destination's words marks the solutions that
+ * cover the pair, and only those get its weight. The bit matrix of a 300-solution
+ * population is 40 bytes per segment, so it stays in cache while the OD arrays stream.
+ * <p>
+ * Stops and cost are summed per solution in segment order while transposing, as the
+ * scalar kernel does, and coverage is an exact integer sum, so the objectives are
+ * bit-identical to {@link KernelType#CSR}'s.
+ */
+public final class PopulationKernel {
+
+    private final int numberOfSegments;
+    private final int[] rowOffsets;
+    private final int[] destinations;
+    private final int[] weights;
+    private final double[] costFactors;
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public PopulationKernel(CompiledODMatrix matrix) {
+        this.numberOfSegments = matrix.numberOfSegments();
+        this.rowOffsets = matrix.rowOffsets();
+        this.destinations = matrix.destinations();
+        this.weights = matrix.weights();
+        this.costFactors = matrix.costFactors();
+    }
+
+    /**
+     * Compute [coverage, numStops, cost] of {@code genes[0 .. count)} into
+     * {@code out[3 * s .. 3 * s + 3)} for solution {@code s}.
+     */
+    public void objectives(int[][] genes, int count, double[] out) {
+        int words = (count + 63) >>> 6;
+        Scratch s = scratch.get();
+        long[] open = s.open(numberOfSegments * words);
+        long[] coverage = s.coverage(count);
+
+        for (int solution = 0; solution < count; solution++) {
+            int[] g = genes[solution];
+            int word = solution >>> 6;
+            long bit = 1L << solution;
+            int numStops = 0;
+            double cost = 0;
+            for (int v = 0; v < numberOfSegments; v++) {
+                if (g[v] != 0) {
+                    open[v * words + word] |= bit;
+                    numStops++;
+                }
+                cost += g[v] * costFactors[v];
+            }
+            out[3 * solution + 1] = numStops;
+            out[3 * solution + 2] = cost;
+        }
+
+        for (int o = 0; o < numberOfSegments; o++) {
+            int originRow = o * words;
+            if (closedInAll(open, originRow, words)) {
+                continue;
+            }
+            for (int k = rowOffsets[o], end = rowOffsets[o + 1]; k < end; k++) {
+                int destinationRow = destinations[k] * words;
+                int weight = weights[k];
+                for (int w = 0; w < words; w++) {
+                    long covered = open[originRow + w] & open[destinationRow + w];
+                    while (covered != 0) {
+                        coverage[(w << 6) + Long.numberOfTrailingZeros(covered)] += weight;
+                        covered &= covered - 1;
+                    }
+                }
+            }
+        }
+
+        for (int solution = 0; solution < count; solution++) {
+            out[3 * solution] = coverage[solution];
+        }
+    }
+
+    private static boolean closedInAll(long[] open, int row, int words) {
+        for (int w = 0; w < words; w++) {
+            if (open[row + w] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Per-thread bit matrix and coverage sums, grown to the largest batch seen.
+     */
+    private static final class Scratch {
+        private long[] open = new long[0];
+        private long[] coverage = new long[0];
+
+        long[] open(int length) {
+            if (open.length < length) {
+                open = new long[length];
+            } else {
+                Arrays.fill(open, 0, length, 0L);
+            }
+            return open;
+        }
+
+        long[] coverage(int length) {
+            if (coverage.length < length) {
+                coverage = new long[length];
+            } else {
+                Arrays.fill(coverage, 0, length, 0L);
+            }
+            return coverage;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.paradas.Abstraccion;
+
+/**
+ * Per-segment incidence index over the OD pairs of a {@link CompiledODMatrix}.
+ * <p>
+ * Every CSR entry (o, d, w) is listed under {@code o} with neighbour {@code d}
+ * and, when {@code d != o}, under {@code d} with neighbour {@code o}. Changing
+ * the open state of a segment can only change the coverage of the entries
+ * listed under it, which is what the incremental evaluation relies on.
+ */
+public final class SegmentAdjacency {
+
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final int[] weights;
+
+    SegmentAdjacency(CompiledODMatrix matrix) {
+        int n = matrix.numberOfSegments();
+
+        offsets = new int[n + 1];
+        for (int o = 0; o < n; o++) {
+            for (int k = matrix.rowStart(o); k < matrix.rowEnd(o); k++) {
+                int d = matrix.destination(k);
+                offsets[o + 1]++;
+                if (d != o) {
+                    offsets[d + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        neighbours = new int[offsets[n]];
+        weights = new int[offsets[n]];
+        int[] fill = new int[n];
+        System.arraycopy(offsets, 0, fill, 0, n);
+
+        for (int o = 0; o < n; o++) {
+            for (int k = matrix.rowStart(o); k < matrix.rowEnd(o); k++) {
+                int d = matrix.destination(k);
+                neighbours[fill[o]] = d;
+                weights[fill[o]++] = matrix.weight(k);
+                if (d != o) {
+                    neighbours[fill[d]] = o;
+                    weights[fill[d]++] = matrix.weight(k);
+                }
+            }
+        }
+    }
+
+    public int degree(int segment) {
+        return offsets[segment + 1] - offsets[segment];
+    }
+
+    public int size() {
+        return neighbours.length;
+    }
+
+    /**
+     * Coverage change caused by flipping the open state of the given segments.
+     *
+     * @param genes     New genes (after the flips)
+     * @param flips     Segments whose open state changed
+     * @param flipCount Number of valid entries in {@code flips}
+     * @param flipped   Marker array, {@code flipped[s] == epoch} iff s was flipped
+     * @param processed Scratch marker array, same length as genes
+     * @param epoch     Marker value for this call
+     */
+    long coverageDelta(int[] genes, int[] flips, int flipCount, int[] flipped, int[] processed, int epoch) {
+        long delta = 0;
+
+        for (int i = 0; i < flipCount; i++) {
+            int s = flips[i];
+            boolean newS = genes[s] > 0;
+            boolean oldS = !newS;
+
+            for (int k = offsets[s], end = offsets[s + 1]; k < end; k++) {
+                int t = neighbours[k];
+                boolean tFlipped = flipped[t] == epoch;
+
+                // Pairs between two flipped segments are scored once, by whichever came first
+                if (t != s && tFlipped && processed[t] == epoch) {
+                    continue;
+                }
+
+                boolean newT = genes[t] > 0;
+                boolean oldT = tFlipped ? !newT : newT;
+
+                if (newS && newT) {
+                    delta += weights[k];
+                }
+                if (oldS && oldT) {
+                    delta -= weights[k];
+                }
+            }
+
+            processed[s] = epoch;
+        }
+
+        return delta;
+    }
+}
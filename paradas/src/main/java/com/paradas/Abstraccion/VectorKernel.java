@@ -0,0 +1,117 @@
+package com.paradas.Abstraccion;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Evaluation kernel on the incubating Java Vector API ({@code jdk.incubator.vector}),
+ * so it needs {@code --add-modules jdk.incubator.vector} to compile and to run; use
+ * it through {@link KernelType#VECTOR}, which falls back to the scalar kernel when the
+ * module is missing.
+ * <p>
+ * Stops and cost are one pass over the genes: the stop count is the population of a
+ * {@code gene != 0} mask and the cost a fused multiply-add of the genes, widened to
+ * double, with the precomputed cost factors. Coverage visits the open origins and, for
+ * each, gathers the genes of a whole vector of CSR destinations at once, adding the
+ * weights of the open ones under the mask. The lanes are ints, so a row whose weights
+ * could add up past {@link Integer#MAX_VALUE} is summed by the scalar loop instead.
+ * <p>
+ * Coverage and stops are exact. The cost is summed lane by lane, in a different order
+ * than the scalar loop, so it can differ from {@link KernelType#CSR} in the last bits.
+ */
+public final class VectorKernel implements ObjectiveKernel {
+
+    // OD rows hold about a dozen destinations: wider gathers mostly run a masked tail
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED.vectorBitSize() > 256
+            ? IntVector.SPECIES_256 : IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    // Ints with as many lanes as DOUBLES, to widen the genes lane for lane
+    private static final VectorSpecies<Integer> GENES = VectorSpecies.of(int.class,
+            VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+
+    private final int numberOfSegments;
+    private final int[] rowOffsets;
+    private final int[] destinations;
+    private final int[] weights;
+    private final double[] costFactors;
+    // Rows whose absolute weights add up past an int, summed in a long
+    private final boolean[] wideRows;
+
+    public VectorKernel(CompiledODMatrix matrix) {
+        this.numberOfSegments = matrix.numberOfSegments();
+        this.rowOffsets = matrix.rowOffsets();
+        this.destinations = matrix.destinations();
+        this.weights = matrix.weights();
+        this.costFactors = matrix.costFactors();
+
+        this.wideRows = new boolean[numberOfSegments];
+        for (int o = 0; o < numberOfSegments; o++) {
+            long sum = 0;
+            for (int k = rowOffsets[o]; k < rowOffsets[o + 1]; k++) {
+                sum += Math.abs((long) weights[k]);
+            }
+            wideRows[o] = sum > Integer.MAX_VALUE;
+        }
+    }
+
+    @Override
+    public void objectives(int[] genes, double[] out) {
+        out[0] = coverage(genes);
+
+        int numStops = 0;
+        DoubleVector costs = DoubleVector.zero(DOUBLES);
+        int v = 0;
+        for (int bound = GENES.loopBound(numberOfSegments); v < bound; v += GENES.length()) {
+            IntVector g = IntVector.fromArray(GENES, genes, v);
+            numStops += g.compare(VectorOperators.NE, 0).trueCount();
+            DoubleVector level = (DoubleVector) g.convertShape(VectorOperators.I2D, DOUBLES, 0);
+            costs = level.fma(DoubleVector.fromArray(DOUBLES, costFactors, v), costs);
+        }
+        double cost = costs.reduceLanes(VectorOperators.ADD);
+        for (; v < numberOfSegments; v++) {
+            numStops += genes[v] == 0 ? 0 : 1;
+            cost += genes[v] * costFactors[v];
+        }
+
+        out[1] = numStops;
+        out[2] = cost;
+    }
+
+    private long coverage(int[] genes) {
+        long coverage = 0;
+        for (int o = 0; o < numberOfSegments; o++) {
+            if (genes[o] <= 0) {
+                continue;
+            }
+            int k = rowOffsets[o];
+            int end = rowOffsets[o + 1];
+            if (wideRows[o]) {
+                for (; k < end; k++) {
+                    if (genes[destinations[k]] > 0) {
+                        coverage += weights[k];
+                    }
+                }
+                continue;
+            }
+            // No lane can overflow: the row's absolute weights add up to an int
+            IntVector covered = IntVector.zero(INTS);
+            for (int bound = k + INTS.loopBound(end - k); k < bound; k += INTS.length()) {
+                IntVector destinationGenes = IntVector.fromArray(INTS, genes, 0, destinations, k);
+                VectorMask<Integer> open = destinationGenes.compare(VectorOperators.GT, 0);
+                covered = covered.add(IntVector.fromArray(INTS, weights, k), open);
+            }
+            if (k < end) {
+                VectorMask<Integer> tail = INTS.indexInRange(k, end);
+                IntVector destinationGenes = IntVector.fromArray(INTS, genes, 0, destinations, k, tail);
+                VectorMask<Integer> open = destinationGenes.compare(VectorOperators.GT, 0, tail);
+                covered = covered.add(IntVector.fromArray(INTS, weights, k, tail), open);
+            }
+            coverage += covered.reduceLanes(VectorOperators.ADD);
+        }
+        return coverage;
+    }
+}
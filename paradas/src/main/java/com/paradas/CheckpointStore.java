@@ -0,0 +1,361 @@
+package com.paradas;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import com.paradas.Main.ParetoResult;
+import com.paradas.Main.WeightCombination;
+
+/**
+ * On-disk progress of a Pareto sweep, so a crashed or preempted sweep can resume.
+ * <p>
+ * Two kinds of files live in the checkpoint directory:
+ * <ul>
+ * <li>{@code results.bin}: header (magic, version, seed, combinations, runs and the
+ * fingerprints of the OD matrix, the weight combinations and the settings) followed
+ * by one fixed-size record per finished run, appended as soon as it finishes. A torn
+ * last record is cut off on load, so the records appended after it stay aligned.</li>
+ * <li>{@code job_<combination>_<run>.snap}: latest snapshot of an in-flight run
+ * (evaluation counter, random stream state, population genes and objectives),
+ * replaced atomically and deleted once the run's result is appended.</li>
+ * </ul>
+ * Genes whose values all fit in two bits (the 0-3 stop levels) are packed four per
+ * byte.
+ * <p>
+ * Only the population, evaluation counter and random stream of a run are saved. A
+ * resumed run starts its {@code ParetoArchive}, fitness curves (and so stopping
+ * conditions such as stagnation or the time limit) and telemetry over from the
+ * snapshot.
+ */
+class CheckpointStore {
+
+    private static final int RESULTS_MAGIC = 0x50524B52; // "PRKR"
+    private static final int SNAPSHOT_MAGIC = 0x50524B53; // "PRKS"
+    private static final int VERSION = 2;
+
+    // magic, version, seed, combinations, runs, three fingerprints
+    private static final int RESULTS_HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 3 * 8;
+    // combination, run and four objectives
+    private static final int RESULT_RECORD_BYTES = 4 + 4 + 4 * 8;
+
+    private static final byte PACKED_2BIT = 2;
+    private static final byte PLAIN_INT = 32;
+
+    private final Path directory;
+    private final Path resultsFile;
+    private final long seed;
+    private final int combinations;
+    private final int runsPerCombination;
+    private final long matrixFingerprint;
+    private final long weightsFingerprint;
+    private final long settingsFingerprint;
+
+    // Results already on disk, keyed by job
+    private final Map<Long, double[]> completed = new HashMap<>();
+
+    private CheckpointStore(Path directory, long seed, int combinations, int runsPerCombination,
+            long matrixFingerprint, long weightsFingerprint, long settingsFingerprint) {
+        this.directory = directory;
+        this.resultsFile = directory.resolve("results.bin");
+        this.seed = seed;
+        this.combinations = combinations;
+        this.runsPerCombination = runsPerCombination;
+        this.matrixFingerprint = matrixFingerprint;
+        this.weightsFingerprint = weightsFingerprint;
+        this.settingsFingerprint = settingsFingerprint;
+    }
+
+    /**
+     * Start an empty checkpoint, discarding whatever the directory held.
+     */
+    static CheckpointStore create(Path directory, long seed, int combinations, int runsPerCombination,
+            long matrixFingerprint, long weightsFingerprint, long settingsFingerprint) {
+        CheckpointStore store = new CheckpointStore(directory, seed, combinations, runsPerCombination,
+                matrixFingerprint, weightsFingerprint, settingsFingerprint);
+        try {
+            Files.createDirectories(directory);
+            try (var files = Files.newDirectoryStream(directory, "job_*.snap")) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(store.resultsFile))) {
+                out.writeInt(RESULTS_MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(seed);
+                out.writeInt(combinations);
+                out.writeInt(runsPerCombination);
+                out.writeLong(matrixFingerprint);
+                out.writeLong(weightsFingerprint);
+                out.writeLong(settingsFingerprint);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create checkpoint in " + directory, e);
+        }
+        return store;
+    }
+
+    /**
+     * Reopen the checkpoint of an interrupted sweep, loading the finished runs.
+     */
+    static CheckpointStore open(Path directory) {
+        Path resultsFile = directory.resolve("results.bin");
+        CheckpointStore store;
+        long complete = RESULTS_HEADER_BYTES;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(resultsFile)))) {
+            if (in.readInt() != RESULTS_MAGIC) {
+                throw new IllegalStateException("Not a sweep checkpoint: " + resultsFile);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalStateException("Checkpoint " + resultsFile + " has version " + version
+                        + ", this build reads version " + VERSION);
+            }
+            store = new CheckpointStore(directory, in.readLong(), in.readInt(), in.readInt(), in.readLong(),
+                    in.readLong(), in.readLong());
+
+            while (true) {
+                int combination;
+                int run;
+                double[] objectives = new double[4];
+                try {
+                    combination = in.readInt();
+                    run = in.readInt();
+                    for (int i = 0; i < objectives.length; i++) {
+                        objectives[i] = in.readDouble();
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                store.completed.put(key(combination, run), objectives);
+                complete += RESULT_RECORD_BYTES;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read checkpoint " + resultsFile, e);
+        }
+
+        // Drop the torn record of a run interrupted while appending, or the next
+        // appended records would start in the middle of it
+        try (FileChannel channel = FileChannel.open(resultsFile, StandardOpenOption.WRITE)) {
+            if (channel.size() > complete) {
+                System.err.println("Dropping " + (channel.size() - complete) + " bytes of a torn record from "
+                        + resultsFile);
+                channel.truncate(complete);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot truncate checkpoint " + resultsFile, e);
+        }
+        return store;
+    }
+
+    long seed() {
+        return seed;
+    }
+
+    int combinations() {
+        return combinations;
+    }
+
+    int runsPerCombination() {
+        return runsPerCombination;
+    }
+
+    long matrixFingerprint() {
+        return matrixFingerprint;
+    }
+
+    long weightsFingerprint() {
+        return weightsFingerprint;
+    }
+
+    long settingsFingerprint() {
+        return settingsFingerprint;
+    }
+
+    int completedRuns() {
+        return completed.size();
+    }
+
+    /**
+     * @return The result of a run that already finished, or null
+     */
+    synchronized ParetoResult completedResult(int combination, int run, WeightCombination weights) {
+        double[] objectives = completed.get(key(combination, run));
+        if (objectives == null) {
+            return null;
+        }
+        return new ParetoResult(weights, objectives[0], objectives[1], objectives[2], objectives[3]);
+    }
+
+    /**
+     * Append a finished run and drop its snapshot.
+     */
+    synchronized void appendResult(int combination, int run, ParetoResult result) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(resultsFile, StandardOpenOption.APPEND)))) {
+            out.writeInt(combination);
+            out.writeInt(run);
+            out.writeDouble(result.coverage);
+            out.writeDouble(result.numStops);
+            out.writeDouble(result.cost);
+            out.writeDouble(result.fitness);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to " + resultsFile, e);
+        }
+        completed.put(key(combination, run), new double[] { result.coverage, result.numStops, result.cost,
+                result.fitness });
+
+        try {
+            Files.deleteIfExists(snapshotFile(combination, run));
+        } catch (IOException e) {
+            System.err.println("Could not delete snapshot of finished run: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Atomically replace the snapshot of an in-flight run.
+     */
+    void saveSnapshot(int combination, int run, int evaluations, long randomState,
+            List<IntegerSolution> population) {
+        Path target = snapshotFile(combination, run);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            int numberOfVariables = population.get(0).variables().size();
+            int numberOfObjectives = population.get(0).objectives().length;
+
+            boolean packed = true;
+            for (IntegerSolution solution : population) {
+                for (int value : solution.variables()) {
+                    packed &= value >= 0 && value <= 3;
+                }
+            }
+
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(evaluations);
+            out.writeLong(randomState);
+            out.writeInt(population.size());
+            out.writeInt(numberOfVariables);
+            out.writeInt(numberOfObjectives);
+            out.writeByte(packed ? PACKED_2BIT : PLAIN_INT);
+
+            for (IntegerSolution solution : population) {
+                List<Integer> variables = solution.variables();
+                if (packed) {
+                    for (int v = 0; v < numberOfVariables; v += 4) {
+                        int b = 0;
+                        for (int j = 0; j < 4 && v + j < numberOfVariables; j++) {
+                            b |= variables.get(v + j) << (2 * j);
+                        }
+                        out.writeByte(b);
+                    }
+                } else {
+                    for (int v = 0; v < numberOfVariables; v++) {
+                        out.writeInt(variables.get(v));
+                    }
+                }
+                for (double objective : solution.objectives()) {
+                    out.writeDouble(objective);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write snapshot " + target + ": " + e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write snapshot " + target + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return The latest snapshot of a run, or null if it never saved one
+     */
+    Snapshot loadSnapshot(int combination, int run) {
+        Path file = snapshotFile(combination, run);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != VERSION) {
+                throw new IllegalStateException("Not a run snapshot: " + file);
+            }
+            int evaluations = in.readInt();
+            long randomState = in.readLong();
+            int populationSize = in.readInt();
+            int numberOfVariables = in.readInt();
+            int numberOfObjectives = in.readInt();
+            boolean packed = in.readByte() == PACKED_2BIT;
+
+            int[][] genes = new int[populationSize][numberOfVariables];
+            double[][] objectives = new double[populationSize][numberOfObjectives];
+            for (int i = 0; i < populationSize; i++) {
+                if (packed) {
+                    for (int v = 0; v < numberOfVariables; v += 4) {
+                        int b = in.readUnsignedByte();
+                        for (int j = 0; j < 4 && v + j < numberOfVariables; j++) {
+                            genes[i][v + j] = (b >>> (2 * j)) & 3;
+                        }
+                    }
+                } else {
+                    for (int v = 0; v < numberOfVariables; v++) {
+                        genes[i][v] = in.readInt();
+                    }
+                }
+                for (int o = 0; o < numberOfObjectives; o++) {
+                    objectives[i][o] = in.readDouble();
+                }
+            }
+
+            return new Snapshot(evaluations, randomState, genes, objectives);
+        } catch (IOException e) {
+            // A snapshot that cannot be read only costs restarting the run from scratch
+            System.err.println("Ignoring unreadable snapshot " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Path snapshotFile(int combination, int run) {
+        return directory.resolve("job_" + combination + "_" + run + ".snap");
+    }
+
+    private static long key(int combination, int run) {
+        return ((long) combination << 32) | (run & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Saved state of an in-flight run.
+     */
+    static final class Snapshot {
+        final int evaluations;
+        final long randomState;
+        final int[][] genes;
+        final double[][] objectives;
+
+        Snapshot(int evaluations, long randomState, int[][] genes, double[][] objectives) {
+            this.evaluations = evaluations;
+            this.randomState = randomState;
+            this.genes = genes;
+            this.objectives = objectives;
+        }
+    }
+}
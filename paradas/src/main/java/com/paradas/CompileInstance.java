@@ -0,0 +1,43 @@
+package com.paradas;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.paradas.Abstraccion.CompiledInstance;
+import com.paradas.Abstraccion.CompiledODMatrix;
+import com.paradas.Abstraccion.MappedODMatrixLoader;
+
+/**
+ * One-time compile step: writes an OD matrix as a {@link CompiledInstance} file, to
+ * be loaded with {@code --instance} instead of parsing the CSV on every run.
+ * <p>
+ * Usage: {@code CompileInstance <csv> <instance>}. The CSV is read from disk with
+ * {@link MappedODMatrixLoader} if it is a file, otherwise from the classpath with
+ * {@code Main.readCsvToMap}, which keeps the segment indices of the default runs.
+ */
+public class CompileInstance {
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: CompileInstance <csv> <instance>");
+        }
+        Path csv = Paths.get(args[0]);
+        Path instance = Paths.get(args[1]);
+
+        long start = System.nanoTime();
+        CompiledODMatrix matrix = Files.isRegularFile(csv)
+                ? MappedODMatrixLoader.load(csv)
+                : CompiledODMatrix.compile(Main.readCsvToMap(args[0]));
+        long compiled = System.nanoTime();
+        CompiledInstance.write(matrix, instance);
+        long written = System.nanoTime();
+        CompiledInstance.read(instance);
+        long read = System.nanoTime();
+
+        System.out.println(String.format("%s: %d segments, %d OD pairs", args[0], matrix.numberOfSegments(),
+                matrix.numberOfPairs()));
+        System.out.println(String.format("Compiled in %.1f ms, written to %s in %.1f ms, read back in %.1f ms",
+                (compiled - start) / 1e6, instance, (written - compiled) / 1e6, (read - written) / 1e6));
+    }
+}
@@ -0,0 +1,185 @@
+package com.paradas;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.paradas.Abstraccion.CompiledODMatrix;
+import com.paradas.Abstraccion.KernelType;
+import com.paradas.Main.RunSettings;
+
+/**
+ * Wire format between a {@link SweepCoordinator} and its {@link SweepWorker}s: one
+ * TCP connection per worker carrying messages made of a type byte and a fixed
+ * payload, written with {@link DataOutputStream} (big-endian).
+ * <ul>
+ * <li>{@link #HELLO}, worker to coordinator, first message: magic, version, slots
+ * (islands the worker runs at once), number of segments and matrix fingerprint.</li>
+ * <li>{@link #TASK}, coordinator to worker: task id, combination, run, island,
+ * islands of the run, the three weights, island seed and the island's settings, see
+ * {@link #writeSettings}.</li>
+ * <li>{@link #MIGRANT}, both ways: task id, target island and genome. From a worker
+ * the task is the sender; from the coordinator, the island it is delivered to.</li>
+ * <li>{@link #RESULT}, worker to coordinator: task id, coverage, stops, cost and
+ * fitness of the island's best solution.</li>
+ * <li>{@link #HEARTBEAT}, worker to coordinator every {@link #HEARTBEAT_MILLIS}.</li>
+ * <li>{@link #SHUTDOWN}, coordinator to worker: reason, empty once the sweep is done.</li>
+ * </ul>
+ * A genome is its length, an encoding byte and the genes: packed four per byte when
+ * they all fit in two bits (the 0-3 stop levels), as ints otherwise.
+ */
+final class DistributedProtocol {
+
+    static final int MAGIC = 0x50524B44; // "PRKD"
+    static final int VERSION = 2;
+
+    static final int DEFAULT_PORT = 7170;
+    static final int HEARTBEAT_MILLIS = 5000;
+
+    static final byte HELLO = 1;
+    static final byte TASK = 2;
+    static final byte MIGRANT = 3;
+    static final byte RESULT = 4;
+    static final byte HEARTBEAT = 5;
+    static final byte SHUTDOWN = 6;
+
+    private static final byte PACKED_2BIT = 2;
+    private static final byte PLAIN_INT = 32;
+
+    private DistributedProtocol() {
+    }
+
+    /**
+     * Writes one message, flushed by the caller.
+     */
+    @FunctionalInterface
+    interface Message {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Every field of {@code settings} but the telemetry, so a worker runs exactly the
+     * algorithm the coordinator was configured with whatever its own defaults.
+     */
+    static void writeSettings(DataOutputStream out, RunSettings settings) throws IOException {
+        out.writeInt(settings.populationSize);
+        out.writeInt(settings.maxEvaluations);
+        out.writeDouble(settings.crossoverProbability);
+        out.writeDouble(settings.mutationProbability);
+        out.writeInt(settings.mutationDistributionIndex);
+        out.writeBoolean(settings.incrementalEvaluation);
+        out.writeInt(settings.kernel.ordinal());
+        out.writeBoolean(settings.fastNonDominatedSorting);
+        out.writeBoolean(settings.pooledPopulation);
+        out.writeInt(settings.evaluationCacheSize);
+        out.writeInt(settings.evaluationChunkSize);
+        out.writeBoolean(settings.batchEvaluation);
+        out.writeDouble(settings.greedySeedFraction);
+        out.writeDouble(settings.greedySeedNoise);
+        out.writeInt(settings.islands);
+        out.writeInt(settings.migrationInterval);
+        out.writeInt(settings.migrants);
+        out.writeInt(settings.migrationTopology.ordinal());
+        out.writeInt(settings.archiveSize);
+        out.writeLong(settings.timeLimitMillis);
+        out.writeInt(settings.stagnationGenerations);
+        out.writeDouble(settings.stagnationEpsilon);
+        out.writeInt(settings.hypervolumeGenerations);
+        out.writeDouble(settings.hypervolumeDelta);
+        out.writeDouble(settings.targetFitness);
+        out.writeBoolean(settings.stopWhenAll);
+    }
+
+    /**
+     * Read settings written by {@link #writeSettings}; the telemetry is left null.
+     */
+    static RunSettings readSettings(DataInputStream in) throws IOException {
+        RunSettings settings = new RunSettings();
+        settings.populationSize = in.readInt();
+        settings.maxEvaluations = in.readInt();
+        settings.crossoverProbability = in.readDouble();
+        settings.mutationProbability = in.readDouble();
+        settings.mutationDistributionIndex = in.readInt();
+        settings.incrementalEvaluation = in.readBoolean();
+        settings.kernel = KernelType.values()[in.readInt()];
+        settings.fastNonDominatedSorting = in.readBoolean();
+        settings.pooledPopulation = in.readBoolean();
+        settings.evaluationCacheSize = in.readInt();
+        settings.evaluationChunkSize = in.readInt();
+        settings.batchEvaluation = in.readBoolean();
+        settings.greedySeedFraction = in.readDouble();
+        settings.greedySeedNoise = in.readDouble();
+        settings.islands = in.readInt();
+        settings.migrationInterval = in.readInt();
+        settings.migrants = in.readInt();
+        settings.migrationTopology = MigrationTopology.values()[in.readInt()];
+        settings.archiveSize = in.readInt();
+        settings.timeLimitMillis = in.readLong();
+        settings.stagnationGenerations = in.readInt();
+        settings.stagnationEpsilon = in.readDouble();
+        settings.hypervolumeGenerations = in.readInt();
+        settings.hypervolumeDelta = in.readDouble();
+        settings.targetFitness = in.readDouble();
+        settings.stopWhenAll = in.readBoolean();
+        return settings;
+    }
+
+    static void writeGenome(DataOutputStream out, int[] genes) throws IOException {
+        boolean packed = true;
+        for (int value : genes) {
+            packed &= value >= 0 && value <= 3;
+        }
+
+        out.writeInt(genes.length);
+        out.writeByte(packed ? PACKED_2BIT : PLAIN_INT);
+        if (packed) {
+            for (int v = 0; v < genes.length; v += 4) {
+                int b = 0;
+                for (int j = 0; j < 4 && v + j < genes.length; j++) {
+                    b |= genes[v + j] << (2 * j);
+                }
+                out.writeByte(b);
+            }
+        } else {
+            for (int value : genes) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    static int[] readGenome(DataInputStream in) throws IOException {
+        int[] genes = new int[in.readInt()];
+        byte encoding = in.readByte();
+        if (encoding == PACKED_2BIT) {
+            for (int v = 0; v < genes.length; v += 4) {
+                int b = in.readUnsignedByte();
+                for (int j = 0; j < 4 && v + j < genes.length; j++) {
+                    genes[v + j] = (b >>> (2 * j)) & 3;
+                }
+            }
+        } else if (encoding == PLAIN_INT) {
+            for (int v = 0; v < genes.length; v++) {
+                genes[v] = in.readInt();
+            }
+        } else {
+            throw new IllegalStateException("Unknown genome encoding: " + encoding);
+        }
+        return genes;
+    }
+
+    /**
+     * Hash of the segment names, in index order, and of the OD pairs, so workers that
+     * loaded different matrices, or the same one indexed differently, never exchange
+     * genomes.
+     */
+    static long fingerprint(CompiledODMatrix odMatrix) {
+        long hash = odMatrix.numberOfSegments();
+        for (int v = 0; v < odMatrix.numberOfSegments(); v++) {
+            hash = 31 * hash + odMatrix.segment(v).hashCode();
+            for (int k = odMatrix.rowStart(v); k < odMatrix.rowEnd(v); k++) {
+                hash = 31 * (31 * hash + odMatrix.destination(k)) + odMatrix.passengers(k);
+            }
+        }
+        return hash;
+    }
+}
@@ -4,11 +4,16 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.paradas.Abstraccion.CompiledInstance;
+import com.paradas.Abstraccion.CompiledODMatrix;
+
 import tech.tablesaw.io.csv.CsvReader;
 
 public class Greedy {
@@ -131,59 +136,82 @@ public class Greedy {
         return (-1) * f1 + f2 + f3 ; // we make a weighted-fitness with all this factors
     }
     
+    /**
+     * Arguments:
+     * <ul>
+     * <li>{@code --mode incremental|scan}: update the gains of the neighbours of each opened
+     * segment (default), or rescore every segment on every step with a parallel scan</li>
+     * <li>{@code --threads N}: threads of the parallel scan (default: available processors)</li>
+     * <li>{@code --instance FILE}: read the matrix from a {@link CompileInstance} file instead of
+     * {@code data.csv}; ties are then broken by segment index</li>
+     * </ul>
+     * Both modes produce the same solution.
+     */
     public static void main(String[] args) {
-        initializeODMatrix();
-        initializeSol();
-        initializeSeg();
-        initializeDem();
-
-        int k = 0;
-
-        while (k < MAX_ITER) {
-            String bestSegment = null;
-            int bestBusStop = -1;
-            double minFitness = fitness(solution);
-            System.out.println(minFitness);
-
-            int i = 0;
-            for (String segment : segments) {
-
-                int prev = solution.get(segment);
-
-                for (int busStop = 1; busStop <= 3; busStop++) {
-                    solution.put(segment, busStop);
-
-                    double fitness = fitness(solution);
-
-                    if (fitness < minFitness) {
-                        System.out.println("true: " + segment + " - " + busStop);
-                        bestSegment = segment;
-                        bestBusStop = busStop;
-                        minFitness = fitness;
-                    }
-
-                }
-
-                solution.put(segment, prev);
-
-                System.out.println(i);
-                i++;
+        String mode = "incremental";
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path instanceFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--mode":
+                    mode = args[++i];
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--instance":
+                    instanceFile = Paths.get(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
             }
+        }
 
-            if (bestSegment != null) {
-                solution.put(bestSegment, bestBusStop);
-                segments.remove(bestSegment);
+        CompiledODMatrix matrix;
+        GreedyEngine engine;
+        if (instanceFile != null) {
+            matrix = CompiledInstance.read(instanceFile);
+            solution = new HashMap<>();
+            engine = new GreedyEngine(matrix);
+        } else {
+            initializeODMatrix();
+            initializeSol();
+            initializeSeg();
+            initializeDem();
+
+            matrix = CompiledODMatrix.compile(ODMatrix);
+
+            // Break ties in the order the segments are listed, as a first-strictly-better scan would
+            int[] scanRank = new int[matrix.numberOfSegments()];
+            for (int i = 0; i < segments.size(); i++) {
+                scanRank[matrix.indexOf(segments.get(i))] = i;
             }
-            else {
+
+            engine = new GreedyEngine(matrix, scanRank);
+        }
+        int[] genes;
+        switch (mode) {
+            case "incremental":
+                genes = engine.run(MAX_ITER);
                 break;
-            }
+            case "scan":
+                genes = engine.runParallelScan(MAX_ITER, threads);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
 
-            k++;
+        for (int v = 0; v < genes.length; v++) {
+            solution.put(matrix.segment(v), genes[v]);
         }
 
+        System.out.println("Opened " + engine.steps() + " segments, fitness: "
+                + (instanceFile != null ? engine.fitness() : fitness(solution)));
+
         // Print solution
         for (Map.Entry<String, Integer> entry : solution.entrySet()) {
             System.out.println(entry.getKey() + "," + entry.getValue());
         }
     }
-}
\ No newline at end of file
+}
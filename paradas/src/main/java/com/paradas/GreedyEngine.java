@@ -0,0 +1,406 @@
+package com.paradas;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleSupplier;
+
+import com.paradas.Abstraccion.CompiledODMatrix;
+
+/**
+ * Best-improvement greedy over a {@link CompiledODMatrix}, minimizing
+ * {@code -a * coverage + b * stops + c * cost}. The public constructors use the
+ * fitness of {@link Greedy} (all coefficients 1, coverage counted on raw
+ * passengers); {@link #forObjectives} uses the negated weighted fitness of
+ * {@code ParadasProblem}.
+ * <p>
+ * Opening a closed segment {@code s} at level {@code b} changes the fitness by
+ * {@code -a * gain(s) + b_stops + c * b * costFactor(s)}, where {@code gain(s)} is the
+ * passengers between {@code s} and the segments already open (plus its own pairs). The best
+ * level only depends on the sign of the cost factor, so every closed segment has a
+ * single best move, kept in an indexed binary heap. Opening a segment only raises
+ * the gain of its neighbours, so each step updates their keys in place instead of
+ * re-scoring every segment: a step costs O(degree * log n) rather than a full
+ * fitness evaluation per segment and level.
+ * <p>
+ * Ties are broken by a scan rank (the segment index unless given), so the engine
+ * picks the same segment as a loop that keeps the first strictly better move in rank
+ * order.
+ * <p>
+ * {@link #runParallelScan} is the non-incremental alternative: every step scores all
+ * closed segments from scratch against a read-only snapshot of the genes, as a
+ * parallel argmin reduction. The order (delta, rank) is total, so the merged result,
+ * and therefore the solution, is the same on any number of threads, and the same as
+ * {@link #run}'s.
+ */
+public final class GreedyEngine {
+
+    private final CompiledODMatrix matrix;
+    private final int n;
+    private final int[] rank;
+
+    // Coefficients of coverage, stops and cost
+    private final boolean bidirectional;
+    private double coverageWeight;
+    private double stopWeight;
+    private double costWeight;
+
+    // Per-segment factor on the coverage gain, see perturb()
+    private final double[] gainScale;
+
+    // Symmetric neighbour lists with raw passengers: pair (o, d, p) is listed under o and d
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final int[] passengers;
+    private final long[] selfPassengers;
+
+    private final long[] gain;
+    private final double[] delta;
+    private final int[] level;
+    private final int[] genes;
+
+    // Indexed min-heap of the closed segments by (delta, rank)
+    private final int[] heap;
+    private final int[] position;
+    private int heapSize;
+
+    private double fitness = 0;
+    private int steps = 0;
+
+    /**
+     * Tie-break by segment index.
+     */
+    public GreedyEngine(CompiledODMatrix matrix) {
+        this(matrix, identity(matrix.numberOfSegments()));
+    }
+
+    /**
+     * @param rank Position of every segment in the tie-breaking order
+     */
+    public GreedyEngine(CompiledODMatrix matrix, int[] rank) {
+        this(matrix, rank, false, 1, 1, 1);
+    }
+
+    /**
+     * Engine for the aggregated fitness of {@code ParadasProblem} with the given weights:
+     * coverage on bidirectional weights and every term normalized by its bounds.
+     */
+    public static GreedyEngine forObjectives(CompiledODMatrix matrix, double weightCoverage, double weightStops,
+            double weightCost) {
+        GreedyEngine engine = new GreedyEngine(matrix, identity(matrix.numberOfSegments()), true, 0, 0, 0);
+        engine.setObjectiveWeights(weightCoverage, weightStops, weightCost);
+        return engine;
+    }
+
+    /**
+     * @param bidirectional Count coverage with the bidirectional weight of every CSR entry,
+     *                      as {@code ParadasProblem} does, instead of raw passengers
+     */
+    private GreedyEngine(CompiledODMatrix matrix, int[] rank, boolean bidirectional, double coverageWeight,
+            double stopWeight, double costWeight) {
+        this.matrix = matrix;
+        this.n = matrix.numberOfSegments();
+        this.rank = rank;
+        this.bidirectional = bidirectional;
+        this.coverageWeight = coverageWeight;
+        this.stopWeight = stopWeight;
+        this.costWeight = costWeight;
+        this.gainScale = new double[n];
+        Arrays.fill(gainScale, 1.0);
+
+        offsets = new int[n + 1];
+        selfPassengers = new long[n];
+        for (int o = 0; o < n; o++) {
+            for (int k = matrix.rowStart(o); k < matrix.rowEnd(o); k++) {
+                int d = matrix.destination(k);
+                if (d == o) {
+                    selfPassengers[o] += bidirectional ? matrix.weight(k) : matrix.passengers(k);
+                } else {
+                    offsets[o + 1]++;
+                    offsets[d + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        neighbours = new int[offsets[n]];
+        passengers = new int[offsets[n]];
+        int[] fill = new int[n];
+        System.arraycopy(offsets, 0, fill, 0, n);
+        for (int o = 0; o < n; o++) {
+            for (int k = matrix.rowStart(o); k < matrix.rowEnd(o); k++) {
+                int d = matrix.destination(k);
+                if (d != o) {
+                    int value = bidirectional ? matrix.weight(k) : matrix.passengers(k);
+                    neighbours[fill[o]] = d;
+                    passengers[fill[o]++] = value;
+                    neighbours[fill[d]] = o;
+                    passengers[fill[d]++] = value;
+                }
+            }
+        }
+
+        gain = new long[n];
+        delta = new double[n];
+        level = new int[n];
+        genes = new int[n];
+        heap = new int[n];
+        position = new int[n];
+    }
+
+    /**
+     * Open segments one at a time, always the best strictly improving move, until
+     * none improves or {@code maxSteps} segments are open.
+     *
+     * @return Stop level of every segment, by index
+     */
+    public int[] run(int maxSteps) {
+        reset();
+
+        while (steps < maxSteps && heapSize > 0) {
+            int s = heap[0];
+            if (!(delta[s] < 0)) {
+                break;
+            }
+            removeTop();
+
+            genes[s] = level[s];
+            fitness += delta[s];
+            steps++;
+
+            // Pairs with s now count for every closed neighbour
+            for (int k = offsets[s], end = offsets[s + 1]; k < end; k++) {
+                int t = neighbours[k];
+                if (genes[t] == 0) {
+                    gain[t] += passengers[k];
+                    score(t);
+                    siftUp(position[t]);
+                }
+            }
+        }
+
+        return genes.clone();
+    }
+
+    /**
+     * Same search as {@link #run}, rescoring every closed segment on every step with
+     * {@code threads} worker threads.
+     *
+     * @return Stop level of every segment, by index
+     */
+    public int[] runParallelScan(int maxSteps, int threads) {
+        reset();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            while (steps < maxSteps) {
+                // genes is only written between scans, the tasks read it as a snapshot
+                int s = pool.invoke(new ScanTask(0, n));
+                if (s < 0) {
+                    break;
+                }
+
+                genes[s] = level[s];
+                fitness += delta[s];
+                steps++;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return genes.clone();
+    }
+
+    /**
+     * Target the aggregated fitness with other weights in the following runs, without
+     * rebuilding the neighbour lists. Only for engines made by {@link #forObjectives}.
+     */
+    public void setObjectiveWeights(double weightCoverage, double weightStops, double weightCost) {
+        if (!bidirectional) {
+            throw new IllegalStateException("Objective weights need an engine made by forObjectives()");
+        }
+        coverageWeight = weightCoverage / matrix.maxPossibleCoverage();
+        stopWeight = weightStops / n;
+        costWeight = weightCost / (matrix.maxPossibleCost() - matrix.minPossibleCost());
+    }
+
+    /**
+     * Randomize the following runs: scale the coverage gain of every segment by a
+     * factor drawn uniformly from {@code [1 - noise, 1 + noise]}, as a randomized
+     * greedy construction. A noise of 0 restores the deterministic search.
+     *
+     * @param uniform Source of uniform numbers in [0, 1)
+     */
+    public void perturb(double noise, DoubleSupplier uniform) {
+        for (int s = 0; s < n; s++) {
+            gainScale[s] = noise == 0 ? 1.0 : 1 + noise * (2 * uniform.getAsDouble() - 1);
+        }
+    }
+
+    /**
+     * @return Fitness of the last run in the engine's terms, relative to no stops open
+     */
+    public double fitness() {
+        return fitness;
+    }
+
+    /**
+     * @return Segments opened by the last run
+     */
+    public int steps() {
+        return steps;
+    }
+
+    private void reset() {
+        fitness = 0;
+        steps = 0;
+        heapSize = 0;
+        for (int s = 0; s < n; s++) {
+            genes[s] = 0;
+            gain[s] = selfPassengers[s];
+            score(s);
+            heap[heapSize] = s;
+            position[s] = heapSize++;
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Best level of a closed segment and its fitness change. The first of equal
+     * levels wins, as with a strict comparison over levels 1 to 3.
+     */
+    private void score(int s) {
+        delta[s] = change(s, gain[s]);
+    }
+
+    private double change(int s, long gain) {
+        double costFactor = matrix.costFactor(s);
+        level[s] = costWeight * costFactor < 0 ? 3 : 1;
+        return -coverageWeight * gain * gainScale[s] + stopWeight + costWeight * level[s] * costFactor;
+    }
+
+    /**
+     * Fitness change of opening closed segment {@code s} given the current genes,
+     * computed from scratch. Writes nothing but {@code delta[s]} and {@code level[s]}.
+     */
+    private void rescore(int s) {
+        long g = selfPassengers[s];
+        for (int k = offsets[s], end = offsets[s + 1]; k < end; k++) {
+            if (genes[neighbours[k]] > 0) {
+                g += passengers[k];
+            }
+        }
+        delta[s] = change(s, g);
+    }
+
+    private boolean before(int a, int b) {
+        if (delta[a] != delta[b]) {
+            return delta[a] < delta[b];
+        }
+        return rank[a] < rank[b];
+    }
+
+    private void removeTop() {
+        int last = heap[--heapSize];
+        if (heapSize > 0) {
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int i) {
+        int s = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(s, heap[parent])) {
+                break;
+            }
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = s;
+        position[s] = i;
+    }
+
+    private void siftDown(int i) {
+        int s = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], s)) {
+                break;
+            }
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = s;
+        position[s] = i;
+    }
+
+    /**
+     * Argmin by (delta, rank) of the strictly improving moves among the closed segments
+     * in {@code [from, to)}, or -1 if there is none.
+     */
+    @SuppressWarnings("serial")
+    private final class ScanTask extends RecursiveTask<Integer> {
+        private static final int CHUNK = 1024;
+
+        private final int from;
+        private final int to;
+
+        ScanTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= CHUNK) {
+                int best = -1;
+                for (int s = from; s < to; s++) {
+                    if (genes[s] == 0) {
+                        rescore(s);
+                        if (delta[s] < 0 && (best < 0 || before(s, best))) {
+                            best = s;
+                        }
+                    }
+                }
+                return best;
+            }
+
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(from, mid);
+            left.fork();
+            int right = new ScanTask(mid, to).compute();
+            int leftBest = left.join();
+
+            if (leftBest < 0) {
+                return right;
+            }
+            if (right < 0) {
+                return leftBest;
+            }
+            return before(leftBest, right) ? leftBest : right;
+        }
+    }
+
+    private static int[] identity(int n) {
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            rank[i] = i;
+        }
+        return rank;
+    }
+}
@@ -0,0 +1,84 @@
+package com.paradas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+
+import com.paradas.Abstraccion.ParadasProblem;
+import com.paradas.utils.PopulationInitializer;
+
+/**
+ * Seeds part of the initial population with greedy constructions, the rest stays
+ * uniformly random for diversity.
+ * <p>
+ * Seeds come from a {@link GreedyEngine} on the problem's own aggregated fitness. The
+ * first one is the deterministic greedy; the others are randomized greedy
+ * constructions, with the coverage gain of every segment scaled by a random factor
+ * of {@code 1 +- noise}, so they are good but different starting points. In
+ * multi-objective mode every seed also draws its own weights, spreading the seeds
+ * along the front instead of piling them on one point.
+ * <p>
+ * All random numbers come from {@link JMetalRandom}, so a run stays reproducible
+ * from its job stream.
+ */
+public class GreedySeeding implements PopulationInitializer<IntegerSolution> {
+
+    private final ParadasProblem problem;
+    private final double fraction;
+    private final double noise;
+
+    /**
+     * @param fraction Share of the population built greedily, between 0 and 1
+     * @param noise    Relative perturbation of the coverage gains of the randomized seeds
+     */
+    public GreedySeeding(ParadasProblem problem, double fraction, double noise) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("fraction must be between 0 and 1: " + fraction);
+        }
+        if (noise < 0) {
+            throw new IllegalArgumentException("noise is negative: " + noise);
+        }
+        this.problem = problem;
+        this.fraction = fraction;
+        this.noise = noise;
+    }
+
+    @Override
+    public List<IntegerSolution> createInitialPopulation(int populationSize) {
+        int seeds = (int) Math.round(fraction * populationSize);
+        List<IntegerSolution> population = new ArrayList<>(populationSize);
+
+        if (seeds > 0) {
+            double[] weights = problem.getWeights();
+            GreedyEngine engine = GreedyEngine.forObjectives(problem.getODMatrix(), weights[0], weights[1],
+                    weights[2]);
+            JMetalRandom random = JMetalRandom.getInstance();
+            int segments = problem.numberOfVariables();
+
+            for (int i = 0; i < seeds; i++) {
+                if (problem.isMultiObjective()) {
+                    // Uniform point of the weight simplex
+                    double a = random.nextDouble();
+                    double b = random.nextDouble();
+                    engine.setObjectiveWeights(Math.min(a, b), Math.abs(a - b), 1 - Math.max(a, b));
+                }
+                engine.perturb(i == 0 ? 0 : noise, random::nextDouble);
+
+                int[] genes = engine.run(segments);
+                // From the problem, so pooled runs get a solution of the arena
+                IntegerSolution solution = problem.createSolution();
+                for (int v = 0; v < segments; v++) {
+                    solution.variables().set(v, genes[v]);
+                }
+                population.add(solution);
+            }
+        }
+
+        while (population.size() < populationSize) {
+            population.add(problem.createSolution());
+        }
+        return population;
+    }
+}
@@ -0,0 +1,396 @@
+package com.paradas;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import com.paradas.Abstraccion.CompiledInstance;
+import com.paradas.utils.RandomStream;
+
+/**
+ * Generates synthetic OD matrices of any size for scaling and stress tests, as an
+ * {@code origin,destination,passengers} CSV or as a {@link CompiledInstance}.
+ * <p>
+ * Every origin draws about {@code destinations} destinations from its own random
+ * stream, derived from the seed and the origin, so any row can be regenerated on
+ * demand and the matrix is never held in memory. Only a few values per segment are
+ * kept (position, mass, demand, row size), which lets the generator scale to
+ * millions of segments and pairs. The compiled form is written in passes, looking
+ * up the reverse pair of every entry by regenerating the destination's row.
+ * <p>
+ * Demand models:
+ * <ul>
+ * <li>{@code gravity}: segments are scattered in the unit square with heavy-tailed
+ * masses. Trip lengths follow a Lomax law with exponent {@code beta}, so most trips
+ * are local, and passengers are {@code mass(o) * mass(d)} damped by distance.</li>
+ * <li>{@code power-law}: uniform destinations, Pareto passenger counts with exponent
+ * {@code alpha}, like the matrices of the benchmarks.</li>
+ * </ul>
+ * Passenger counts are capped at {@code --max-passengers}. Segments are named
+ * {@code S0 .. S(n-1)} and indexed in that order in the compiled form.
+ */
+public class InstanceGenerator {
+
+    enum Model {
+        GRAVITY, POWER_LAW
+    }
+
+    private final int segments;
+    private final int destinations;
+    private final Model model;
+    private final double alpha;
+    private final double beta;
+    private final int maxPassengers;
+    private final long seed;
+
+    // Gravity model: positions, masses and a uniform grid over the unit square
+    private double[] x;
+    private double[] y;
+    private double[] mass;
+    private int grid;
+    private int[] cellStart;
+    private int[] cellMembers;
+
+    // Rows generated by the second pass of writeInstance() at once, in parallel
+    private static final int BLOCK = 4096;
+
+    InstanceGenerator(int segments, int destinations, Model model, double alpha, double beta, int maxPassengers,
+            long seed) {
+        if (segments < 1 || destinations < 1) {
+            throw new IllegalArgumentException("segments and destinations must be positive");
+        }
+        if ((long) segments * destinations > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many OD pairs: " + (long) segments * destinations);
+        }
+        this.segments = segments;
+        this.destinations = destinations;
+        this.model = model;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.maxPassengers = maxPassengers;
+        this.seed = seed;
+
+        if (model == Model.GRAVITY) {
+            placeSegments();
+        }
+    }
+
+    /**
+     * Arguments:
+     * <ul>
+     * <li>{@code --segments N}: number of segments (default: 10000)</li>
+     * <li>{@code --destinations K}: destinations drawn per origin; repeated draws merge (default: 8)</li>
+     * <li>{@code --model gravity|power-law}: demand distribution (default: gravity)</li>
+     * <li>{@code --alpha A}: exponent of the Pareto masses or passenger counts (default: 1.5)</li>
+     * <li>{@code --beta B}: distance decay of the gravity model, above 1 (default: 2)</li>
+     * <li>{@code --max-passengers P}: cap of a single pair (default: 100000)</li>
+     * <li>{@code --seed S}: random seed (default: 42)</li>
+     * <li>{@code --format csv|instance}: output format (default: csv)</li>
+     * <li>{@code --output FILE}: where to write the matrix (required)</li>
+     * </ul>
+     */
+    public static void main(String[] args) {
+        int segments = 10000;
+        int destinations = 8;
+        Model model = Model.GRAVITY;
+        double alpha = 1.5;
+        double beta = 2;
+        int maxPassengers = 100_000;
+        long seed = 42;
+        String format = "csv";
+        Path output = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--segments":
+                    segments = Integer.parseInt(args[++i]);
+                    break;
+                case "--destinations":
+                    destinations = Integer.parseInt(args[++i]);
+                    break;
+                case "--model":
+                    model = Model.valueOf(args[++i].toUpperCase().replace('-', '_'));
+                    break;
+                case "--alpha":
+                    alpha = Double.parseDouble(args[++i]);
+                    break;
+                case "--beta":
+                    beta = Double.parseDouble(args[++i]);
+                    break;
+                case "--max-passengers":
+                    maxPassengers = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--format":
+                    format = args[++i];
+                    break;
+                case "--output":
+                    output = Paths.get(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (output == null) {
+            throw new IllegalArgumentException("Missing --output FILE");
+        }
+        if (model == Model.GRAVITY && beta <= 1) {
+            throw new IllegalArgumentException("beta must be above 1: " + beta);
+        }
+
+        long start = System.nanoTime();
+        InstanceGenerator generator = new InstanceGenerator(segments, destinations, model, alpha, beta,
+                maxPassengers, seed);
+        long pairs;
+        switch (format) {
+            case "csv":
+                pairs = generator.writeCsv(output);
+                break;
+            case "instance":
+                pairs = generator.writeInstance(output);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+
+        System.out.println(String.format("Generated %d segments, %d OD pairs (%s, seed %d) in %.1f s: %s",
+                segments, pairs, model, seed, (System.nanoTime() - start) / 1e9, output));
+    }
+
+    /**
+     * @return Number of OD pairs written
+     */
+    long writeCsv(Path file) {
+        Row row = new Row();
+        long pairs = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("origin,destination,passengers\n");
+            for (int o = 0; o < segments; o++) {
+                int count = row.generate(o);
+                for (int i = 0; i < count; i++) {
+                    writer.write("S" + o + ",S" + row.destinations[i] + "," + row.passengers[i] + "\n");
+                }
+                pairs += count;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write " + file, e);
+        }
+        return pairs;
+    }
+
+    /**
+     * @return Number of OD pairs written
+     */
+    long writeInstance(Path file) {
+        // First pass: row sizes and demand
+        Row row = new Row();
+        int[] demand = new int[segments];
+        int pairs = 0;
+        for (int o = 0; o < segments; o++) {
+            int count = row.generate(o);
+            for (int i = 0; i < count; i++) {
+                demand[o] += row.passengers[i];
+                demand[row.destinations[i]] += row.passengers[i];
+            }
+            pairs += count;
+        }
+
+        // Second pass: the rows with the passengers of every reverse pair, which
+        // regenerates the destination's row. Blocks of rows are built in parallel and
+        // written in order.
+        int[] offsets = new int[BLOCK + 1];
+        int[] blockDestinations = new int[BLOCK * destinations];
+        int[] blockPassengers = new int[BLOCK * destinations];
+        int[] blockWeights = new int[BLOCK * destinations];
+        ThreadLocal<Row> rows = ThreadLocal.withInitial(Row::new);
+
+        try (CompiledInstance.Writer writer = new CompiledInstance.Writer(file, segments, pairs)) {
+            for (int first = 0; first < segments; first += BLOCK) {
+                int base = first;
+                int size = Math.min(BLOCK, segments - first);
+                IntStream.range(0, size).parallel().forEach(i -> {
+                    Row own = rows.get();
+                    int count = own.generate(base + i);
+                    int at = i * destinations;
+                    for (int k = 0; k < count; k++) {
+                        blockDestinations[at + k] = own.destinations[k];
+                        blockPassengers[at + k] = own.passengers[k];
+                    }
+                    for (int k = 0; k < count; k++) {
+                        blockWeights[at + k] = blockPassengers[at + k]
+                                + own.passengers(blockDestinations[at + k], base + i);
+                    }
+                    offsets[i + 1] = count;
+                });
+
+                for (int i = 0; i < size; i++) {
+                    int at = i * destinations;
+                    writer.addRow(Arrays.copyOfRange(blockDestinations, at, at + offsets[i + 1]),
+                            Arrays.copyOfRange(blockPassengers, at, at + offsets[i + 1]),
+                            Arrays.copyOfRange(blockWeights, at, at + offsets[i + 1]), offsets[i + 1]);
+                }
+            }
+            writer.finish(demand, s -> "S" + s);
+        }
+        return pairs;
+    }
+
+    /**
+     * Scratch space to generate rows, one per thread.
+     */
+    private final class Row {
+        private final int[] destinations = new int[InstanceGenerator.this.destinations];
+        private final int[] passengers = new int[InstanceGenerator.this.destinations];
+        private final int[] drawnDestinations = new int[InstanceGenerator.this.destinations];
+        private final int[] drawnPassengers = new int[InstanceGenerator.this.destinations];
+        private final long[] keys = new long[InstanceGenerator.this.destinations];
+
+        /**
+         * Generate the row of {@code origin}, sorted by destination. Of repeated
+         * destinations the last draw wins, as it would reading the CSV.
+         *
+         * @return Number of distinct destinations
+         */
+        int generate(int origin) {
+            int draws = draw(origin);
+            for (int k = 0; k < draws; k++) {
+                // Destination in the high bits, draw order in the low ones
+                keys[k] = ((long) drawnDestinations[k] << 32) | k;
+            }
+            Arrays.sort(keys, 0, draws);
+
+            int count = 0;
+            for (int k = 0; k < draws; k++) {
+                int destination = (int) (keys[k] >>> 32);
+                if (k + 1 < draws && (int) (keys[k + 1] >>> 32) == destination) {
+                    continue;
+                }
+                int draw = (int) keys[k];
+                destinations[count] = destination;
+                passengers[count] = model == Model.GRAVITY ? gravityPassengers(origin, destination)
+                        : drawnPassengers[draw];
+                count++;
+            }
+            return count;
+        }
+
+        /**
+         * Passengers from {@code origin} to {@code destination}, 0 if they are not a pair.
+         * Only draws the row, without sorting it or computing the other counts.
+         */
+        int passengers(int origin, int destination) {
+            int draws = draw(origin);
+            for (int k = draws - 1; k >= 0; k--) {
+                if (drawnDestinations[k] == destination) {
+                    return model == Model.GRAVITY ? gravityPassengers(origin, destination) : drawnPassengers[k];
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Draw the destinations of {@code origin} in order, and the passengers of the
+         * power-law model, which consume random numbers.
+         */
+        private int draw(int origin) {
+            RandomStream random = RandomStream.forJob(seed, origin, 0);
+            for (int k = 0; k < destinations.length; k++) {
+                if (model == Model.GRAVITY) {
+                    drawnDestinations[k] = nearbySegment(origin, random);
+                } else {
+                    drawnDestinations[k] = random.nextInt(segments);
+                    drawnPassengers[k] = cap(pareto(random, alpha));
+                }
+            }
+            return destinations.length;
+        }
+    }
+
+    private int gravityPassengers(int origin, int destination) {
+        double distance = Math.hypot(x[destination] - x[origin], y[destination] - y[origin]);
+        double cell = 1.0 / grid;
+        return cap(mass[origin] * mass[destination] * Math.pow(cell / (distance + cell), beta - 1));
+    }
+
+    /**
+     * Segment at a Lomax-distributed distance in a random direction from {@code origin}.
+     */
+    private int nearbySegment(int origin, RandomStream random) {
+        double cell = 1.0 / grid;
+        for (int attempt = 0; attempt < 16; attempt++) {
+            double distance = cell * (Math.pow(1 - random.nextDouble(), -1 / (beta - 1)) - 1);
+            // Uniform direction from a point of the unit disk, without trigonometry
+            double u;
+            double v;
+            double norm;
+            do {
+                u = 2 * random.nextDouble() - 1;
+                v = 2 * random.nextDouble() - 1;
+                norm = u * u + v * v;
+            } while (norm > 1 || norm == 0);
+            norm = Math.sqrt(norm);
+            double px = x[origin] + distance * u / norm;
+            double py = y[origin] + distance * v / norm;
+            if (px < 0 || px >= 1 || py < 0 || py >= 1) {
+                continue;
+            }
+            int c = (int) (py * grid) * grid + (int) (px * grid);
+            int size = cellStart[c + 1] - cellStart[c];
+            if (size > 0) {
+                return cellMembers[cellStart[c] + random.nextInt(size)];
+            }
+        }
+        // Far from everything, fall back to any segment
+        return random.nextInt(segments);
+    }
+
+    private void placeSegments() {
+        RandomStream random = RandomStream.forJob(seed, -1, 0);
+        x = new double[segments];
+        y = new double[segments];
+        mass = new double[segments];
+        for (int s = 0; s < segments; s++) {
+            x[s] = random.nextDouble();
+            y[s] = random.nextDouble();
+            mass[s] = pareto(random, alpha);
+        }
+
+        // About two segments per cell
+        grid = Math.max(1, (int) Math.sqrt(segments / 2.0));
+        cellStart = new int[grid * grid + 1];
+        for (int s = 0; s < segments; s++) {
+            cellStart[cell(s) + 1]++;
+        }
+        for (int c = 0; c < grid * grid; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        cellMembers = new int[segments];
+        int[] fill = Arrays.copyOf(cellStart, grid * grid);
+        for (int s = 0; s < segments; s++) {
+            cellMembers[fill[cell(s)]++] = s;
+        }
+    }
+
+    private int cell(int s) {
+        return Math.min(grid - 1, (int) (y[s] * grid)) * grid + Math.min(grid - 1, (int) (x[s] * grid));
+    }
+
+    /**
+     * @return Pareto draw with minimum 1 and exponent {@code alpha}
+     */
+    private static double pareto(RandomStream random, double alpha) {
+        return Math.pow(1 - random.nextDouble(), -1 / alpha);
+    }
+
+    private int cap(double passengers) {
+        return (int) Math.max(1, Math.min(maxPassengers, Math.round(passengers)));
+    }
+}
@@ -0,0 +1,74 @@
+package com.paradas;
+
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+import com.paradas.Abstraccion.CompiledODMatrix;
+import com.paradas.Main.ParetoResult;
+import com.paradas.Main.RunSettings;
+import com.paradas.Main.WeightCombination;
+import com.paradas.utils.JobRandomGenerator;
+import com.paradas.utils.RandomStream;
+
+/**
+ * Compares a single algorithm that evaluates on all threads with an
+ * {@link IslandModel} of as many islands, on the same evaluation budget and the
+ * default weights: best fitness reached and wall-clock time of every run, and the
+ * means.
+ * <p>
+ * Usage: {@code IslandComparison [resource] [islands] [runs] [seed]}, defaults to
+ * {@code data_mvd.csv}, one island per processor, 3 runs and seed 1.
+ */
+public class IslandComparison {
+
+    public static void main(String[] args) {
+        String fileName = args.length > 0 ? args[0] : "data_mvd.csv";
+        int islands = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+
+        CompiledODMatrix odMatrix = CompiledODMatrix.compile(Main.readCsvToMap(fileName));
+        WeightCombination weights = new WeightCombination(0.65, 0.20, 0.15);
+        RunSettings single = new RunSettings();
+        RunSettings model = new RunSettings();
+        model.islands = islands;
+
+        JobRandomGenerator.install(seed);
+        System.out.println(String.format("%d runs, seed %d, %d evaluations, %d threads", runs, seed,
+                single.maxEvaluations, islands));
+
+        double[] singleTotals = new double[2];
+        double[] islandTotals = new double[2];
+        for (int run = 0; run < runs; run++) {
+            measure("Single ", odMatrix, weights, single, islands, seed, run, singleTotals);
+            measure("Islands", odMatrix, weights, model, islands, seed, run, islandTotals);
+        }
+
+        System.out.println(String.format("Single:  mean fitness %.6f in %.1f s", singleTotals[0] / runs,
+                singleTotals[1] / runs));
+        System.out.println(String.format("Islands: mean fitness %.6f in %.1f s", islandTotals[0] / runs,
+                islandTotals[1] / runs));
+    }
+
+    /**
+     * Run once and add the best fitness and the seconds taken to {@code totals}.
+     */
+    private static void measure(String name, CompiledODMatrix odMatrix, WeightCombination weights,
+            RunSettings settings, int threads, long seed, int run, double[] totals) {
+        SolutionListEvaluator<IntegerSolution> evaluator = Main.createEvaluator(threads, settings);
+        JobRandomGenerator.bind(RandomStream.forJob(seed, 0, run));
+        try {
+            long start = System.nanoTime();
+            ParetoResult result = Main.runOnce(odMatrix, weights, settings, evaluator, null, null);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.println(String.format("Run %d %s fitness %.6f in %.1f s", run + 1, name, result.fitness,
+                    seconds));
+            totals[0] += result.fitness;
+            totals[1] += seconds;
+        } finally {
+            JobRandomGenerator.unbind();
+            evaluator.shutdown();
+        }
+    }
+}
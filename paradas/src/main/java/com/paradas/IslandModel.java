@@ -0,0 +1,248 @@
+package com.paradas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+import com.paradas.Abstraccion.ParadasProblem;
+import com.paradas.Main.RunSettings;
+import com.paradas.utils.CustomAlgorithm;
+import com.paradas.utils.GenerationListener;
+import com.paradas.utils.JobRandomGenerator;
+import com.paradas.utils.RandomStream;
+import com.paradas.utils.RankAndCrowdingComparator;
+
+/**
+ * Island-model GA: {@code settings.islands} independent {@link CustomAlgorithm}s,
+ * each on its own thread with its own problem, sub-population and random stream,
+ * that periodically send copies of their best solutions to their neighbours in a
+ * {@link MigrationTopology}.
+ * <p>
+ * The population and the evaluation budget of the settings are split evenly between
+ * the islands, so a run costs as many evaluations as a single algorithm but uses one
+ * core per island for the whole search, not only for evaluation. Every
+ * {@code migrationInterval} generations an island sends the genes of its
+ * {@code migrants} best solutions (by rank and crowding distance) to the inbox of each
+ * target island, a lock-free queue. At the end of every generation an island drains
+ * its inbox, evaluates the arrivals and merges them into its population through the
+ * replacement, dropping its worst solutions. Immigrant evaluations are not counted in
+ * the island's budget.
+ * <p>
+ * Islands never wait for each other, so when a migrant arrives depends on thread
+ * scheduling and island runs are not reproducible from the seed, unlike single runs.
+ */
+class IslandModel {
+
+    private final RunSettings settings;
+    private final RunSettings islandSettings;
+
+    private final Island[] islands;
+
+    /**
+     * @param problems Creates the problem of every island, called on the island's thread
+     * @param seed     Seed the island streams are derived from
+     */
+    IslandModel(Supplier<ParadasProblem> problems, RunSettings settings, long seed) {
+        if (settings.islands < 1) {
+            throw new IllegalArgumentException("islands must be positive: " + settings.islands);
+        }
+        if (settings.migrationInterval < 1) {
+            throw new IllegalArgumentException("migrationInterval must be positive: " + settings.migrationInterval);
+        }
+        this.settings = settings;
+
+        islandSettings = islandSettings(settings, settings.islands);
+
+        islands = new Island[settings.islands];
+        for (int i = 0; i < islands.length; i++) {
+            islands[i] = new Island(i, islands.length, islandSettings, problems, seed,
+                    (genes, target) -> islands[target].inbox.offer(genes));
+        }
+    }
+
+    /**
+     * Settings of one of {@code islands} islands: an even share of the population and
+     * of the evaluation budget.
+     */
+    static RunSettings islandSettings(RunSettings settings, int islands) {
+        RunSettings island = settings.copy();
+        // The crossover makes children in pairs
+        island.populationSize = Math.max(4, settings.populationSize / islands & ~1);
+        island.maxEvaluations = settings.maxEvaluations / islands;
+        return island;
+    }
+
+    /**
+     * Evolve all islands until each has spent its budget.
+     *
+     * @return Non-dominated solutions of every island
+     */
+    List<IntegerSolution> run() {
+        ExecutorService executor = Executors.newFixedThreadPool(islands.length, runnable -> {
+            Thread thread = new Thread(runnable, "island");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<List<IntegerSolution>>> runs = new ArrayList<>(islands.length);
+            for (int i = 0; i < islands.length; i++) {
+                Island island = islands[i];
+                String name = "island-" + i;
+                runs.add(executor.submit(() -> {
+                    Thread.currentThread().setName(name);
+                    return island.run();
+                }));
+            }
+
+            List<IntegerSolution> result = new ArrayList<>();
+            for (Future<List<IntegerSolution>> run : runs) {
+                result.addAll(await(run));
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return Migration summary of the last run
+     */
+    String statistics() {
+        long sent = 0;
+        long received = 0;
+        for (Island island : islands) {
+            sent += island.sent;
+            received += island.received;
+        }
+        return String.format("Islands: %d x %d solutions, %s topology, %d migrants sent, %d received",
+                islands.length, islandSettings.populationSize, settings.migrationTopology, sent, received);
+    }
+
+    private static List<IntegerSolution> await(Future<List<IntegerSolution>> run) {
+        try {
+            return run.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an island", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Island failed", e.getCause());
+        }
+    }
+
+    /**
+     * One island: a {@link CustomAlgorithm} run on the calling thread, with its
+     * migrants handed to {@code outbox} and arrivals taken from {@link #inbox}.
+     */
+    static final class Island implements GenerationListener<IntegerSolution> {
+        private final int index;
+        private final int count;
+        private final RunSettings settings;
+        private final Supplier<ParadasProblem> problems;
+        private final long seed;
+        private final ObjIntConsumer<int[]> outbox;
+
+        // Genes of the solutions sent to this island, shared read-only between the targets
+        final ConcurrentLinkedQueue<int[]> inbox = new ConcurrentLinkedQueue<>();
+
+        // Only touched by the island's thread, read once the run is over
+        private ParadasProblem problem;
+        private int generation = 0;
+        private long sent = 0;
+        private long received = 0;
+
+        /**
+         * @param index    Position of the island among {@code count}
+         * @param settings Settings of this island alone: its population, budget and migration
+         * @param problems Creates the island's problem, called on the thread that runs it
+         * @param seed     Seed of the model, the island derives its own stream from it
+         * @param outbox   Delivers the genes of a migrant to the island of the given index
+         */
+        Island(int index, int count, RunSettings settings, Supplier<ParadasProblem> problems, long seed,
+                ObjIntConsumer<int[]> outbox) {
+            this.index = index;
+            this.count = count;
+            this.settings = settings;
+            this.problems = problems;
+            this.seed = seed;
+            this.outbox = outbox;
+        }
+
+        /**
+         * @return Non-dominated solutions of the island once its budget is spent
+         */
+        List<IntegerSolution> run() {
+            SolutionListEvaluator<IntegerSolution> evaluator = Main.createEvaluator(1, settings);
+            JobRandomGenerator.bind(RandomStream.forJob(seed, index, 0));
+            try {
+                problem = problems.get();
+                CustomAlgorithm<IntegerSolution> algorithm = Main.buildAlgorithm(problem, settings, evaluator);
+                algorithm.addGenerationListener(this);
+                algorithm.run();
+                return algorithm.result();
+            } finally {
+                JobRandomGenerator.unbind();
+                evaluator.shutdown();
+            }
+        }
+
+        /**
+         * @return The island's problem, once {@link #run} has started
+         */
+        ParadasProblem problem() {
+            return problem;
+        }
+
+        @Override
+        public void onGeneration(CustomAlgorithm<IntegerSolution> algorithm) {
+            generation++;
+
+            List<IntegerSolution> immigrants = new ArrayList<>();
+            for (int[] genes = inbox.poll(); genes != null; genes = inbox.poll()) {
+                // From the problem, so pooled runs get a solution of this island's arena
+                IntegerSolution solution = problem.createSolution();
+                for (int v = 0; v < genes.length; v++) {
+                    solution.variables().set(v, genes[v]);
+                }
+                immigrants.add(problem.evaluate(solution));
+            }
+            if (!immigrants.isEmpty()) {
+                received += immigrants.size();
+                algorithm.receive(immigrants);
+            }
+
+            if (generation % settings.migrationInterval == 0 && settings.migrants > 0) {
+                emigrate(algorithm.getPopulation());
+            }
+        }
+
+        private void emigrate(List<IntegerSolution> population) {
+            List<IntegerSolution> ranked = new ArrayList<>(population);
+            // Single-objective populations ranked by jMetal carry no rank, fall back to the objective
+            ranked.sort(new RankAndCrowdingComparator<IntegerSolution>()
+                    .thenComparingDouble(solution -> solution.objectives()[0]));
+
+            int[] targets = settings.migrationTopology.targets(index, count);
+            for (int e = 0; e < Math.min(settings.migrants, ranked.size()); e++) {
+                List<Integer> variables = ranked.get(e).variables();
+                int[] genes = new int[variables.size()];
+                for (int v = 0; v < genes.length; v++) {
+                    genes[v] = variables.get(v);
+                }
+                for (int target : targets) {
+                    outbox.accept(genes, target);
+                    sent++;
+                }
+            }
+        }
+    }
+}
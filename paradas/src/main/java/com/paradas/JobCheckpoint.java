@@ -0,0 +1,79 @@
+package com.paradas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import com.paradas.Abstraccion.ParadasProblem;
+import com.paradas.CheckpointStore.Snapshot;
+import com.paradas.utils.CustomAlgorithm;
+import com.paradas.utils.GenerationListener;
+import com.paradas.utils.JobRandomGenerator;
+import com.paradas.utils.RandomStream;
+
+/**
+ * Snapshots one sweep job every {@code interval} generations and, if the job was
+ * interrupted before, restarts it from its last snapshot.
+ * <p>
+ * A resumed run continues from the saved population, evaluation counter and random
+ * stream. Ranking and crowding attributes are recomputed on the saved population
+ * rather than stored, so the continuation is statistically equivalent to the
+ * uninterrupted run, not bit-identical.
+ */
+class JobCheckpoint implements GenerationListener<IntegerSolution> {
+
+    private final CheckpointStore store;
+    private final int combination;
+    private final int run;
+    private final int interval;
+    private int generation = 0;
+
+    JobCheckpoint(CheckpointStore store, int combination, int run, int interval) {
+        this.store = store;
+        this.combination = combination;
+        this.run = run;
+        this.interval = interval;
+    }
+
+    /**
+     * Restore the algorithm from the last snapshot, if any, and start snapshotting it.
+     * Must be called on the job's thread, after its random stream has been bound.
+     */
+    void attach(CustomAlgorithm<IntegerSolution> algorithm, ParadasProblem problem) {
+        Snapshot snapshot = store.loadSnapshot(combination, run);
+        if (snapshot != null) {
+            List<IntegerSolution> population = new ArrayList<>(snapshot.genes.length);
+            for (int i = 0; i < snapshot.genes.length; i++) {
+                IntegerSolution solution = problem.createSolution();
+                for (int v = 0; v < snapshot.genes[i].length; v++) {
+                    solution.variables().set(v, snapshot.genes[i][v]);
+                }
+                System.arraycopy(snapshot.objectives[i], 0, solution.objectives(), 0,
+                        solution.objectives().length);
+                population.add(solution);
+            }
+            algorithm.restore(population, snapshot.evaluations);
+
+            // After createSolution, which draws from the stream too
+            RandomStream stream = JobRandomGenerator.bound();
+            if (stream != null) {
+                stream.setState(snapshot.randomState);
+            }
+
+            System.out.println(String.format("  Resuming combination %d run %d from evaluation %d",
+                    combination + 1, run + 1, snapshot.evaluations));
+        }
+
+        algorithm.addGenerationListener(this);
+    }
+
+    @Override
+    public void onGeneration(CustomAlgorithm<IntegerSolution> algorithm) {
+        if (++generation % interval == 0) {
+            RandomStream stream = JobRandomGenerator.bound();
+            store.saveSnapshot(combination, run, algorithm.getEvaluations(), stream == null ? 0 : stream.getState(),
+                    algorithm.getPopulation());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.paradas;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import com.paradas.Abstraccion.CompiledODMatrix;
+import com.paradas.Abstraccion.KernelType;
+import com.paradas.Abstraccion.MapReferenceKernel;
+import com.paradas.Abstraccion.ObjectiveKernel;
+
+/**
+ * Checks every {@link KernelType} against the original map-based evaluation on a
+ * real instance. Objectives must match bit for bit, except the cost of
+ * {@link KernelType#VECTOR}, which is summed in another order and may differ by
+ * rounding: it must be within {@code 1e-12} of the sum of the absolute cost terms.
+ * The coverage is also checked on a small synthetic matrix with a row whose weights
+ * add up past {@link Integer#MAX_VALUE}, which a kernel summing rows in ints gets wrong.
+ * <p>
+ * Usage: {@code KernelVerifier [resource] [genomes] [seed]}, defaults to
+ * {@code data_mvd.csv}, 200 genomes and seed 1.
+ */
+public class KernelVerifier {
+
+    public static void main(String[] args) {
+        String fileName = args.length > 0 ? args[0] : "data_mvd.csv";
+        int genomes = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        Map<String, Map<String, Integer>> matrix = Main.readCsvToMap(fileName);
+        CompiledODMatrix compiled = CompiledODMatrix.compile(matrix);
+        ObjectiveKernel reference = new MapReferenceKernel(matrix, compiled);
+
+        System.out.println("Verifying kernels on " + fileName + ": " + compiled.numberOfSegments()
+                + " segments, " + compiled.numberOfPairs() + " OD pairs");
+
+        Random random = new Random(seed);
+        int[] genes = new int[compiled.numberOfSegments()];
+        double[] expected = new double[3];
+        double[] actual = new double[3];
+        int mismatches = 0;
+
+        for (KernelType type : KernelType.values()) {
+            ObjectiveKernel kernel = type.create(compiled);
+            long referenceNanos = 0;
+            long kernelNanos = 0;
+
+            for (int g = 0; g < genomes; g++) {
+                // Sweep the density of open stops from all closed to all open
+                double density = genomes == 1 ? 0.5 : (double) g / (genomes - 1);
+                for (int v = 0; v < genes.length; v++) {
+                    genes[v] = random.nextDouble() < density ? 1 + random.nextInt(3) : 0;
+                }
+
+                long start = System.nanoTime();
+                reference.objectives(genes, expected);
+                referenceNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                kernel.objectives(genes, actual);
+                kernelNanos += System.nanoTime() - start;
+
+                double costTolerance = 0;
+                if (type == KernelType.VECTOR) {
+                    for (int v = 0; v < genes.length; v++) {
+                        costTolerance += Math.abs(genes[v] * compiled.costFactor(v));
+                    }
+                    costTolerance *= 1e-12;
+                }
+
+                for (int i = 0; i < 3; i++) {
+                    boolean equal = i == 2 && costTolerance > 0
+                            ? Math.abs(expected[i] - actual[i]) <= costTolerance
+                            : Double.doubleToLongBits(expected[i]) == Double.doubleToLongBits(actual[i]);
+                    if (!equal) {
+                        mismatches++;
+                        System.err.println(String.format("%s genome %d objective %d: expected %s, got %s",
+                                type, g, i, expected[i], actual[i]));
+                    }
+                }
+            }
+
+            System.out.println(String.format("%-8s map %.3f ms/eval, kernel %.3f ms/eval", type,
+                    referenceNanos / 1e6 / genomes, kernelNanos / 1e6 / genomes));
+        }
+
+        mismatches += verifyWideRow();
+
+        if (mismatches > 0) {
+            System.err.println(mismatches + " mismatching objectives");
+            System.exit(1);
+        }
+        System.out.println("All kernels match the map-based evaluation");
+    }
+
+    /**
+     * @return Kernels whose coverage of a fully open matrix with a row of 3.5e9
+     *         passengers differs from the map-based evaluation
+     */
+    private static int verifyWideRow() {
+        Map<String, Map<String, Integer>> matrix = new HashMap<>();
+        Map<String, Integer> row = new HashMap<>();
+        for (int d = 0; d < 20; d++) {
+            row.put("d" + d, 175_000_000);
+        }
+        matrix.put("o", row);
+        CompiledODMatrix compiled = CompiledODMatrix.compile(matrix);
+        ObjectiveKernel reference = new MapReferenceKernel(matrix, compiled);
+
+        int[] genes = new int[compiled.numberOfSegments()];
+        Arrays.fill(genes, 1);
+        double[] expected = new double[3];
+        double[] actual = new double[3];
+        reference.objectives(genes, expected);
+
+        int mismatches = 0;
+        for (KernelType type : KernelType.values()) {
+            type.create(compiled).objectives(genes, actual);
+            if (Double.doubleToLongBits(expected[0]) != Double.doubleToLongBits(actual[0])) {
+                mismatches++;
+                System.err.println(String.format("%s wide row coverage: expected %s, got %s", type, expected[0],
+                        actual[0]));
+            }
+        }
+        return mismatches;
+    }
+}
@@ -5,32 +5,49 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import org.uma.jmetal.operator.crossover.CrossoverOperator;
 import org.uma.jmetal.operator.crossover.impl.TwoPointCrossover;
 import org.uma.jmetal.operator.mutation.MutationOperator;
 import org.uma.jmetal.operator.mutation.impl.IntegerPolynomialMutation;
-import org.uma.jmetal.operator.selection.SelectionOperator;
-import org.uma.jmetal.operator.selection.impl.BinaryTournamentSelection;
 import org.uma.jmetal.solution.Solution;
 import org.uma.jmetal.solution.integersolution.IntegerSolution;
 import org.uma.jmetal.util.AbstractAlgorithmRunner;
 import org.uma.jmetal.util.JMetalLogger;
-import org.uma.jmetal.util.comparator.RankingAndCrowdingDistanceComparator;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+import org.uma.jmetal.util.evaluator.impl.SequentialSolutionListEvaluator;
 import org.uma.jmetal.util.fileoutput.SolutionListOutput;
 import org.uma.jmetal.util.fileoutput.impl.DefaultFileOutputContext;
 import org.uma.jmetal.util.pseudorandom.JMetalRandom;
 
+import com.paradas.Abstraccion.CompiledInstance;
+import com.paradas.Abstraccion.CompiledODMatrix;
+import com.paradas.Abstraccion.KernelType;
+import com.paradas.Abstraccion.MappedODMatrixLoader;
 import com.paradas.Abstraccion.ParadasProblem;
+import com.paradas.utils.BatchEvaluator;
+import com.paradas.utils.CachingEvaluator;
 import com.paradas.utils.CustomAlgorithm;
 import com.paradas.utils.CustomAlgorithmBuilder;
+import com.paradas.utils.GenerationTelemetry;
+import com.paradas.utils.JobRandomGenerator;
+import com.paradas.utils.NonDominatedSorting;
+import com.paradas.utils.ParetoArchive;
 import com.paradas.utils.ParallelEvaluator;
+import com.paradas.utils.RandomStream;
+import com.paradas.utils.StoppingCondition;
+import com.paradas.utils.TelemetryWriter;
 
 import tech.tablesaw.io.csv.CsvReader;
 
@@ -71,6 +88,58 @@ public class Main extends AbstractAlgorithmRunner {
         }
     }
 
+    // Genetic algorithm configuration shared by every run of a sweep
+    static class RunSettings implements Cloneable {
+        int populationSize = 300;
+        int maxEvaluations = 35000;
+        double crossoverProbability = 0.9;
+        double mutationProbability = 0.06;
+        int mutationDistributionIndex = 6;
+        boolean incrementalEvaluation = false; // Score offspring from their parent's objectives, see --incremental
+        KernelType kernel = KernelType.CSR; // Kernel used for full evaluations
+        boolean fastNonDominatedSorting = true; // NonDominatedSorting instead of jMetal's ranking in replacement
+        boolean pooledPopulation = true; // Recycle solutions from an arena instead of allocating them
+        int evaluationCacheSize = 20000; // Genomes remembered to skip re-evaluating duplicates, 0 disables
+        int evaluationChunkSize = 0; // Solutions per evaluation task, 0 for about four chunks per thread
+        boolean batchEvaluation = true; // Score each population in one pass over the OD matrix, see PopulationKernel
+        double greedySeedFraction = 0; // Share of the initial population built greedily, 0 for all random; see --greedy-seed
+        double greedySeedNoise = 0.3; // Perturbation of the randomized greedy seeds, see GreedySeeding
+        int islands = 1; // Sub-populations evolved concurrently per run, see IslandModel; 1 for a single one
+        int migrationInterval = 10; // Generations between migrations between islands
+        int migrants = 2; // Best solutions an island sends to each target per migration
+        MigrationTopology migrationTopology = MigrationTopology.RING; // Targets of every island's migrants
+        int archiveSize = 200; // Non-dominated (coverage, stops, cost) points tracked per run, see ParetoArchive; 0 disables
+        TelemetryWriter telemetry = null; // Where every run streams its per-generation metrics, null for nowhere
+        long timeLimitMillis = 0; // Wall-clock budget of a run on top of maxEvaluations, 0 for none
+        int stagnationGenerations = 0; // Stop once the best fitness gains at most stagnationEpsilon in this many generations, 0 disables
+        double stagnationEpsilon = 1e-6;
+        int hypervolumeGenerations = 0; // Stop once the archive's hypervolume gains less than hypervolumeDelta in this many generations, 0 disables
+        double hypervolumeDelta = 1e-4;
+        double targetFitness = Double.NaN; // Stop once the best fitness reaches it, NaN for none
+        boolean stopWhenAll = false; // Stop when all the conditions above are met instead of any
+
+        /**
+         * @return Hash of every setting that can change what a run computes. Settings
+         *         documented to give bit-identical results (pooling, the evaluation
+         *         cache, chunking and batch evaluation) and the telemetry are left out.
+         */
+        long fingerprint() {
+            return Arrays.hashCode(new Object[] { populationSize, maxEvaluations, crossoverProbability,
+                    mutationProbability, mutationDistributionIndex, incrementalEvaluation, kernel.name(),
+                    fastNonDominatedSorting, greedySeedFraction, greedySeedNoise, islands, migrationInterval,
+                    migrants, migrationTopology.name(), archiveSize, timeLimitMillis, stagnationGenerations,
+                    stagnationEpsilon, hypervolumeGenerations, hypervolumeDelta, targetFitness, stopWhenAll });
+        }
+
+        RunSettings copy() {
+            try {
+                return (RunSettings) clone();
+            } catch (CloneNotSupportedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
     @SuppressWarnings("CallToPrintStackTrace")
     public static Map<String, Map<String, Integer>> readCsvToMap(String fileName) {
         Map<String, Map<String, Integer>> dataMap = new HashMap<>();
@@ -107,6 +176,18 @@ public class Main extends AbstractAlgorithmRunner {
         return dataMap;
     }
 
+    /**
+     * @return Hash of the weight combinations, in order
+     */
+    static long fingerprint(List<WeightCombination> weightCombinations) {
+        long hash = weightCombinations.size();
+        for (WeightCombination weights : weightCombinations) {
+            hash = 31 * (31 * (31 * hash + Double.hashCode(weights.f1)) + Double.hashCode(weights.f2))
+                    + Double.hashCode(weights.f3);
+        }
+        return hash;
+    }
+
     /**
      * Read weight combinations from pesos.csv
      */
@@ -175,94 +256,504 @@ public class Main extends AbstractAlgorithmRunner {
         JMetalLogger.logger.info("Variables values have been written to file VAR.tsv");
     }
 
-    public static void main(String[] args) {
-        // Read the data matrix
-        Map<String, Map<String, Integer>> matrix = readCsvToMap("data_mvd.csv");
+    /**
+     * Run the genetic algorithm once for a weight combination.
+     *
+     * @param odMatrix  Compiled OD matrix, shared read-only between runs
+     * @param evaluator  Population evaluator, owned by the caller
+     * @param checkpoint Snapshots the run and resumes it if interrupted before, or null
+     * @param stop       Stops the run early, on top of the settings' own conditions, or null.
+     *                   Runs split into islands ignore it.
+     * @return Original objectives and fitness of the best solution found
+     */
+    static ParetoResult runOnce(CompiledODMatrix odMatrix, WeightCombination weights, RunSettings settings,
+            SolutionListEvaluator<IntegerSolution> evaluator, JobCheckpoint checkpoint,
+            StoppingCondition<IntegerSolution> stop) {
+        // Create problem with current weights
+        ParadasProblem problem = createProblem(odMatrix, weights, settings);
+
+        List<IntegerSolution> population;
+        if (settings.islands > 1) {
+            // The islands evaluate on their own threads and take no snapshots
+            IslandModel islands = new IslandModel(() -> createProblem(odMatrix, weights, settings), settings,
+                    islandSeed());
+            population = islands.run();
+            System.out.println(islands.statistics());
+        } else {
+            CustomAlgorithm<IntegerSolution> algorithm = buildAlgorithm(problem, settings, evaluator);
+
+            if (checkpoint != null) {
+                checkpoint.attach(algorithm, problem);
+            }
+            if (stop != null) {
+                StoppingCondition<IntegerSolution> own = algorithm.getStoppingCondition();
+                algorithm.setStoppingCondition(own == null ? stop : own.or(stop));
+            }
 
-        // Read weight combinations from pesos.csv
-        List<WeightCombination> weightCombinations = readWeights("pesos.csv");
-        System.out.println("Loaded " + weightCombinations.size() + " weight combinations");
+            algorithm.run();
+            population = algorithm.result();
+            if (algorithm.getArchive() != null) {
+                System.out.println(algorithm.getArchive().statistics());
+            }
+            System.out.println(algorithm.getTelemetry().statistics());
+            if (algorithm.getEvaluations() < algorithm.getMaxEvaluations()) {
+                System.out.println(String.format("Stopped early after %d of %d evaluations",
+                        algorithm.getEvaluations(), algorithm.getMaxEvaluations()));
+            }
+        }
 
-        // List to store all Pareto results
-        List<ParetoResult> paretoResults = new ArrayList<>();
+        return bestResult(problem, weights, population);
+    }
 
-        // Number of runs per weight combination (for statistical stability)
-        int runsPerCombination = 3;
+    /**
+     * @return Original objectives and fitness of the best solution of {@code population}
+     */
+    static ParetoResult bestResult(ParadasProblem problem, WeightCombination weights,
+            List<IntegerSolution> population) {
+        // Get best solution
+        IntegerSolution bestSolution = problem.getBestSolution(population);
+        double[] objectives = problem.getOriginalObjectives(bestSolution);
+        double fitness = -bestSolution.objectives()[0]; // Negate back to get positive fitness
+
+        return new ParetoResult(
+                weights,
+                objectives[0], // coverage
+                objectives[1], // numStops
+                objectives[2], // cost
+                fitness);
+    }
 
-        // Algorithm configuration
-        int populationSize = 300;
-        int maxEvaluations = 35000;
-        double crossoverProbability = 0.9;
-        double mutationProbability = 0.06;
-        int mutationDistributionIndex = 6;
+    /**
+     * Problem of one run: weighted with {@code weights}, or the three-objective one if null.
+     */
+    static ParadasProblem createProblem(CompiledODMatrix odMatrix, WeightCombination weights, RunSettings settings) {
+        ParadasProblem problem = weights == null ? ParadasProblem.multiObjective(odMatrix)
+                : new ParadasProblem(odMatrix, weights.f1, weights.f2, weights.f3);
+        problem.setIncrementalEvaluation(settings.incrementalEvaluation);
+        problem.setKernel(settings.kernel);
+        return problem;
+    }
+
+    /**
+     * @return Seed for the islands of a run, drawn from the job's stream if one is bound
+     */
+    private static long islandSeed() {
+        RandomStream stream = JobRandomGenerator.bound();
+        return stream != null ? stream.nextLong() : System.nanoTime();
+    }
 
-        // Get available processors for parallel evaluation
+    /**
+     * Run the three-objective version of the problem once.
+     *
+     * @param evaluator Population evaluator, owned by the caller
+     * @return Raw [coverage, numStops, cost] of the non-dominated solutions found
+     */
+    static List<double[]> runFront(CompiledODMatrix odMatrix, RunSettings settings,
+            SolutionListEvaluator<IntegerSolution> evaluator) {
+        List<IntegerSolution> population;
+        if (settings.islands > 1) {
+            population = new IslandModel(() -> createProblem(odMatrix, null, settings), settings, islandSeed()).run();
+        } else {
+            CustomAlgorithm<IntegerSolution> algorithm = buildAlgorithm(createProblem(odMatrix, null, settings),
+                    settings, evaluator);
+            algorithm.run();
+            population = algorithm.result();
+            if (algorithm.getArchive() != null) {
+                System.out.println(algorithm.getArchive().statistics());
+            }
+            System.out.println(algorithm.getTelemetry().statistics());
+            if (algorithm.getEvaluations() < algorithm.getMaxEvaluations()) {
+                System.out.println(String.format("Stopped early after %d of %d evaluations",
+                        algorithm.getEvaluations(), algorithm.getMaxEvaluations()));
+            }
+        }
+
+        List<double[]> front = new ArrayList<>();
+        for (IntegerSolution solution : population) {
+            front.add(new double[] { -solution.objectives()[0], solution.objectives()[1], solution.objectives()[2] });
+        }
+        return front;
+    }
+
+    /**
+     * Evaluator for one run: a {@link BatchEvaluator} if the settings ask for batch
+     * evaluation, otherwise a {@link ParallelEvaluator} with its own pool of
+     * {@code evaluationThreads} threads, or a sequential one for a single thread;
+     * wrapped in a {@link CachingEvaluator} unless the settings disable it.
+     */
+    static SolutionListEvaluator<IntegerSolution> createEvaluator(int evaluationThreads, RunSettings settings) {
+        SolutionListEvaluator<IntegerSolution> evaluator;
+        if (settings.batchEvaluation) {
+            evaluator = new BatchEvaluator<>(evaluationThreads);
+        } else if (evaluationThreads > 1) {
+            evaluator = new ParallelEvaluator<>(evaluationThreads, settings.evaluationChunkSize, 2 * evaluationThreads);
+        } else {
+            evaluator = new SequentialSolutionListEvaluator<>();
+        }
+        return withCache(evaluator, settings);
+    }
+
+    /**
+     * Wrap {@code evaluator} in a {@link CachingEvaluator} unless the settings disable it.
+     */
+    static SolutionListEvaluator<IntegerSolution> withCache(SolutionListEvaluator<IntegerSolution> evaluator,
+            RunSettings settings) {
+        if (settings.evaluationCacheSize <= 0) {
+            return evaluator;
+        }
+        // Restore the raw objectives for incremental evaluation and drop the consumed change set
+        return new CachingEvaluator<>(evaluator, settings.evaluationCacheSize, ParadasProblem.RAW_OBJECTIVES,
+                ParadasProblem.GENOME_DELTA);
+    }
+
+    /**
+     * @return Cache and evaluator metrics of a run, one per line, or an empty list
+     */
+    static List<String> evaluatorStatistics(SolutionListEvaluator<IntegerSolution> evaluator) {
+        List<String> statistics = new ArrayList<>();
+        if (evaluator instanceof CachingEvaluator<IntegerSolution> cache) {
+            statistics.add(cache.statistics());
+            evaluator = cache.getEvaluator();
+        }
+        if (evaluator instanceof ParallelEvaluator<IntegerSolution> parallel) {
+            statistics.add(parallel.statistics());
+        }
+        if (evaluator instanceof BatchEvaluator<IntegerSolution> batch) {
+            statistics.add(batch.statistics());
+        }
+        return statistics;
+    }
+
+    static CustomAlgorithm<IntegerSolution> buildAlgorithm(ParadasProblem problem, RunSettings settings,
+            SolutionListEvaluator<IntegerSolution> evaluator) {
+        // Configure operators
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        CrossoverOperator<IntegerSolution> crossover = new TwoPointCrossover(settings.crossoverProbability);
+        MutationOperator<IntegerSolution> mutation = new IntegerPolynomialMutation(
+                settings.mutationProbability, settings.mutationDistributionIndex);
+
+        // Binary tournament on rank and crowding distance, computed by whichever sorting is used
+        CustomAlgorithmBuilder<IntegerSolution> builder = new CustomAlgorithmBuilder<>(
+                problem, crossover, mutation, settings.populationSize)
+                .setMaxEvaluations(settings.maxEvaluations)
+                .setFastNonDominatedSorting(settings.fastNonDominatedSorting)
+                .setSolutionListEvaluator(evaluator);
+
+        if (settings.pooledPopulation) {
+            // Population plus offspring, and the odd child left over by the crossover
+            builder.setSolutionPool(problem.enableSolutionArena(2 * settings.populationSize + 2));
+        }
+        if (settings.greedySeedFraction > 0) {
+            builder.setPopulationInitializer(
+                    new GreedySeeding(problem, settings.greedySeedFraction, settings.greedySeedNoise));
+        }
+        builder.setStoppingCondition(stoppingCondition(settings));
+        GenerationTelemetry telemetry = new GenerationTelemetry(label(problem), 256);
+        builder.setTelemetry(telemetry);
+        if (settings.telemetry != null) {
+            settings.telemetry.register(telemetry);
+        }
+        if (settings.archiveSize > 0) {
+            problem.setKeepRawObjectives(true);
+            builder.setArchive(new ParetoArchive(settings.archiveSize, problem.idealPoint(), problem.nadirPoint()),
+                    problem::archivePoint);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @return The stopping conditions enabled in {@code settings}, combined with OR, or
+     *         AND if {@code stopWhenAll}; null if none is
+     */
+    static StoppingCondition<IntegerSolution> stoppingCondition(RunSettings settings) {
+        List<StoppingCondition<IntegerSolution>> conditions = new ArrayList<>();
+        if (settings.timeLimitMillis > 0) {
+            conditions.add(StoppingCondition.wallClock(settings.timeLimitMillis));
+        }
+        if (settings.stagnationGenerations > 0) {
+            conditions.add(StoppingCondition.stagnation(settings.stagnationGenerations, settings.stagnationEpsilon));
+        }
+        if (settings.hypervolumeGenerations > 0 && settings.archiveSize > 0) {
+            conditions.add(StoppingCondition.hypervolumeDelta(settings.hypervolumeGenerations,
+                    settings.hypervolumeDelta));
+        }
+        if (!Double.isNaN(settings.targetFitness)) {
+            conditions.add(StoppingCondition.targetFitness(settings.targetFitness));
+        }
+
+        StoppingCondition<IntegerSolution> combined = null;
+        for (StoppingCondition<IntegerSolution> condition : conditions) {
+            combined = combined == null ? condition
+                    : settings.stopWhenAll ? combined.and(condition) : combined.or(condition);
+        }
+        return combined;
+    }
+
+    /**
+     * @return Name of a run of {@code problem} in the telemetry: its weights, or "multi-objective"
+     */
+    private static String label(ParadasProblem problem) {
+        if (problem.isMultiObjective()) {
+            return "multi-objective";
+        }
+        double[] weights = problem.getWeights();
+        return String.format(Locale.ROOT, "%.4f/%.4f/%.4f", weights[0], weights[1], weights[2]);
+    }
+
+    /**
+     * Keep the non-dominated points of the merged fronts, without duplicates, ordered by
+     * number of stops.
+     */
+    static List<double[]> mergeFronts(List<double[]> points) {
+        int n = points.size();
+        double[] minimized = new double[n * 3];
+        for (int i = 0; i < n; i++) {
+            double[] point = points.get(i);
+            minimized[i * 3] = -point[0];
+            minimized[i * 3 + 1] = point[1];
+            minimized[i * 3 + 2] = point[2];
+        }
+        int[] ranks = new int[n];
+        new NonDominatedSorting().sort(minimized, n, 3, ranks);
+
+        List<double[]> front = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (ranks[i] == 0) {
+                front.add(points.get(i));
+            }
+        }
+        front.sort(Comparator.<double[]>comparingDouble(p -> p[1])
+                .thenComparingDouble(p -> -p[0])
+                .thenComparingDouble(p -> p[2]));
+
+        List<double[]> unique = new ArrayList<>(front.size());
+        for (double[] point : front) {
+            if (unique.isEmpty() || !Arrays.equals(unique.get(unique.size() - 1), point)) {
+                unique.add(point);
+            }
+        }
+        return unique;
+    }
+
+    /**
+     * Save a Pareto front to CSV, with the fitness of every point under the default weights
+     */
+    public static void saveParetoFront(List<double[]> front, CompiledODMatrix odMatrix, String fileName) {
+        ParadasProblem problem = ParadasProblem.multiObjective(odMatrix);
+
+        try (FileWriter writer = new FileWriter(fileName)) {
+            writer.write("coverage,num_stops,cost,fitness\n");
+
+            for (double[] point : front) {
+                writer.write(String.format("%.2f,%.2f,%.2f,%.6f\n",
+                        point[0], point[1], point[2], problem.fitness(point[0], point[1], point[2])));
+            }
+
+            System.out.println("Pareto front saved to: " + fileName);
+        } catch (IOException e) {
+            System.err.println("Error saving Pareto front: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Arguments:
+     * <ul>
+     * <li>{@code --threads N}: run up to N (weight, run) jobs at once (default: available processors)</li>
+     * <li>{@code --seed S}: base seed every job's random stream is derived from (default: current time)</li>
+     * <li>{@code --checkpoint-dir DIR}: where finished runs and snapshots are kept (default: checkpoints)</li>
+     * <li>{@code --checkpoint-every N}: snapshot in-flight runs every N generations (default: 10)</li>
+     * <li>{@code --resume}: continue the sweep saved in the checkpoint directory, with its seed. The matrix,
+     * weights and algorithm settings must be the ones it was started with.</li>
+     * <li>{@code --multi-objective}: instead of the weight sweep, optimize coverage, stops and cost
+     * as three objectives and save the merged front of a few runs</li>
+     * <li>{@code --matrix FILE}: load the OD matrix from a CSV file with {@link MappedODMatrixLoader}
+     * instead of {@code data_mvd.csv} from the classpath. A resumed sweep must use the same matrix.</li>
+     * <li>{@code --instance FILE}: load the OD matrix from a file written by {@link CompileInstance}</li>
+     * <li>{@code --kernel NAME}: {@link KernelType} for full evaluations (default: CSR)</li>
+     * <li>{@code --greedy-seed FRACTION}: build this share of every initial population greedily, see
+     * {@link GreedySeeding} (default: 0, all random)</li>
+     * <li>{@code --incremental}: score offspring from their parent's objectives, re-scoring only the OD
+     * pairs of the stops that changed. Coverage and stops stay exact, but the cost carries the rounding of
+     * every ancestor's update, so objectives are no longer bit-identical to a full evaluation.</li>
+     * <li>{@code --islands N}: evolve every run as N concurrent islands, see {@link IslandModel}. Each run
+     * then uses N threads, so lower {@code --threads} accordingly; island runs take no checkpoints.</li>
+     * <li>{@code --telemetry FILE}: stream every run's per-generation metrics to FILE, as JSON lines or,
+     * for a {@code .csv} name, CSV rows; see {@link TelemetryWriter}</li>
+     * <li>{@code --time-limit SECONDS}: stop every run after this long, or when its evaluations run out</li>
+     * <li>{@code --stagnation N}: stop a run once its best fitness has not improved in N generations</li>
+     * <li>{@code --target-fitness F}: stop a run once its best fitness reaches F. With several of
+     * these, a run stops as soon as any is met; see {@link StoppingCondition}</li>
+     * <li>{@code --racing}: cut the runs of a combination that are unlikely to beat its best one and
+     * spend part of the freed evaluations on extra runs, see {@link SweepRace}. Not with {@code --islands}.</li>
+     * </ul>
+     */
+    public static void main(String[] args) {
         int threads = Runtime.getRuntime().availableProcessors();
-        System.out.println("Using " + threads + " threads for parallel evaluation");
+        long seed = System.currentTimeMillis();
+        Path checkpointDir = Paths.get("checkpoints");
+        int checkpointEvery = 10;
+        boolean resume = false;
+        boolean multiObjective = false;
+        Path matrixFile = null;
+        Path instanceFile = null;
+        KernelType kernel = null;
+        boolean incremental = false;
+        double greedySeedFraction = 0;
+        int islands = 1;
+        Path telemetryFile = null;
+        long timeLimitMillis = 0;
+        int stagnationGenerations = 0;
+        double targetFitness = Double.NaN;
+        boolean racing = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--checkpoint-dir":
+                    checkpointDir = Paths.get(args[++i]);
+                    break;
+                case "--checkpoint-every":
+                    checkpointEvery = Integer.parseInt(args[++i]);
+                    break;
+                case "--resume":
+                    resume = true;
+                    break;
+                case "--multi-objective":
+                    multiObjective = true;
+                    break;
+                case "--matrix":
+                    matrixFile = Paths.get(args[++i]);
+                    break;
+                case "--instance":
+                    instanceFile = Paths.get(args[++i]);
+                    break;
+                case "--kernel":
+                    kernel = KernelType.valueOf(args[++i].toUpperCase());
+                    break;
+                case "--greedy-seed":
+                    greedySeedFraction = Double.parseDouble(args[++i]);
+                    break;
+                case "--incremental":
+                    incremental = true;
+                    break;
+                case "--islands":
+                    islands = Integer.parseInt(args[++i]);
+                    break;
+                case "--telemetry":
+                    telemetryFile = Paths.get(args[++i]);
+                    break;
+                case "--time-limit":
+                    timeLimitMillis = Math.round(Double.parseDouble(args[++i]) * 1000);
+                    break;
+                case "--stagnation":
+                    stagnationGenerations = Integer.parseInt(args[++i]);
+                    break;
+                case "--target-fitness":
+                    targetFitness = Double.parseDouble(args[++i]);
+                    break;
+                case "--racing":
+                    racing = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        if (racing && islands > 1) {
+            throw new IllegalArgumentException("--racing does not support --islands");
+        }
+
+        // Read the data matrix and compile it once, every run shares it
+        CompiledODMatrix odMatrix = loadMatrix(instanceFile, matrixFile);
 
         // Generate timestamp for output files
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
 
-        // Iterate over each weight combination
-        int combinationCount = 0;
-        for (WeightCombination weights : weightCombinations) {
-            combinationCount++;
-            System.out.println(String.format("\\n[%d/%d] Running with weights: %s",
-                    combinationCount, weightCombinations.size(), weights));
-
-            // Store best result across all runs for this weight combination
-            ParetoResult bestResult = null;
-            double bestFitness = Double.NEGATIVE_INFINITY;
-
-            // Run multiple times for statistical stability
-            for (int run = 0; run < runsPerCombination; run++) {
-                System.out.println(String.format("  Run %d/%d...", run + 1, runsPerCombination));
-
-                // Create problem with current weights
-                ParadasProblem problem = new ParadasProblem(matrix, weights.f1, weights.f2, weights.f3);
-
-                // Configure operators
-                @SuppressWarnings({ "rawtypes", "unchecked" })
-                CrossoverOperator<IntegerSolution> crossover = new TwoPointCrossover(crossoverProbability);
-                MutationOperator<IntegerSolution> mutation = new IntegerPolynomialMutation(
-                        mutationProbability, mutationDistributionIndex);
-                SelectionOperator<List<IntegerSolution>, IntegerSolution> selection = new BinaryTournamentSelection<>(
-                        new RankingAndCrowdingDistanceComparator<>());
-
-                // Create and run algorithm
-                CustomAlgorithm<IntegerSolution> algorithm = new CustomAlgorithmBuilder<>(
-                        problem, crossover, mutation, populationSize)
-                        .setMaxEvaluations(maxEvaluations)
-                        .setSelectionOperator(selection)
-                        .setSolutionListEvaluator(new ParallelEvaluator<>())
-                        .build();
-
-                algorithm.run();
-                List<IntegerSolution> population = algorithm.result();
-
-                // Get best solution
-                IntegerSolution bestSolution = problem.getBestSolution(population);
-                double[] objectives = problem.getOriginalObjectives(bestSolution);
-                double fitness = -bestSolution.objectives()[0]; // Negate back to get positive fitness
-
-                // Check if this is the best run for this weight combination
-                if (fitness > bestFitness) {
-                    bestFitness = fitness;
-                    bestResult = new ParetoResult(
-                            weights,
-                            objectives[0], // coverage
-                            objectives[1], // numStops
-                            objectives[2], // cost
-                            fitness);
-                }
+        // Algorithm configuration
+        RunSettings settings = new RunSettings();
+        if (kernel != null) {
+            settings.kernel = kernel;
+        }
+        settings.incrementalEvaluation = incremental;
+        settings.greedySeedFraction = greedySeedFraction;
+        settings.islands = islands;
+        settings.timeLimitMillis = timeLimitMillis;
+        settings.stagnationGenerations = stagnationGenerations;
+        settings.targetFitness = targetFitness;
+        if (telemetryFile != null) {
+            settings.telemetry = new TelemetryWriter(telemetryFile, 1000);
+        }
+
+        if (multiObjective) {
+            try {
+                runMultiObjective(odMatrix, settings, seed, timestamp);
+            } finally {
+                closeTelemetry(settings);
             }
+            return;
+        }
+
+        // Read weight combinations from pesos.csv
+        List<WeightCombination> weightCombinations = readWeights("pesos.csv");
+        System.out.println("Loaded " + weightCombinations.size() + " weight combinations");
+
+        // Number of runs per weight combination (for statistical stability)
+        int runsPerCombination = 3;
 
-            // Store the best result for this weight combination
-            if (bestResult != null) {
-                paretoResults.add(bestResult);
-                System.out.println(String.format("  Best result: Coverage=%.2f, Stops=%.2f, Cost=%.2f, Fitness=%.6f",
-                        bestResult.coverage, bestResult.numStops, bestResult.cost, bestResult.fitness));
+        // Finished runs and in-flight snapshots survive a crash, see --resume
+        CheckpointStore checkpoint;
+        long matrixFingerprint = DistributedProtocol.fingerprint(odMatrix);
+        long weightsFingerprint = fingerprint(weightCombinations);
+        long settingsFingerprint = settings.fingerprint();
+        if (resume) {
+            checkpoint = CheckpointStore.open(checkpointDir);
+            if (checkpoint.combinations() != weightCombinations.size()
+                    || checkpoint.runsPerCombination() != runsPerCombination) {
+                throw new IllegalStateException("Checkpoint in " + checkpointDir + " belongs to a sweep of "
+                        + checkpoint.combinations() + " combinations x " + checkpoint.runsPerCombination() + " runs");
+            }
+            // Snapshots of another matrix or settings would be resumed as if they were this sweep's
+            if (checkpoint.matrixFingerprint() != matrixFingerprint) {
+                throw new IllegalStateException("Checkpoint in " + checkpointDir + " belongs to another OD matrix");
+            }
+            if (checkpoint.weightsFingerprint() != weightsFingerprint) {
+                throw new IllegalStateException("Checkpoint in " + checkpointDir
+                        + " belongs to other weight combinations");
             }
+            if (checkpoint.settingsFingerprint() != settingsFingerprint) {
+                throw new IllegalStateException("Checkpoint in " + checkpointDir
+                        + " belongs to a sweep with other algorithm settings");
+            }
+            seed = checkpoint.seed();
+            System.out.println("Resuming sweep from " + checkpointDir + ": " + checkpoint.completedRuns()
+                    + " runs already finished");
+        } else {
+            checkpoint = CheckpointStore.create(checkpointDir, seed, weightCombinations.size(), runsPerCombination,
+                    matrixFingerprint, weightsFingerprint, settingsFingerprint);
+        }
+
+        System.out.println("Running up to " + threads + " jobs concurrently, seed " + seed);
+
+        // Every job draws from its own random stream derived from the seed
+        JobRandomGenerator.install(seed);
+
+        // Cut a run at about a 10% risk of losing the combination's best, and rerun with half the freed budget
+        SweepRace race = racing ? new SweepRace(settings.maxEvaluations, settings.populationSize, 0.05, 0.5)
+                : null;
+        SweepScheduler scheduler = new SweepScheduler(odMatrix, settings, runsPerCombination, threads, seed,
+                checkpoint, checkpointEvery, race);
+        List<ParetoResult> paretoResults;
+        try {
+            paretoResults = scheduler.run(weightCombinations);
+        } finally {
+            closeTelemetry(settings);
         }
 
         // Save Pareto results to CSV
@@ -277,4 +768,68 @@ public class Main extends AbstractAlgorithmRunner {
         System.out.println("Results saved to: " + paretoFileName);
         System.out.println("========================================");
     }
-}
\ No newline at end of file
+
+    private static void closeTelemetry(RunSettings settings) {
+        if (settings.telemetry != null) {
+            settings.telemetry.close();
+            System.out.println(settings.telemetry.statistics());
+        }
+    }
+
+    /**
+     * Load the OD matrix from a compiled instance, else from a CSV file, else from
+     * {@code data_mvd.csv} on the classpath.
+     *
+     * @param instanceFile File written by {@link CompileInstance}, or null
+     * @param matrixFile   CSV file for {@link MappedODMatrixLoader}, or null
+     */
+    static CompiledODMatrix loadMatrix(Path instanceFile, Path matrixFile) {
+        if (instanceFile != null) {
+            return CompiledInstance.read(instanceFile);
+        }
+        if (matrixFile != null) {
+            return MappedODMatrixLoader.load(matrixFile);
+        }
+        return CompiledODMatrix.compile(readCsvToMap("data_mvd.csv"));
+    }
+
+    /**
+     * Approximate the Pareto front directly with the three-objective problem: a few
+     * independent runs, merged into one front.
+     */
+    private static void runMultiObjective(CompiledODMatrix odMatrix, RunSettings settings, long seed,
+            String timestamp) {
+        int runs = 3;
+        JobRandomGenerator.install(seed);
+        System.out.println("Multi-objective mode, " + runs + " runs, seed " + seed);
+
+        List<double[]> points = new ArrayList<>();
+        for (int run = 0; run < runs; run++) {
+            SolutionListEvaluator<IntegerSolution> evaluator = createEvaluator(
+                    Runtime.getRuntime().availableProcessors(), settings);
+            JobRandomGenerator.bind(RandomStream.forJob(seed, 0, run));
+            try {
+                List<double[]> front = runFront(odMatrix, settings, evaluator);
+                System.out.println(String.format("Run %d/%d: %d non-dominated solutions", run + 1, runs, front.size()));
+                for (String line : evaluatorStatistics(evaluator)) {
+                    System.out.println("  " + line);
+                }
+                points.addAll(front);
+            } finally {
+                JobRandomGenerator.unbind();
+                evaluator.shutdown();
+            }
+        }
+
+        List<double[]> front = mergeFronts(points);
+        String frontFileName = "pareto_front_" + timestamp + ".csv";
+        saveParetoFront(front, odMatrix, frontFileName);
+
+        System.out.println("\n========================================");
+        System.out.println("Pareto front completed!");
+        System.out.println("Total algorithm runs: " + runs);
+        System.out.println("Front size: " + front.size());
+        System.out.println("Results saved to: " + frontFileName);
+        System.out.println("========================================");
+    }
+}
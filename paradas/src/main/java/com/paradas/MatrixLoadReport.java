@@ -0,0 +1,138 @@
+package com.paradas;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Supplier;
+
+import com.paradas.Abstraccion.CompiledODMatrix;
+import com.paradas.Abstraccion.MappedODMatrixLoader;
+
+/**
+ * Reports load time and heap of the OD matrix with {@code Main.readCsvToMap} plus
+ * {@link CompiledODMatrix#compile} against {@link MappedODMatrixLoader}, and checks
+ * that both give the same matrix by segment code.
+ * <p>
+ * Usage: {@code MatrixLoadReport [resource] [rounds]}, defaults to
+ * {@code data_mvd.csv} and 3 rounds. The resource must be a plain file on the
+ * classpath (e.g. {@code target/classes}), the mapped loader reads it from there.
+ * Peak heap is the sum of the peaks of the heap pools during a load, after a GC.
+ */
+public class MatrixLoadReport {
+
+    public static void main(String[] args) throws URISyntaxException {
+        String fileName = args.length > 0 ? args[0] : "data_mvd.csv";
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        URL resource = MatrixLoadReport.class.getClassLoader().getResource(fileName);
+        if (resource == null) {
+            throw new IllegalArgumentException("File not found in resources: " + fileName);
+        }
+        Path file = Paths.get(resource.toURI());
+
+        CompiledODMatrix reference = null;
+        CompiledODMatrix mapped = null;
+        for (int round = 1; round <= rounds; round++) {
+            // Drop the previous round's matrices so they do not count as retained
+            reference = null;
+            mapped = null;
+            // The first rounds include class loading and JIT warm-up
+            reference = measure("Map + compile", round,
+                    () -> CompiledODMatrix.compile(Main.readCsvToMap(fileName)));
+            mapped = measure("Mapped loader", round, () -> MappedODMatrixLoader.load(file));
+        }
+
+        System.out.println(fileName + ": " + mapped.numberOfSegments() + " segments, " + mapped.numberOfPairs()
+                + " OD pairs");
+        int mismatches = compare(reference, mapped);
+        if (mismatches > 0) {
+            System.err.println(mismatches + " mismatches between the loaders");
+            System.exit(1);
+        }
+        System.out.println("Both loaders give the same matrix");
+    }
+
+    private static CompiledODMatrix measure(String name, int round, Supplier<CompiledODMatrix> loader) {
+        System.gc();
+        long before = usedHeap();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+
+        long start = System.nanoTime();
+        CompiledODMatrix matrix = loader.get();
+        long elapsed = System.nanoTime() - start;
+
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.gc();
+        long retained = usedHeap() - before;
+
+        System.out.println(String.format("Round %d %-14s %8.1f ms, peak heap %7.1f MB, retained %7.1f MB", round,
+                name, elapsed / 1e6, peak / 1048576.0, retained / 1048576.0));
+        return matrix;
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * @return Number of segments and pairs that differ, matched by segment code
+     */
+    private static int compare(CompiledODMatrix expected, CompiledODMatrix actual) {
+        int mismatches = 0;
+        if (expected.numberOfSegments() != actual.numberOfSegments()
+                || expected.numberOfPairs() != actual.numberOfPairs()) {
+            System.err.println(String.format("Sizes differ: %d segments / %d pairs, got %d / %d",
+                    expected.numberOfSegments(), expected.numberOfPairs(), actual.numberOfSegments(),
+                    actual.numberOfPairs()));
+            return 1;
+        }
+
+        for (int o = 0; o < actual.numberOfSegments(); o++) {
+            int e = expected.indexOf(actual.segment(o));
+            if (e < 0 || expected.demand(e) != actual.demand(o)
+                    || expected.costFactor(e) != actual.costFactor(o)) {
+                mismatches++;
+                System.err.println("Segment " + actual.segment(o) + " differs");
+                continue;
+            }
+            for (int k = actual.rowStart(o); k < actual.rowEnd(o); k++) {
+                int d = expected.indexOf(actual.segment(actual.destination(k)));
+                int match = -1;
+                for (int j = expected.rowStart(e); j < expected.rowEnd(e) && match < 0; j++) {
+                    if (expected.destination(j) == d) {
+                        match = j;
+                    }
+                }
+                if (match < 0 || expected.passengers(match) != actual.passengers(k)
+                        || expected.weight(match) != actual.weight(k)) {
+                    mismatches++;
+                    System.err.println("Pair " + actual.segment(o) + " -> " + actual.segment(actual.destination(k))
+                            + " differs");
+                }
+            }
+        }
+
+        // Bounds are sums in index order, equal up to rounding
+        if (expected.maxPossibleCoverage() != actual.maxPossibleCoverage()
+                || Math.abs(expected.maxPossibleCost() - actual.maxPossibleCost()) > 1e-9 * expected.maxPossibleCost()
+                || Math.abs(expected.minPossibleCost() - actual.minPossibleCost())
+                        > -1e-9 * expected.minPossibleCost()) {
+            mismatches++;
+            System.err.println("Normalization bounds differ");
+        }
+        return mismatches;
+    }
+}
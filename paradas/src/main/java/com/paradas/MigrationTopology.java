@@ -0,0 +1,40 @@
+package com.paradas;
+
+/**
+ * Which islands of an {@link IslandModel} receive the migrants of each island.
+ */
+public enum MigrationTopology {
+    // Island i sends to island i + 1, the last one to the first
+    RING,
+    // Island i sends to islands i - 1 and i + 1
+    BIDIRECTIONAL_RING,
+    // Every island sends to all the others
+    COMPLETE;
+
+    /**
+     * @return Islands that {@code island} sends its migrants to, out of {@code islands}
+     */
+    public int[] targets(int island, int islands) {
+        if (islands == 1) {
+            return new int[0];
+        }
+        switch (this) {
+            case BIDIRECTIONAL_RING:
+                if (islands == 2) {
+                    return new int[] { 1 - island };
+                }
+                return new int[] { (island + islands - 1) % islands, (island + 1) % islands };
+            case COMPLETE:
+                int[] targets = new int[islands - 1];
+                for (int i = 0, t = 0; i < islands; i++) {
+                    if (i != island) {
+                        targets[t++] = i;
+                    }
+                }
+                return targets;
+            case RING:
+            default:
+                return new int[] { (island + 1) % islands };
+        }
+    }
+}
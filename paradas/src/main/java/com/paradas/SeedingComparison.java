@@ -0,0 +1,125 @@
+package com.paradas;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+import com.paradas.Abstraccion.CompiledODMatrix;
+import com.paradas.Abstraccion.ParadasProblem;
+import com.paradas.Main.RunSettings;
+import com.paradas.utils.CustomAlgorithm;
+import com.paradas.utils.JobRandomGenerator;
+import com.paradas.utils.RandomStream;
+
+/**
+ * Compares the convergence of random and greedy-seeded initial populations. Both
+ * configurations run on the same random streams with the default weights, and the
+ * mean {@link com.paradas.utils.FitnessTracker} curve of each is written to
+ * {@code convergence_<timestamp>.csv}, by evaluations spent. Runs that stop early
+ * shorten the curves to the shortest run of their configuration.
+ * <p>
+ * Usage: {@code SeedingComparison [resource] [runs] [seed] [fraction]}, defaults to
+ * {@code data_mvd.csv}, 5 runs, seed 1 and 10% of the population seeded.
+ */
+public class SeedingComparison {
+
+    public static void main(String[] args) {
+        String fileName = args.length > 0 ? args[0] : "data_mvd.csv";
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        double fraction = args.length > 3 ? Double.parseDouble(args[3]) : 0.1;
+
+        CompiledODMatrix odMatrix = CompiledODMatrix.compile(Main.readCsvToMap(fileName));
+        RunSettings seeded = new RunSettings();
+        seeded.greedySeedFraction = fraction;
+        RunSettings random = new RunSettings();
+        random.greedySeedFraction = 0;
+
+        JobRandomGenerator.install(seed);
+        double[] randomCurve = meanCurve(odMatrix, random, runs, seed);
+        double[] seededCurve = meanCurve(odMatrix, seeded, runs, seed);
+
+        String dateTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        String outputName = "convergence_" + dateTime + ".csv";
+        int generations = Math.min(randomCurve.length, seededCurve.length);
+        try (FileWriter writer = new FileWriter(outputName)) {
+            writer.write("generation,evaluations,random,seeded\n");
+            for (int g = 0; g < generations; g++) {
+                writer.write((g + 1) + "," + evaluations(random, g) + "," + randomCurve[g] + "," + seededCurve[g]
+                        + "\n");
+            }
+            System.out.println("Convergence curves saved to: " + outputName);
+        } catch (IOException e) {
+            System.err.println("An error occurred while saving the results: " + e.getMessage());
+        }
+
+        // Evaluations the seeded runs need to match the final fitness of the random ones
+        double target = randomCurve[randomCurve.length - 1];
+        int reached = -1;
+        for (int g = 0; g < seededCurve.length && reached < 0; g++) {
+            if (seededCurve[g] >= target) {
+                reached = g;
+            }
+        }
+
+        System.out.println(String.format("%d runs, seed %d, %.0f%% of the population seeded", runs, seed,
+                100 * seeded.greedySeedFraction));
+        System.out.println(String.format("Random: first generation %.6f, final %.6f", randomCurve[0], target));
+        System.out.println(String.format("Seeded: first generation %.6f, final %.6f", seededCurve[0],
+                seededCurve[seededCurve.length - 1]));
+        if (reached >= 0) {
+            System.out.println(String.format("Seeded runs reach the random final fitness after %d of %d evaluations",
+                    evaluations(seeded, reached), evaluations(random, randomCurve.length - 1)));
+        } else {
+            System.out.println("Seeded runs do not reach the random final fitness");
+        }
+    }
+
+    /**
+     * Mean best fitness of every generation over {@code runs} runs, up to the last
+     * generation all of them reached.
+     */
+    private static double[] meanCurve(CompiledODMatrix odMatrix, RunSettings settings, int runs, long seed) {
+        double[][] curves = new double[runs][];
+        int generations = Integer.MAX_VALUE;
+        for (int run = 0; run < runs; run++) {
+            SolutionListEvaluator<IntegerSolution> evaluator = Main.createEvaluator(
+                    Runtime.getRuntime().availableProcessors(), settings);
+            JobRandomGenerator.bind(RandomStream.forJob(seed, 0, run));
+            try {
+                ParadasProblem problem = new ParadasProblem(odMatrix, 0.65, 0.20, 0.15);
+                problem.setIncrementalEvaluation(settings.incrementalEvaluation);
+                problem.setKernel(settings.kernel);
+
+                CustomAlgorithm<IntegerSolution> algorithm = Main.buildAlgorithm(problem, settings, evaluator);
+                algorithm.run();
+
+                curves[run] = algorithm.getFitnessCurve();
+                generations = Math.min(generations, curves[run].length);
+            } finally {
+                JobRandomGenerator.unbind();
+                evaluator.shutdown();
+            }
+        }
+
+        // Every generation has the same size, so equal generations mean equal evaluations
+        double[] mean = new double[generations];
+        for (double[] curve : curves) {
+            for (int g = 0; g < generations; g++) {
+                mean[g] += curve[g] / runs;
+            }
+        }
+        return mean;
+    }
+
+    /**
+     * @return Evaluations spent at the end of generation {@code g} (0-based)
+     */
+    private static int evaluations(RunSettings settings, int g) {
+        return settings.populationSize * (g + 2);
+    }
+}
@@ -0,0 +1,590 @@
+package com.paradas;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.paradas.Abstraccion.KernelType;
+import com.paradas.Main.ParetoResult;
+import com.paradas.Main.RunSettings;
+import com.paradas.Main.WeightCombination;
+import com.paradas.utils.RandomStream;
+
+/**
+ * Runs a Pareto sweep on {@link SweepWorker}s in other JVMs, on this machine or
+ * others, connected over TCP with the {@link DistributedProtocol}.
+ * <p>
+ * Every (weight combination, run) job is split into {@code islands} tasks, one per
+ * island of an {@link IslandModel}, and tasks are handed to the workers as their
+ * slots free up; the islands of a run may end up on different workers. The
+ * coordinator relays every migrant to the worker running its target island, and
+ * drops it if that island is not running or that worker is too far behind on the
+ * messages it is sent. A run's result is the best of its islands, and a
+ * combination's the best of its runs, as in {@link SweepScheduler}.
+ * <p>
+ * A worker that closes its connection or misses heartbeats for
+ * {@code heartbeatTimeout} is dropped and its unfinished tasks are queued again,
+ * first, for the remaining workers or for ones that connect later. A restarted
+ * island starts over from the same seed. Workers can join at any time; they must all
+ * have loaded the same matrix, which the coordinator never reads.
+ * <p>
+ * Usage: {@code SweepCoordinator [--port P] [--seed S] [--runs R] [--islands N]
+ * [--heartbeat-timeout SECONDS] [--kernel NAME] [--incremental] [--greedy-seed FRACTION]
+ * [--time-limit SECONDS] [--stagnation N] [--target-fitness F]}, defaults to port 7170,
+ * the current time, 3 runs per combination, 1 island and 30 s; the algorithm options
+ * are those of {@link Main}. Combinations are read from {@code pesos.csv}. Every task
+ * carries the settings of its island, so the workers run exactly this configuration.
+ */
+public class SweepCoordinator {
+
+    // Migrants waiting to be written to a worker beyond which further ones are dropped
+    private static final int MIGRANT_BACKLOG = 256;
+
+    private final List<WeightCombination> weightCombinations;
+    private final int runsPerCombination;
+    private final int islands;
+    private final RunSettings islandSettings;
+    private final long seed;
+    private final int heartbeatTimeoutMillis;
+
+    // Guarded by this
+    private final Task[] tasks;
+    private final Deque<Task> pending = new ArrayDeque<>();
+    private final List<Connection> connections = new ArrayList<>();
+    private int remaining;
+    private Long fingerprint;
+    private int connectionCount = 0;
+    private long relayed = 0;
+    private long dropped = 0;
+    private long overflowed = 0;
+
+    /**
+     * @param settings Settings of a whole run; every island gets its share of them
+     */
+    SweepCoordinator(List<WeightCombination> weightCombinations, int runsPerCombination, int islands,
+            RunSettings settings, long seed, int heartbeatTimeoutMillis) {
+        if (islands < 1) {
+            throw new IllegalArgumentException("islands must be positive: " + islands);
+        }
+        this.weightCombinations = weightCombinations;
+        this.runsPerCombination = runsPerCombination;
+        this.islands = islands;
+        this.islandSettings = IslandModel.islandSettings(settings, islands);
+        this.seed = seed;
+        this.heartbeatTimeoutMillis = heartbeatTimeoutMillis;
+
+        tasks = new Task[weightCombinations.size() * runsPerCombination * islands];
+        for (int id = 0; id < tasks.length; id++) {
+            tasks[id] = new Task(id, id / islands / runsPerCombination, id / islands % runsPerCombination,
+                    id % islands);
+            pending.add(tasks[id]);
+        }
+        remaining = tasks.length;
+    }
+
+    public static void main(String[] args) {
+        int port = DistributedProtocol.DEFAULT_PORT;
+        long seed = System.currentTimeMillis();
+        int runsPerCombination = 3;
+        int islands = 1;
+        int heartbeatTimeout = 30;
+        RunSettings settings = new RunSettings();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--runs":
+                    runsPerCombination = Integer.parseInt(args[++i]);
+                    break;
+                case "--islands":
+                    islands = Integer.parseInt(args[++i]);
+                    break;
+                case "--heartbeat-timeout":
+                    heartbeatTimeout = Integer.parseInt(args[++i]);
+                    break;
+                case "--kernel":
+                    settings.kernel = KernelType.valueOf(args[++i].toUpperCase());
+                    break;
+                case "--incremental":
+                    settings.incrementalEvaluation = true;
+                    break;
+                case "--greedy-seed":
+                    settings.greedySeedFraction = Double.parseDouble(args[++i]);
+                    break;
+                case "--time-limit":
+                    settings.timeLimitMillis = Math.round(Double.parseDouble(args[++i]) * 1000);
+                    break;
+                case "--stagnation":
+                    settings.stagnationGenerations = Integer.parseInt(args[++i]);
+                    break;
+                case "--target-fitness":
+                    settings.targetFitness = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        List<WeightCombination> weightCombinations = Main.readWeights("pesos.csv");
+        settings.islands = islands;
+
+        SweepCoordinator coordinator = new SweepCoordinator(weightCombinations, runsPerCombination, islands,
+                settings, seed, heartbeatTimeout * 1000);
+        List<ParetoResult> paretoResults;
+        try (ServerSocket server = new ServerSocket(port)) {
+            System.out.println(String.format("Coordinating %d combinations x %d runs x %d islands on port %d, seed %d",
+                    weightCombinations.size(), runsPerCombination, islands, port, seed));
+            paretoResults = coordinator.run(server);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not listen on port " + port, e);
+        }
+
+        String paretoFileName = "pareto_results_" + timestamp + ".csv";
+        Main.saveParetoResults(paretoResults, paretoFileName);
+    }
+
+    /**
+     * Accept workers on {@code server} until every task has a result.
+     *
+     * @return One result per weight combination, in the order of the combinations
+     */
+    List<ParetoResult> run(ServerSocket server) {
+        Thread acceptor = new Thread(() -> accept(server), "coordinator-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        synchronized (this) {
+            while (remaining > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the workers", e);
+                }
+            }
+        }
+
+        List<Connection> workers;
+        synchronized (this) {
+            workers = new ArrayList<>(connections);
+        }
+        for (Connection worker : workers) {
+            worker.send(out -> {
+                out.writeByte(DistributedProtocol.SHUTDOWN);
+                out.writeUTF("");
+            });
+            worker.close();
+        }
+        for (Connection worker : workers) {
+            worker.awaitClosed(heartbeatTimeoutMillis);
+        }
+
+        return collect();
+    }
+
+    private void accept(ServerSocket server) {
+        while (!server.isClosed()) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                // Closed once the sweep is done
+                return;
+            }
+            Thread reader = new Thread(() -> serve(socket), "coordinator-worker");
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+
+    /**
+     * Handshake with a worker, then read its messages until it disconnects.
+     */
+    private void serve(Socket socket) {
+        Connection connection;
+        try {
+            socket.setSoTimeout(heartbeatTimeoutMillis);
+            socket.setTcpNoDelay(true);
+            connection = new Connection(socket);
+        } catch (IOException e) {
+            System.err.println("Could not set up worker " + socket.getRemoteSocketAddress() + ": " + e.getMessage());
+            closeQuietly(socket);
+            return;
+        }
+
+        try {
+            DataInputStream in = connection.in;
+            if (in.readByte() != DistributedProtocol.HELLO || in.readInt() != DistributedProtocol.MAGIC
+                    || in.readInt() != DistributedProtocol.VERSION) {
+                System.err.println("Ignoring " + socket.getRemoteSocketAddress() + ": not a sweep worker");
+                connection.close();
+                return;
+            }
+            int slots = in.readInt();
+            int segments = in.readInt();
+            long workerFingerprint = in.readLong();
+
+            String rejection = register(connection, slots, workerFingerprint);
+            if (rejection != null) {
+                System.err.println("Rejecting worker " + socket.getRemoteSocketAddress() + ": " + rejection);
+                connection.send(out -> {
+                    out.writeByte(DistributedProtocol.SHUTDOWN);
+                    out.writeUTF(rejection);
+                });
+                connection.close();
+                return;
+            }
+            System.out.println(String.format("Worker %s connected from %s: %d slots, %d segments",
+                    connection.name, socket.getRemoteSocketAddress(), slots, segments));
+            dispatch();
+
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case DistributedProtocol.HEARTBEAT:
+                        break;
+                    case DistributedProtocol.MIGRANT:
+                        relay(in.readInt(), in.readInt(), DistributedProtocol.readGenome(in));
+                        break;
+                    case DistributedProtocol.RESULT:
+                        complete(connection, in.readInt(), in.readDouble(), in.readDouble(), in.readDouble(),
+                                in.readDouble());
+                        break;
+                    default:
+                        throw new IllegalStateException("Unexpected message type " + type);
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            lost(connection, "no heartbeat in " + heartbeatTimeoutMillis / 1000 + " s");
+        } catch (EOFException e) {
+            lost(connection, "connection closed");
+        } catch (IOException | IllegalStateException e) {
+            lost(connection, e.getMessage());
+        }
+    }
+
+    /**
+     * @return Why the worker cannot join, or null once it is registered
+     */
+    private synchronized String register(Connection connection, int slots, long workerFingerprint) {
+        if (slots < 1) {
+            return "no slots";
+        }
+        if (fingerprint == null) {
+            fingerprint = workerFingerprint;
+        } else if (fingerprint != workerFingerprint) {
+            return "it loaded a different matrix than the other workers";
+        }
+        connection.slots = slots;
+        connection.name = "#" + ++connectionCount;
+        connections.add(connection);
+        return null;
+    }
+
+    /**
+     * Hand pending tasks to the least loaded workers with a free slot.
+     */
+    private void dispatch() {
+        List<Connection> targets = new ArrayList<>();
+        List<Task> assigned = new ArrayList<>();
+        synchronized (this) {
+            while (!pending.isEmpty()) {
+                Connection target = null;
+                for (Connection connection : connections) {
+                    if (connection.assigned.size() < connection.slots
+                            && (target == null || connection.assigned.size() < target.assigned.size())) {
+                        target = connection;
+                    }
+                }
+                if (target == null) {
+                    break;
+                }
+                Task task = pending.poll();
+                task.owner = target;
+                target.assigned.add(task);
+                targets.add(target);
+                assigned.add(task);
+            }
+        }
+
+        // Outside the lock, the outboxes are not guarded by it
+        for (int i = 0; i < assigned.size(); i++) {
+            Task task = assigned.get(i);
+            WeightCombination weights = weightCombinations.get(task.combination);
+            long islandSeed = RandomStream.forJob(seed, task.combination, task.run).nextLong();
+            targets.get(i).send(out -> {
+                out.writeByte(DistributedProtocol.TASK);
+                out.writeInt(task.id);
+                out.writeInt(task.combination);
+                out.writeInt(task.run);
+                out.writeInt(task.island);
+                out.writeInt(islands);
+                out.writeDouble(weights.f1);
+                out.writeDouble(weights.f2);
+                out.writeDouble(weights.f3);
+                out.writeLong(islandSeed);
+                DistributedProtocol.writeSettings(out, islandSettings);
+            });
+        }
+    }
+
+    /**
+     * Forward a migrant of task {@code from} to the worker running island {@code target}
+     * of the same run, if any.
+     */
+    private void relay(int from, int target, int[] genes) {
+        if (from < 0 || from >= tasks.length || target < 0 || target >= islands) {
+            throw new IllegalStateException("Migrant from unknown task " + from + " to island " + target);
+        }
+        Task task = tasks[from - tasks[from].island + target];
+        Connection owner;
+        synchronized (this) {
+            owner = task.result == null ? task.owner : null;
+        }
+        boolean queued = owner != null && owner.offerMigrant(out -> {
+            out.writeByte(DistributedProtocol.MIGRANT);
+            out.writeInt(task.id);
+            out.writeInt(target);
+            DistributedProtocol.writeGenome(out, genes);
+        });
+        synchronized (this) {
+            if (queued) {
+                relayed++;
+            } else if (owner != null) {
+                overflowed++;
+            } else {
+                dropped++;
+            }
+        }
+    }
+
+    private void complete(Connection connection, int id, double coverage, double numStops, double cost,
+            double fitness) {
+        synchronized (this) {
+            if (id < 0 || id >= tasks.length || tasks[id].owner != connection) {
+                // A task this worker no longer owns, after being given up as lost
+                return;
+            }
+            Task task = tasks[id];
+            task.result = new ParetoResult(weightCombinations.get(task.combination), coverage, numStops, cost,
+                    fitness);
+            task.owner = null;
+            connection.assigned.remove(task);
+            remaining--;
+            System.out.println(String.format("[%d/%d] Run %d/%d island %d/%d on worker %s: Fitness=%.6f, %d tasks left",
+                    task.combination + 1, weightCombinations.size(), task.run + 1, runsPerCombination,
+                    task.island + 1, islands, connection.name, fitness, remaining));
+            if (remaining == 0) {
+                notifyAll();
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Drop a worker and queue its unfinished tasks again, ahead of the others.
+     */
+    private void lost(Connection connection, String reason) {
+        synchronized (this) {
+            if (!connections.remove(connection)) {
+                return;
+            }
+            if (remaining > 0) {
+                System.err.println(String.format("Lost worker %s (%s), requeueing %d tasks", connection.name, reason,
+                        connection.assigned.size()));
+            }
+            for (int i = connection.assigned.size() - 1; i >= 0; i--) {
+                Task task = connection.assigned.get(i);
+                task.owner = null;
+                pending.addFirst(task);
+            }
+            connection.assigned.clear();
+        }
+        connection.abort();
+        dispatch();
+    }
+
+    /**
+     * Best island of every run, then best run of every combination.
+     */
+    private synchronized List<ParetoResult> collect() {
+        System.out.println(String.format(
+                "Migrants: %d relayed, %d dropped for islands not running, %d for workers too far behind", relayed,
+                dropped, overflowed));
+        List<ParetoResult> paretoResults = new ArrayList<>(weightCombinations.size());
+        int perCombination = runsPerCombination * islands;
+        for (int c = 0; c < weightCombinations.size(); c++) {
+            ParetoResult bestResult = null;
+            for (int id = c * perCombination; id < (c + 1) * perCombination; id++) {
+                if (bestResult == null || tasks[id].result.fitness > bestResult.fitness) {
+                    bestResult = tasks[id].result;
+                }
+            }
+            paretoResults.add(bestResult);
+            System.out.println(String.format(
+                    "[%d/%d] %s -> Best result: Coverage=%.2f, Stops=%.2f, Cost=%.2f, Fitness=%.6f",
+                    c + 1, weightCombinations.size(), bestResult.weights, bestResult.coverage,
+                    bestResult.numStops, bestResult.cost, bestResult.fitness));
+        }
+        return paretoResults;
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    /**
+     * One island of one run.
+     */
+    private static final class Task {
+        final int id;
+        final int combination;
+        final int run;
+        final int island;
+
+        // Guarded by the coordinator
+        Connection owner;
+        ParetoResult result;
+
+        Task(int id, int combination, int run, int island) {
+            this.id = id;
+            this.combination = combination;
+            this.run = run;
+            this.island = island;
+        }
+    }
+
+    /**
+     * A connected worker. Messages to it are queued and written by its own writer
+     * thread, so a worker that stops reading never blocks the thread that produced
+     * them, e.g. the reader of another worker relaying a migrant.
+     */
+    private final class Connection {
+        // Marks the end of the outbox
+        private static final DistributedProtocol.Message CLOSE = out -> {
+        };
+
+        final Socket socket;
+        final DataInputStream in;
+        private final DataOutputStream out;
+        private final BlockingQueue<DistributedProtocol.Message> outbox = new LinkedBlockingQueue<>();
+        private final Thread writer;
+
+        // Guarded by the coordinator
+        String name = "?";
+        int slots;
+        final List<Task> assigned = new ArrayList<>();
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.writer = new Thread(this::write, "coordinator-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+
+        /**
+         * Write the outbox until {@link #CLOSE}, then close the socket; a worker that
+         * cannot take a message is dropped.
+         */
+        private void write() {
+            try {
+                while (true) {
+                    DistributedProtocol.Message message = outbox.take();
+                    if (message == CLOSE) {
+                        out.flush();
+                        break;
+                    }
+                    message.write(out);
+                    if (outbox.isEmpty()) {
+                        out.flush();
+                    }
+                }
+            } catch (IOException e) {
+                // The reader sees the broken socket too, lost() runs once
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                closeQuietly(socket);
+            }
+        }
+
+        /**
+         * Queue one message, whatever the backlog.
+         */
+        void send(DistributedProtocol.Message message) {
+            outbox.add(message);
+        }
+
+        /**
+         * Queue a migrant unless the worker is already {@link #MIGRANT_BACKLOG} messages behind.
+         *
+         * @return Whether the migrant was queued
+         */
+        boolean offerMigrant(DistributedProtocol.Message message) {
+            synchronized (outbox) {
+                if (outbox.size() >= MIGRANT_BACKLOG) {
+                    return false;
+                }
+                outbox.add(message);
+                return true;
+            }
+        }
+
+        /**
+         * Close the connection once the messages already queued are written.
+         */
+        void close() {
+            outbox.add(CLOSE);
+        }
+
+        /**
+         * Close the connection now, dropping the messages still queued.
+         */
+        void abort() {
+            outbox.clear();
+            outbox.add(CLOSE);
+            closeQuietly(socket);
+        }
+
+        /**
+         * Wait up to {@code millis} for {@link #close} to finish, then {@link #abort}.
+         */
+        void awaitClosed(long millis) {
+            try {
+                writer.join(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive()) {
+                abort();
+            }
+        }
+    }
+}
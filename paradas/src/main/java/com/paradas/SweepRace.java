@@ -0,0 +1,244 @@
+package com.paradas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import com.paradas.utils.CustomAlgorithm;
+import com.paradas.utils.StoppingCondition;
+
+/**
+ * Racing of the runs of a weight sweep: a run is cut as soon as it is unlikely to end
+ * better than the best run of its combination, and part of the evaluations it leaves
+ * unspent pay for extra runs of the combinations whose runs disagree most.
+ * <p>
+ * Every run enters the race with an {@link Entrant}, a {@link StoppingCondition}
+ * checked before each of its generations. Runs that spend their whole budget leave
+ * their best-fitness curve behind; from them, the race learns how much the best
+ * fitness still grows from a given evaluation count to the end of a run, pooled
+ * over all combinations. A run is cut when its best fitness plus an upper bound on
+ * that gain does not exceed the best fitness already reached by another run of its
+ * combination, which never decreases. The bound is the smallest observed gain that
+ * is at least the {@code 1 - alpha} quantile of the gain with confidence
+ * {@code 1 - alpha}, a distribution-free order statistic, so a cut run has about a
+ * {@code 2 * alpha} chance of ending better. It takes {@code ln(alpha) / ln(1 - alpha)}
+ * complete runs observed at an evaluation count, 59 for an alpha of 0.05, before any
+ * run is cut there.
+ * <p>
+ * Cuts depend on how far the other runs have got, so a raced sweep is not
+ * reproducible from its seed, unlike a plain one.
+ */
+final class SweepRace {
+
+    private final int maxEvaluations;
+    private final int step;
+    private final double alpha;
+    private final double reallocation;
+
+    // Best fitness by evaluations / step, and final fitness, of every complete run
+    private final List<double[]> curves = new ArrayList<>();
+    private final List<Double> finals = new ArrayList<>();
+    private final Map<Integer, Combination> combinations = new HashMap<>();
+
+    private int entrants = 0;
+    private int cut = 0;
+    private long spent = 0;
+    private long freed = 0;
+    private long reallocated = 0;
+    private int extraRuns = 0;
+
+    /**
+     * @param maxEvaluations Evaluation budget of a run
+     * @param populationSize Evaluations per generation
+     * @param alpha          Accepted chance of cutting a run that would have ended best
+     * @param reallocation   Share of the evaluations freed by cuts spent on extra runs
+     */
+    SweepRace(int maxEvaluations, int populationSize, double alpha, double reallocation) {
+        if (alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("alpha must be between 0 and 1: " + alpha);
+        }
+        if (reallocation < 0 || reallocation > 1) {
+            throw new IllegalArgumentException("reallocation must be between 0 and 1: " + reallocation);
+        }
+        this.maxEvaluations = maxEvaluations;
+        this.step = populationSize;
+        this.alpha = alpha;
+        this.reallocation = reallocation;
+    }
+
+    /**
+     * @return A new run of {@code combination}, to be handed to {@link #finish} once over
+     */
+    synchronized Entrant enter(int combination) {
+        entrants++;
+        Entrant entrant = new Entrant(combinations.computeIfAbsent(combination, key -> new Combination()));
+        entrant.combination.live.add(entrant);
+        return entrant;
+    }
+
+    /**
+     * Count a run of {@code combination} that finished before the race started, e.g. in
+     * a resumed sweep, towards its leader.
+     */
+    synchronized void known(int combination, double fitness) {
+        combinations.computeIfAbsent(combination, key -> new Combination()).finished(fitness);
+    }
+
+    /**
+     * Take a run that is over out of the race and learn from its curve if it was complete.
+     */
+    synchronized void finish(Entrant entrant) {
+        Combination combination = entrant.combination;
+        combination.live.remove(entrant);
+        CustomAlgorithm<IntegerSolution> algorithm = entrant.algorithm;
+        if (algorithm == null || algorithm.getFitnessTracker().getGenerations() == 0) {
+            return;
+        }
+
+        double fitness = algorithm.getFitnessTracker().getBest();
+        int evaluations = algorithm.getEvaluations();
+        entrant.record(evaluations, fitness);
+        combination.finished(fitness);
+        spent += evaluations;
+        if (entrant.cut) {
+            cut++;
+            freed += Math.max(0, maxEvaluations - evaluations);
+        } else if (evaluations >= maxEvaluations) {
+            curves.add(entrant.curve);
+            finals.add(fitness);
+        }
+    }
+
+    /**
+     * Take the budget of one extra run from the freed evaluations, if they cover it.
+     */
+    synchronized boolean claimRun() {
+        if (reallocation * freed - reallocated < maxEvaluations) {
+            return false;
+        }
+        reallocated += maxEvaluations;
+        extraRuns++;
+        return true;
+    }
+
+    /**
+     * Upper confidence bound on the {@code 1 - alpha} quantile of the gain from step
+     * {@code k} to the end of a complete run, NaN while too few have been observed there.
+     */
+    private synchronized double gainBound(int k) {
+        double[] gains = new double[curves.size()];
+        int n = 0;
+        for (int i = 0; i < curves.size(); i++) {
+            double fitness = curves.get(i)[k];
+            if (!Double.isNaN(fitness)) {
+                gains[n++] = finals.get(i) - fitness;
+            }
+        }
+
+        // The r-th smallest gain falls below the quantile when at least r of the n gains
+        // do; walk r down from n while the binomial chance of that stays within alpha
+        double p = Math.pow(1 - alpha, n);
+        double tail = p;
+        if (n == 0 || tail > alpha) {
+            return Double.NaN;
+        }
+        int r = n;
+        while (r > 1) {
+            p *= r / (n - r + 1.0) * alpha / (1 - alpha);
+            if (tail + p > alpha) {
+                break;
+            }
+            tail += p;
+            r--;
+        }
+        Arrays.sort(gains, 0, n);
+        return gains[r - 1];
+    }
+
+    /**
+     * @return One-line summary of the race
+     */
+    synchronized String statistics() {
+        return String.format("Racing: %d of %d runs cut, %d evaluations spent, %d freed, %d of them on %d extra runs",
+                cut, entrants, spent, freed, reallocated, extraRuns);
+    }
+
+    /**
+     * Runs of one weight combination: the ones in flight and the best fitness of the finished ones.
+     */
+    private static final class Combination {
+        final List<Entrant> live = new ArrayList<>();
+        double finished = Double.NaN;
+
+        void finished(double fitness) {
+            finished = Double.isNaN(finished) ? fitness : Math.max(finished, fitness);
+        }
+
+        /**
+         * @return Best fitness of the runs other than {@code entrant}, which none of
+         *         them can end below, NaN if none has a fitness yet
+         */
+        double leader(Entrant entrant) {
+            double leader = finished;
+            for (Entrant other : live) {
+                double best = other.best;
+                if (other != entrant && !Double.isNaN(best)) {
+                    leader = Double.isNaN(leader) ? best : Math.max(leader, best);
+                }
+            }
+            return leader;
+        }
+    }
+
+    /**
+     * One run in the race, checked before each of its generations.
+     */
+    final class Entrant implements StoppingCondition<IntegerSolution> {
+        private final Combination combination;
+        private final double[] curve;
+        private volatile double best = Double.NaN;
+        private boolean cut = false;
+        private CustomAlgorithm<IntegerSolution> algorithm;
+
+        private Entrant(Combination combination) {
+            this.combination = combination;
+            this.curve = new double[maxEvaluations / step + 2];
+            Arrays.fill(curve, Double.NaN);
+        }
+
+        @Override
+        public boolean isMet(CustomAlgorithm<IntegerSolution> algorithm) {
+            this.algorithm = algorithm;
+            if (algorithm.getFitnessTracker().getGenerations() == 0) {
+                return false;
+            }
+            double fitness = algorithm.getFitnessTracker().getBest();
+            int k = record(algorithm.getEvaluations(), fitness);
+
+            double leader;
+            synchronized (SweepRace.this) {
+                leader = combination.leader(this);
+            }
+            if (Double.isNaN(leader)) {
+                return false;
+            }
+            double gain = gainBound(k);
+            cut = !Double.isNaN(gain) && fitness + gain <= leader;
+            return cut;
+        }
+
+        /**
+         * @return The step {@code evaluations} falls in
+         */
+        private int record(int evaluations, double fitness) {
+            int k = Math.min(evaluations / step, curve.length - 1);
+            curve[k] = fitness;
+            best = fitness;
+            return k;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.paradas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+import com.paradas.Abstraccion.CompiledODMatrix;
+import com.paradas.Main.ParetoResult;
+import com.paradas.Main.RunSettings;
+import com.paradas.Main.WeightCombination;
+import com.paradas.utils.JobRandomGenerator;
+import com.paradas.utils.RandomStream;
+
+/**
+ * Runs the (weight combination, run) jobs of a Pareto sweep concurrently on a
+ * bounded thread pool.
+ * <p>
+ * All jobs share one immutable {@link CompiledODMatrix}. Each job binds its own
+ * {@link RandomStream}, derived from the sweep seed and the job coordinates, so
+ * results do not depend on scheduling. The processors are split between the jobs
+ * running at once: with a single thread, jobs run one after another and evaluate
+ * their populations on all processors; with as many threads as processors, the
+ * parallelism comes from the jobs and each evaluates sequentially.
+ * <p>
+ * With a {@link CheckpointStore}, every finished run is persisted immediately,
+ * runs already persisted are skipped and in-flight runs resume from their last
+ * snapshot.
+ * <p>
+ * With a {@link SweepRace}, runs unlikely to beat the best of their combination are
+ * cut short. Once every combination is done, the evaluations the race lets it
+ * reallocate pay for one extra run of each of the combinations whose runs ended
+ * furthest apart, most spread first. Extra runs are not checkpointed.
+ */
+class SweepScheduler {
+
+    private final CompiledODMatrix odMatrix;
+    private final RunSettings settings;
+    private final int runsPerCombination;
+    private final int threads;
+    private final long seed;
+    private final CheckpointStore checkpoint;
+    private final int checkpointEvery;
+    private final SweepRace race;
+
+    /**
+     * @param checkpoint      Where finished runs and snapshots go, or null to keep everything in memory
+     * @param checkpointEvery Generations between snapshots of an in-flight run
+     * @param race            Cuts unpromising runs short, or null to run every one to the end
+     */
+    SweepScheduler(CompiledODMatrix odMatrix, RunSettings settings, int runsPerCombination, int threads, long seed,
+            CheckpointStore checkpoint, int checkpointEvery, SweepRace race) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.odMatrix = odMatrix;
+        this.settings = settings;
+        this.runsPerCombination = runsPerCombination;
+        this.threads = threads;
+        this.seed = seed;
+        this.checkpoint = checkpoint;
+        this.checkpointEvery = checkpointEvery;
+        this.race = race;
+    }
+
+    /**
+     * Run every job and keep the best run of each combination.
+     *
+     * @return One result per weight combination, in the order of {@code weightCombinations}
+     */
+    List<ParetoResult> run(List<WeightCombination> weightCombinations) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "sweep-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<List<Future<ParetoResult>>> jobs = new ArrayList<>(weightCombinations.size());
+            for (int c = 0; c < weightCombinations.size(); c++) {
+                List<Future<ParetoResult>> runs = new ArrayList<>(runsPerCombination);
+                for (int run = 0; run < runsPerCombination; run++) {
+                    int combination = c;
+                    int currentRun = run;
+                    WeightCombination weights = weightCombinations.get(c);
+                    runs.add(executor.submit(() -> runJob(combination, currentRun, weights,
+                            weightCombinations.size())));
+                }
+                jobs.add(runs);
+            }
+
+            List<ParetoResult> paretoResults = new ArrayList<>(weightCombinations.size());
+            // Spread between the best and worst run of every combination, for the extra runs
+            double[] spreads = new double[jobs.size()];
+            for (int c = 0; c < jobs.size(); c++) {
+                // Store best result across all runs for this weight combination
+                ParetoResult bestResult = null;
+                double bestFitness = Double.NEGATIVE_INFINITY;
+                double worstFitness = Double.POSITIVE_INFINITY;
+
+                for (Future<ParetoResult> run : jobs.get(c)) {
+                    ParetoResult result = await(run);
+                    worstFitness = Math.min(worstFitness, result.fitness);
+                    if (result.fitness > bestFitness) {
+                        bestFitness = result.fitness;
+                        bestResult = result;
+                    }
+                }
+                spreads[c] = bestFitness - worstFitness;
+
+                paretoResults.add(bestResult);
+                if (bestResult != null) {
+                    printBest(c, jobs.size(), bestResult);
+                }
+            }
+
+            if (race != null) {
+                runExtra(executor, weightCombinations, spreads, paretoResults);
+                System.out.println(race.statistics());
+            }
+            paretoResults.removeIf(result -> result == null);
+            return paretoResults;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Give one extra run to each combination, by decreasing spread between its runs,
+     * while the race has evaluations to reallocate, and keep the better results.
+     */
+    private void runExtra(ExecutorService executor, List<WeightCombination> weightCombinations, double[] spreads,
+            List<ParetoResult> paretoResults) {
+        List<Integer> order = new ArrayList<>();
+        for (int c = 0; c < spreads.length; c++) {
+            if (spreads[c] > 0) {
+                order.add(c);
+            }
+        }
+        order.sort((a, b) -> Double.compare(spreads[b], spreads[a]));
+
+        List<Integer> extra = new ArrayList<>();
+        List<Future<ParetoResult>> runs = new ArrayList<>();
+        for (int c : order) {
+            if (!race.claimRun()) {
+                break;
+            }
+            WeightCombination weights = weightCombinations.get(c);
+            extra.add(c);
+            runs.add(executor.submit(() -> runJob(c, runsPerCombination, weights, weightCombinations.size())));
+        }
+
+        for (int i = 0; i < runs.size(); i++) {
+            int c = extra.get(i);
+            ParetoResult result = await(runs.get(i));
+            ParetoResult best = paretoResults.get(c);
+            if (best == null || result.fitness > best.fitness) {
+                paretoResults.set(c, result);
+                System.out.print("Extra run improved ");
+                printBest(c, weightCombinations.size(), result);
+            }
+        }
+    }
+
+    private static void printBest(int combination, int combinations, ParetoResult best) {
+        System.out.println(String.format(
+                "[%d/%d] %s -> Best result: Coverage=%.2f, Stops=%.2f, Cost=%.2f, Fitness=%.6f",
+                combination + 1, combinations, best.weights, best.coverage, best.numStops, best.cost, best.fitness));
+    }
+
+    /**
+     * @param run Index of the run within its combination; from {@code runsPerCombination} on, an extra run
+     */
+    private ParetoResult runJob(int combination, int run, WeightCombination weights, int combinations) {
+        boolean extra = run >= runsPerCombination;
+        if (checkpoint != null && !extra) {
+            ParetoResult done = checkpoint.completedResult(combination, run, weights);
+            if (done != null) {
+                if (race != null) {
+                    race.known(combination, done.fitness);
+                }
+                return done;
+            }
+        }
+
+        String label = extra ? String.format("Extra run %d", run - runsPerCombination + 1)
+                : String.format("Run %d/%d", run + 1, runsPerCombination);
+        System.out.println(String.format("[%d/%d] %s with weights: %s", combination + 1, combinations, label,
+                weights));
+
+        int evaluationThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / threads);
+        SolutionListEvaluator<IntegerSolution> evaluator = Main.createEvaluator(evaluationThreads, settings);
+
+        SweepRace.Entrant entrant = race != null ? race.enter(combination) : null;
+        JobRandomGenerator.bind(RandomStream.forJob(seed, combination, run));
+        try {
+            JobCheckpoint jobCheckpoint = checkpoint == null || extra ? null
+                    : new JobCheckpoint(checkpoint, combination, run, checkpointEvery);
+            ParetoResult result = Main.runOnce(odMatrix, weights, settings, evaluator, jobCheckpoint, entrant);
+            for (String line : Main.evaluatorStatistics(evaluator)) {
+                System.out.println(String.format("[%d/%d] %s %s", combination + 1, combinations, label, line));
+            }
+            if (checkpoint != null && !extra) {
+                checkpoint.appendResult(combination, run, result);
+            }
+            return result;
+        } finally {
+            if (entrant != null) {
+                race.finish(entrant);
+            }
+            JobRandomGenerator.unbind();
+            evaluator.shutdown();
+        }
+    }
+
+    private static ParetoResult await(Future<ParetoResult> job) {
+        try {
+            return job.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a sweep job", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sweep job failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.paradas;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import com.paradas.Abstraccion.CompiledODMatrix;
+import com.paradas.IslandModel.Island;
+import com.paradas.Main.ParetoResult;
+import com.paradas.Main.RunSettings;
+import com.paradas.Main.WeightCombination;
+import com.paradas.utils.JobRandomGenerator;
+
+/**
+ * Process that runs islands for a {@link SweepCoordinator}: loads the OD matrix,
+ * connects, and runs up to {@code slots} islands at once, each on its own thread.
+ * Migrants go to the coordinator, which relays them, and arrivals for an island
+ * this worker runs are queued in its inbox. The worker exits when the coordinator
+ * says so or its connection drops.
+ * <p>
+ * Arguments:
+ * <ul>
+ * <li>{@code --coordinator HOST:PORT}: where the coordinator listens (default: localhost:7170)</li>
+ * <li>{@code --slots N}: islands run at once (default: available processors)</li>
+ * <li>{@code --matrix FILE}, {@code --instance FILE}: where to load the OD matrix from, as in
+ * {@link Main}; every worker of a sweep must load the same one</li>
+ * </ul>
+ * The algorithm settings, the kernel included, come with every task from the
+ * coordinator; none of this worker's defaults apply.
+ */
+public class SweepWorker {
+
+    private final CompiledODMatrix odMatrix;
+    private final int slots;
+
+    private final Map<Integer, Island> running = new ConcurrentHashMap<>();
+    private DataOutputStream out;
+    private Socket socket;
+
+    SweepWorker(CompiledODMatrix odMatrix, int slots) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("slots must be positive: " + slots);
+        }
+        this.odMatrix = odMatrix;
+        this.slots = slots;
+    }
+
+    public static void main(String[] args) {
+        String host = "localhost";
+        int port = DistributedProtocol.DEFAULT_PORT;
+        int slots = Runtime.getRuntime().availableProcessors();
+        Path matrixFile = null;
+        Path instanceFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--coordinator":
+                    String address = args[++i];
+                    int colon = address.lastIndexOf(':');
+                    host = colon < 0 ? address : address.substring(0, colon);
+                    port = colon < 0 ? port : Integer.parseInt(address.substring(colon + 1));
+                    break;
+                case "--slots":
+                    slots = Integer.parseInt(args[++i]);
+                    break;
+                case "--matrix":
+                    matrixFile = Paths.get(args[++i]);
+                    break;
+                case "--instance":
+                    instanceFile = Paths.get(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        CompiledODMatrix odMatrix = Main.loadMatrix(instanceFile, matrixFile);
+        // Every island binds the stream of its seed, the fallback only serves other threads
+        JobRandomGenerator.install(System.currentTimeMillis());
+
+        boolean finished = new SweepWorker(odMatrix, slots).run(host, port);
+        // Island threads may still be running after a lost connection
+        System.exit(finished ? 0 : 1);
+    }
+
+    /**
+     * Serve the coordinator at {@code host:port} until it shuts the worker down.
+     *
+     * @return Whether the coordinator shut the worker down, rather than the connection dropping
+     */
+    boolean run(String host, int port) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(slots, runnable -> {
+            Thread thread = new Thread(runnable, "worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "worker-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            send(out -> {
+                out.writeByte(DistributedProtocol.HELLO);
+                out.writeInt(DistributedProtocol.MAGIC);
+                out.writeInt(DistributedProtocol.VERSION);
+                out.writeInt(slots);
+                out.writeInt(odMatrix.numberOfSegments());
+                out.writeLong(DistributedProtocol.fingerprint(odMatrix));
+            });
+            System.out.println(String.format("Connected to %s:%d with %d slots", host, port, slots));
+            heartbeat.scheduleAtFixedRate(() -> send(out -> out.writeByte(DistributedProtocol.HEARTBEAT)),
+                    DistributedProtocol.HEARTBEAT_MILLIS, DistributedProtocol.HEARTBEAT_MILLIS,
+                    TimeUnit.MILLISECONDS);
+
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case DistributedProtocol.TASK:
+                        start(in, executor);
+                        break;
+                    case DistributedProtocol.MIGRANT:
+                        int task = in.readInt();
+                        in.readInt(); // Target island, the task's own
+                        int[] genes = DistributedProtocol.readGenome(in);
+                        Island island = running.get(task);
+                        if (island != null) {
+                            island.inbox.offer(genes);
+                        }
+                        break;
+                    case DistributedProtocol.SHUTDOWN:
+                        String reason = in.readUTF();
+                        if (!reason.isEmpty()) {
+                            System.err.println("Coordinator refused this worker: " + reason);
+                            return false;
+                        }
+                        System.out.println("Sweep finished, shutting down");
+                        return true;
+                    default:
+                        throw new IllegalStateException("Unexpected message type " + type);
+                }
+            }
+        } catch (EOFException e) {
+            System.err.println("Coordinator closed the connection");
+            return false;
+        } catch (IOException e) {
+            System.err.println("Lost the coordinator at " + host + ":" + port + ": " + e.getMessage());
+            return false;
+        } finally {
+            heartbeat.shutdownNow();
+            executor.shutdownNow();
+            closeSocket();
+        }
+    }
+
+    /**
+     * Read a task and run its island on the pool.
+     */
+    private void start(DataInputStream in, ExecutorService executor) throws IOException {
+        int task = in.readInt();
+        int combination = in.readInt();
+        int run = in.readInt();
+        int index = in.readInt();
+        int islands = in.readInt();
+        WeightCombination weights = new WeightCombination(in.readDouble(), in.readDouble(), in.readDouble());
+        long seed = in.readLong();
+
+        RunSettings islandSettings = DistributedProtocol.readSettings(in);
+
+        Island island = new Island(index, islands, islandSettings,
+                () -> Main.createProblem(odMatrix, weights, islandSettings), seed,
+                (genes, target) -> send(out -> {
+                    out.writeByte(DistributedProtocol.MIGRANT);
+                    out.writeInt(task);
+                    out.writeInt(target);
+                    DistributedProtocol.writeGenome(out, genes);
+                }));
+        running.put(task, island);
+
+        System.out.println(String.format("Combination %d run %d island %d/%d with weights: %s",
+                combination + 1, run + 1, index + 1, islands, weights));
+        executor.execute(() -> {
+            try {
+                List<IntegerSolution> population = island.run();
+                ParetoResult result = Main.bestResult(island.problem(), weights, population);
+                send(out -> {
+                    out.writeByte(DistributedProtocol.RESULT);
+                    out.writeInt(task);
+                    out.writeDouble(result.coverage);
+                    out.writeDouble(result.numStops);
+                    out.writeDouble(result.cost);
+                    out.writeDouble(result.fitness);
+                });
+                System.out.println(String.format("Combination %d run %d island %d/%d done: Fitness=%.6f",
+                        combination + 1, run + 1, index + 1, islands, result.fitness));
+            } catch (RuntimeException e) {
+                // Dropping the connection makes the coordinator give the task to another worker
+                System.err.println("Island failed: " + e);
+                e.printStackTrace();
+                closeSocket();
+            } finally {
+                running.remove(task);
+            }
+        });
+    }
+
+    /**
+     * Write one message. A failed write closes the socket, which ends the read loop.
+     */
+    private void send(DistributedProtocol.Message message) {
+        try {
+            synchronized (out) {
+                message.write(out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            closeSocket();
+        }
+    }
+
+    private void closeSocket() {
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.paradas.utils;
+
+import java.util.List;
+
+/**
+ * Problems that can score several solutions together faster than one at a time.
+ * <p>
+ * {@link BatchEvaluator} hands them a whole population, or a block of it per thread,
+ * instead of calling {@code evaluate} for every solution.
+ *
+ * @param <S> Solution type
+ */
+public interface BatchEvaluationProblem<S> {
+
+    /**
+     * Evaluate every solution of {@code solutions}, with the same result as calling
+     * {@code evaluate} on each. Must be thread-safe for disjoint lists.
+     */
+    void evaluateAll(List<S> solutions);
+}
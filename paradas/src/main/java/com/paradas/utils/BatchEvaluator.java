@@ -0,0 +1,174 @@
+package com.paradas.utils;
+
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.solution.Solution;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluator for {@link BatchEvaluationProblem}s: hands the population to
+ * {@link BatchEvaluationProblem#evaluateAll} in a few large blocks instead of
+ * evaluating solution by solution.
+ * <p>
+ * With one thread the whole population is a single block. With more, it is cut into
+ * one contiguous block per thread, but never below {@code minBlockSize} solutions so
+ * each block still amortizes its pass over the problem data; the blocks run on the
+ * evaluator's own pool, released by {@link #shutdown()}. Problems that cannot
+ * evaluate in batches are evaluated one solution at a time.
+ * <p>
+ * Every batch is timed; see {@link #statistics()}.
+ *
+ * @param <S> Solution type
+ */
+public class BatchEvaluator<S extends Solution<?>> implements SolutionListEvaluator<S> {
+
+    private final ForkJoinPool pool;
+    private final int threads;
+    private final int minBlockSize;
+
+    // Batch metrics
+    private long batches = 0;
+    private long blocks = 0;
+    private long solutions = 0;
+    private long totalNanos = 0;
+    private long maxBatchNanos = 0;
+
+    public BatchEvaluator(int threads) {
+        this(threads, 64);
+    }
+
+    /**
+     * @param threads      Blocks evaluated at once
+     * @param minBlockSize Smallest block a population is cut into
+     */
+    public BatchEvaluator(int threads, int minBlockSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        if (minBlockSize < 1) {
+            throw new IllegalArgumentException("minBlockSize must be positive: " + minBlockSize);
+        }
+        this.threads = threads;
+        this.minBlockSize = minBlockSize;
+        this.pool = threads == 1 ? null : new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("batch-evaluator-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @Override
+    public List<S> evaluate(List<S> population, Problem<S> problem) {
+        long start = System.nanoTime();
+
+        int size = population.size();
+        int count = Math.max(1, Math.min(threads, size / minBlockSize));
+        if (count == 1) {
+            evaluateBlock(population, problem);
+        } else {
+            pool.invoke(new BlockTask<>(population, problem, 0, count, count));
+        }
+
+        long elapsed = System.nanoTime() - start;
+        batches++;
+        blocks += count;
+        solutions += size;
+        totalNanos += elapsed;
+        maxBatchNanos = Math.max(maxBatchNanos, elapsed);
+
+        return population;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S> void evaluateBlock(List<S> block, Problem<S> problem) {
+        if (problem instanceof BatchEvaluationProblem<?> batchProblem) {
+            ((BatchEvaluationProblem<S>) batchProblem).evaluateAll(block);
+            return;
+        }
+        for (int i = 0; i < block.size(); i++) {
+            problem.evaluate(block.get(i));
+        }
+    }
+
+    /**
+     * Release the pool's threads. The evaluator cannot be used afterwards.
+     */
+    @Override
+    public void shutdown() {
+        if (pool == null) {
+            return;
+        }
+        pool.shutdown();
+        try {
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getSolutions() {
+        return solutions;
+    }
+
+    /**
+     * @return Wall-clock time spent evaluating, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return One-line summary of the batch metrics
+     */
+    public String statistics() {
+        return String.format("Batch evaluator: %d threads, %d batches in %d blocks, %d solutions, "
+                + "%.2f ms/batch (max %.2f), %.0f solutions/s",
+                threads, batches, blocks, solutions,
+                batches == 0 ? 0.0 : totalNanos / 1e6 / batches, maxBatchNanos / 1e6,
+                totalNanos == 0 ? 0.0 : solutions * 1e9 / totalNanos);
+    }
+
+    /**
+     * Evaluates blocks {@code [from, to)} of the population cut into {@code count}
+     * blocks, forking halves until a single block is left.
+     */
+    @SuppressWarnings("serial")
+    private static final class BlockTask<S> extends RecursiveAction {
+        private final List<S> population;
+        private final Problem<S> problem;
+        private final int from;
+        private final int to;
+        private final int count;
+
+        BlockTask(List<S> population, Problem<S> problem, int from, int to, int count) {
+            this.population = population;
+            this.problem = problem;
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int size = population.size();
+                evaluateBlock(population.subList((int) ((long) from * size / count),
+                        (int) ((long) to * size / count)), problem);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BlockTask<>(population, problem, from, mid, count),
+                    new BlockTask<>(population, problem, mid, to, count));
+        }
+    }
+}
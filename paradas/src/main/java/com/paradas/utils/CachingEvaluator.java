@@ -0,0 +1,250 @@
+package com.paradas.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.solution.Solution;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+/**
+ * {@link SolutionListEvaluator} decorator that never scores the same genome twice.
+ * <p>
+ * Once the population converges, tournament selection and a low mutation rate keep
+ * producing offspring identical to solutions already evaluated. Every evaluated
+ * genome is remembered, with its objectives and the given attributes, in a bounded
+ * LRU map; offspring found there get the stored values instead of being evaluated,
+ * and identical offspring within one batch are evaluated once. Only the remaining
+ * solutions reach the wrapped evaluator.
+ * <p>
+ * Genomes are stored packed with as many bits per gene as the largest value needs
+ * (two for the 0-3 stop levels) and compared in full, so a hash collision never
+ * returns the wrong objectives. Not thread-safe: one instance per run.
+ *
+ * @param <S> Solution type
+ */
+public class CachingEvaluator<S extends Solution<Integer>> implements SolutionListEvaluator<S> {
+
+    private final SolutionListEvaluator<S> evaluator;
+    private final Object[] attributeKeys;
+    private final LinkedHashMap<Genome, Entry> cache;
+
+    private final List<S> misses = new ArrayList<>();
+    private final List<Genome> missGenomes = new ArrayList<>();
+    private final List<S> duplicates = new ArrayList<>();
+    private final List<Integer> duplicateOf = new ArrayList<>();
+    private final Map<Genome, Integer> batch = new HashMap<>();
+
+    private long hits = 0;
+    private long batchDuplicates = 0;
+    private long evaluations = 0;
+
+    /**
+     * @param evaluator     Evaluator for the genomes not in the cache
+     * @param capacity      Maximum number of genomes remembered
+     * @param attributeKeys Solution attributes set by the evaluation that must be restored on a hit
+     */
+    public CachingEvaluator(SolutionListEvaluator<S> evaluator, int capacity, Object... attributeKeys) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.evaluator = evaluator;
+        this.attributeKeys = attributeKeys;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Genome, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public List<S> evaluate(List<S> population, Problem<S> problem) {
+        misses.clear();
+        missGenomes.clear();
+        duplicates.clear();
+        duplicateOf.clear();
+        batch.clear();
+
+        for (S solution : population) {
+            Genome genome = Genome.of(solution.variables());
+            Entry entry = cache.get(genome);
+            if (entry != null) {
+                entry.applyTo(solution, attributeKeys);
+                hits++;
+                continue;
+            }
+
+            Integer first = batch.putIfAbsent(genome, misses.size());
+            if (first != null) {
+                duplicates.add(solution);
+                duplicateOf.add(first);
+            } else {
+                misses.add(solution);
+                missGenomes.add(genome);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            evaluator.evaluate(misses, problem);
+            evaluations += misses.size();
+        }
+
+        for (int i = 0; i < duplicates.size(); i++) {
+            // From the evaluated twin, which may not be in the cache if the batch exceeds its capacity
+            Entry.of(misses.get(duplicateOf.get(i)), attributeKeys).applyTo(duplicates.get(i), attributeKeys);
+        }
+        for (int i = 0; i < misses.size(); i++) {
+            cache.put(missGenomes.get(i), Entry.of(misses.get(i), attributeKeys));
+        }
+        batchDuplicates += duplicates.size();
+
+        return population;
+    }
+
+    @Override
+    public void shutdown() {
+        evaluator.shutdown();
+    }
+
+    /**
+     * @return The wrapped evaluator
+     */
+    public SolutionListEvaluator<S> getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * @return Solutions that took their objectives from an earlier batch
+     */
+    public long hits() {
+        return hits;
+    }
+
+    /**
+     * @return Solutions that took their objectives from an identical one in the same batch
+     */
+    public long batchDuplicates() {
+        return batchDuplicates;
+    }
+
+    /**
+     * @return Solutions actually evaluated
+     */
+    public long misses() {
+        return evaluations;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return One-line summary of the counters
+     */
+    public String statistics() {
+        long total = hits + batchDuplicates + evaluations;
+        return String.format("Evaluation cache: %d hits, %d batch duplicates, %d evaluated (%.1f%% saved), %d genomes",
+                hits, batchDuplicates, evaluations, total == 0 ? 0.0 : 100.0 * (hits + batchDuplicates) / total,
+                cache.size());
+    }
+
+    /**
+     * Packed copy of a genome.
+     */
+    private static final class Genome {
+        private final int bitsPerGene;
+        private final int length;
+        private final long[] words;
+        private final int hash;
+
+        private Genome(int bitsPerGene, int length, long[] words) {
+            this.bitsPerGene = bitsPerGene;
+            this.length = length;
+            this.words = words;
+
+            long h = 0x9E3779B97F4A7C15L * (length + 1);
+            for (long word : words) {
+                h = (h ^ word) * 0xBF58476D1CE4E5B9L;
+                h ^= h >>> 31;
+            }
+            this.hash = (int) (h ^ (h >>> 32));
+        }
+
+        static Genome of(List<Integer> variables) {
+            int length = variables.size();
+            int max = 0;
+            for (int v = 0; v < length; v++) {
+                int value = variables.get(v);
+                max = value < 0 ? -1 : Math.max(max, value);
+                if (max < 0) {
+                    break;
+                }
+            }
+
+            // Negative values take the whole int
+            int bitsPerGene = max < 0 ? 32 : Math.max(1, 32 - Integer.numberOfLeadingZeros(max));
+            int genesPerWord = 64 / bitsPerGene;
+            long mask = bitsPerGene == 32 ? 0xFFFFFFFFL : (1L << bitsPerGene) - 1;
+
+            long[] words = new long[(length + genesPerWord - 1) / genesPerWord];
+            for (int v = 0; v < length; v++) {
+                words[v / genesPerWord] |= (variables.get(v) & mask) << (bitsPerGene * (v % genesPerWord));
+            }
+            return new Genome(bitsPerGene, length, words);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Genome genome)) {
+                return false;
+            }
+            return hash == genome.hash && bitsPerGene == genome.bitsPerGene && length == genome.length
+                    && Arrays.equals(words, genome.words);
+        }
+    }
+
+    /**
+     * Objectives and attribute values of an evaluated genome. Array values are copied
+     * when stored and shared, read-only, between the solutions they are restored to.
+     */
+    private static final class Entry {
+        private final double[] objectives;
+        private final Object[] attributes;
+
+        private Entry(double[] objectives, Object[] attributes) {
+            this.objectives = objectives;
+            this.attributes = attributes;
+        }
+
+        static Entry of(Solution<?> solution, Object[] attributeKeys) {
+            Object[] attributes = new Object[attributeKeys.length];
+            for (int i = 0; i < attributeKeys.length; i++) {
+                Object value = solution.attributes().get(attributeKeys[i]);
+                // Pooled solutions overwrite their arrays when recycled
+                attributes[i] = value instanceof double[] array ? array.clone() : value;
+            }
+            return new Entry(solution.objectives().clone(), attributes);
+        }
+
+        void applyTo(Solution<?> solution, Object[] attributeKeys) {
+            System.arraycopy(objectives, 0, solution.objectives(), 0, objectives.length);
+            for (int i = 0; i < attributeKeys.length; i++) {
+                if (attributes[i] == null) {
+                    solution.attributes().remove(attributeKeys[i]);
+                } else {
+                    solution.attributes().put(attributeKeys[i], attributes[i]);
+                }
+            }
+        }
+    }
+}
@@ -27,11 +27,44 @@ public class CustomAlgorithm<S extends Solution<?>> extends AbstractGeneticAlgor
   protected int evaluations;
   protected Comparator<S> dominanceComparator;
 
-  final private FitnessTracker tracker = new FitnessTracker<>();
+  final private FitnessTracker<S> tracker = new FitnessTracker<>();
+
+  // Checked along with the evaluation budget when set, see setStoppingCondition()
+  private StoppingCondition<S> stoppingCondition;
+  private long startNanos;
+
+  // Phase timings and per-generation metrics, see setTelemetry()
+  private GenerationTelemetry telemetry = new GenerationTelemetry("", 256);
 
   protected int matingPoolSize;
   protected int offspringPopulationSize;
 
+  // Replaces RankingAndCrowdingSelection in replacement() when set
+  private NonDominatedSorting nonDominatedSorting;
+
+  private final List<GenerationListener<S>> generationListeners = new ArrayList<>();
+
+  // Pooled mode: discarded solutions go back to the pool and the generation lists are reused
+  private SolutionPool<S> solutionPool;
+  private final List<S> matingPoolBuffer = new ArrayList<>();
+  private final List<S> parentsBuffer = new ArrayList<>();
+  private final List<S> offspringBuffer = new ArrayList<>();
+  private final List<S> jointBuffer = new ArrayList<>();
+  private final List<S> rejectedBuffer = new ArrayList<>();
+  private final List<S> populationBufferA = new ArrayList<>();
+  private final List<S> populationBufferB = new ArrayList<>();
+
+  // Builds the first population instead of createSolution() calls when set
+  private PopulationInitializer<S> populationInitializer;
+
+  // Offered every evaluated solution when set, see setArchive()
+  private ParetoArchive archive;
+  private ParetoArchive.PointReader<S> archivePoint;
+
+  // Population and evaluation counter to resume from, see restore()
+  private List<S> restoredPopulation;
+  private int restoredEvaluations;
+
   /**
    * Constructor
    */
@@ -67,29 +100,79 @@ public class CustomAlgorithm<S extends Solution<?>> extends AbstractGeneticAlgor
     this.offspringPopulationSize = offspringPopulationSize;
   }
 
+  @Override
+  protected List<S> createInitialPopulation() {
+    if (restoredPopulation != null) {
+      return new ArrayList<>(restoredPopulation);
+    }
+    if (populationInitializer != null) {
+      return populationInitializer.createInitialPopulation(getMaxPopulationSize());
+    }
+    return super.createInitialPopulation();
+  }
+
   @Override
   protected void initProgress() {
-    evaluations = getMaxPopulationSize();
+    if (restoredPopulation != null) {
+      evaluations = restoredEvaluations;
+      // Ranking and crowding attributes are not part of a snapshot, recompute them for the selection
+      setPopulation(replacement(getPopulation(), new ArrayList<>()));
+      restoredPopulation = null;
+    } else {
+      evaluations = getMaxPopulationSize();
+    }
+    telemetry.start(evaluations, cacheHits(), cacheLookups());
   }
 
   @Override
   protected void updateProgress() {
-    tracker.update(result());
+    // The best first objective of the population is always a non-dominated one, no need for result()
+    double hypervolume = archive != null ? archive.hypervolume() : Double.NaN;
+    tracker.update(getPopulation(), hypervolume);
     evaluations += offspringPopulationSize;
+    telemetry.record(evaluations, tracker.getBest(), tracker.getMean(), hypervolume, cacheHits(), cacheLookups());
+
+    for (GenerationListener<S> listener : generationListeners) {
+      listener.onGeneration(this);
+    }
   }
 
   @Override
   protected boolean isStoppingConditionReached() {
-    return evaluations >= maxEvaluations;
+    return evaluations >= maxEvaluations || (stoppingCondition != null && stoppingCondition.isMet(this));
+  }
+
+  @Override
+  public void run() {
+    startNanos = System.nanoTime();
+    try {
+      super.run();
+    } finally {
+      telemetry.finish();
+    }
   }
 
   @Override
   protected List<S> evaluatePopulation(List<S> population) {
+    long start = System.nanoTime();
     population = evaluator.evaluate(population, getProblem());
+    if (archive != null) {
+      archive.addAll(population, archivePoint);
+    }
+    telemetry.time(GenerationTelemetry.EVALUATION, start);
 
     return population;
   }
 
+  private long cacheHits() {
+    return evaluator instanceof CachingEvaluator<?> cache ? cache.hits() + cache.batchDuplicates() : 0;
+  }
+
+  private long cacheLookups() {
+    return evaluator instanceof CachingEvaluator<?> cache ? cache.hits() + cache.batchDuplicates() + cache.misses()
+        : 0;
+  }
+
   /**
    * This method iteratively applies a {@link SelectionOperator} to the population to fill the
    * mating pool population.
@@ -99,11 +182,13 @@ public class CustomAlgorithm<S extends Solution<?>> extends AbstractGeneticAlgor
    */
   @Override
   protected List<S> selection(List<S> population) {
-    List<S> matingPopulation = new ArrayList<>(population.size());
+    long start = System.nanoTime();
+    List<S> matingPopulation = solutionPool != null ? reset(matingPoolBuffer) : new ArrayList<>(population.size());
     for (int i = 0; i < matingPoolSize; i++) {
       S solution = selectionOperator.execute(population);
       matingPopulation.add(solution);
     }
+    telemetry.time(GenerationTelemetry.SELECTION, start);
 
     return matingPopulation;
   }
@@ -116,42 +201,79 @@ public class CustomAlgorithm<S extends Solution<?>> extends AbstractGeneticAlgor
    * <p>
    * The number of solutions returned by the {@link CrossoverOperator} must be equal to the
    * offspringPopulationSize state variable
+   * <p>
+   * If the problem is a {@link DeltaEvaluationProblem}, every child is paired with its parent
+   * so it can be evaluated incrementally.
    *
    * @param matingPool
    * @return The new created offspring population
    */
   @Override
   protected List<S> reproduction(List<S> matingPool) {
+    long start = System.nanoTime();
     int numberOfParents = crossoverOperator.numberOfRequiredParents();
 
     checkNumberOfParents(matingPool, numberOfParents);
 
-    List<S> offspringPopulation = new ArrayList<>(offspringPopulationSize);
+    @SuppressWarnings("unchecked")
+    DeltaEvaluationProblem<S> deltaProblem = getProblem() instanceof DeltaEvaluationProblem
+        ? (DeltaEvaluationProblem<S>) getProblem()
+        : null;
+
+    List<S> offspringPopulation = solutionPool != null ? reset(offspringBuffer)
+        : new ArrayList<>(offspringPopulationSize);
     for (int i = 0; i < matingPool.size(); i += numberOfParents) {
-      List<S> parents = new ArrayList<>(numberOfParents);
+      List<S> parents = solutionPool != null ? reset(parentsBuffer) : new ArrayList<>(numberOfParents);
       for (int j = 0; j < numberOfParents; j++) {
         parents.add(matingPool.get(i + j));
       }
 
       List<S> offspring = crossoverOperator.execute(parents);
 
-      for (S s : offspring) {
+      for (int k = 0; k < offspring.size(); k++) {
+        S s = offspring.get(k);
         mutationOperator.execute(s);
+        if (deltaProblem != null) {
+          // Child k of the crossover keeps the genes of parent k outside the exchanged segment
+          deltaProblem.recordParent(parents.get(k % numberOfParents), s);
+        }
         offspringPopulation.add(s);
         if (offspringPopulation.size() >= offspringPopulationSize) {
+          if (solutionPool != null) {
+            // Children beyond the offspring size are never used
+            for (int extra = k + 1; extra < offspring.size(); extra++) {
+              solutionPool.release(offspring.get(extra));
+            }
+          }
           break;
         }
       }
     }
+    telemetry.time(GenerationTelemetry.REPRODUCTION, start);
     return offspringPopulation;
   }
 
   @Override
   protected List<S> replacement(List<S> population, List<S> offspringPopulation) {
+    long start = System.nanoTime();
+    List<S> survivors = replace(population, offspringPopulation);
+    telemetry.time(GenerationTelemetry.REPLACEMENT, start);
+    return survivors;
+  }
+
+  private List<S> replace(List<S> population, List<S> offspringPopulation) {
+    if (solutionPool != null) {
+      return pooledReplacement(population, offspringPopulation);
+    }
+
     List<S> jointPopulation = new ArrayList<>();
     jointPopulation.addAll(population);
     jointPopulation.addAll(offspringPopulation);
 
+    if (nonDominatedSorting != null) {
+      return nonDominatedSorting.select(jointPopulation, getMaxPopulationSize());
+    }
+
     RankingAndCrowdingSelection<S> rankingAndCrowdingSelection;
     rankingAndCrowdingSelection = new RankingAndCrowdingSelection<S>(getMaxPopulationSize(),
         dominanceComparator);
@@ -159,6 +281,33 @@ public class CustomAlgorithm<S extends Solution<?>> extends AbstractGeneticAlgor
     return rankingAndCrowdingSelection.execute(jointPopulation);
   }
 
+  /**
+   * Replacement that writes the survivors into whichever population buffer is not the
+   * current population and releases the rest to the pool.
+   */
+  private List<S> pooledReplacement(List<S> population, List<S> offspringPopulation) {
+    List<S> jointPopulation = reset(jointBuffer);
+    jointPopulation.addAll(population);
+    jointPopulation.addAll(offspringPopulation);
+
+    List<S> survivors = reset(population == populationBufferA ? populationBufferB : populationBufferA);
+    List<S> rejected = reset(rejectedBuffer);
+    nonDominatedSorting.select(jointPopulation, getMaxPopulationSize(), survivors, rejected);
+
+    for (S solution : rejected) {
+      solutionPool.release(solution);
+    }
+    jointPopulation.clear();
+    rejected.clear();
+
+    return survivors;
+  }
+
+  private static <T> List<T> reset(List<T> buffer) {
+    buffer.clear();
+    return buffer;
+  }
+
   @Override
   public List<S> result() {
     return SolutionListUtils.getNonDominatedSolutions(getPopulation());
@@ -174,7 +323,155 @@ public class CustomAlgorithm<S extends Solution<?>> extends AbstractGeneticAlgor
     return "Nondominated Sorting Genetic Algorithm version II";
   }
 
+  /**
+   * Rank the joint population with {@link NonDominatedSorting} instead of jMetal's
+   * {@link RankingAndCrowdingSelection}. It uses plain Pareto dominance over the
+   * objectives, so the dominance comparator is ignored, and the selection operator
+   * must read its attributes (see {@link RankAndCrowdingComparator}).
+   */
+  public void setNonDominatedSorting(NonDominatedSorting nonDominatedSorting) {
+    this.nonDominatedSorting = nonDominatedSorting;
+  }
+
+  /**
+   * Recycle the solutions discarded by the replacement into {@code solutionPool} and
+   * reuse the generation lists instead of allocating them. Requires
+   * {@link #setNonDominatedSorting}, and every solution the algorithm sees (the
+   * problem's {@code createSolution()} and the copies made by the operators) must come
+   * from the pool. Lists returned by {@link #getPopulation()} are only valid until the
+   * next generation; {@link #result()} returns a fresh list.
+   */
+  public void setSolutionPool(SolutionPool<S> solutionPool) {
+    this.solutionPool = solutionPool;
+  }
+
+  /**
+   * Build the first population with {@code populationInitializer}, e.g. to seed it with
+   * constructive heuristics. A population given to {@link #restore} takes precedence.
+   */
+  public void setPopulationInitializer(PopulationInitializer<S> populationInitializer) {
+    this.populationInitializer = populationInitializer;
+  }
+
+  /**
+   * Offer every evaluated solution, and every immigrant, to {@code archive} as the run
+   * goes, and track its hypervolume every generation (see {@link #getHypervolumeCurve()}).
+   *
+   * @param point Reads the archive's objectives of a solution
+   */
+  public void setArchive(ParetoArchive archive, ParetoArchive.PointReader<S> point) {
+    this.archive = archive;
+    this.archivePoint = point;
+  }
+
+  /**
+   * @return The archive given to {@link #setArchive}, or null
+   */
+  public ParetoArchive getArchive() {
+    return archive;
+  }
+
+  /**
+   * Also stop once {@code stoppingCondition} is met, before the evaluation budget is
+   * spent if it comes first.
+   */
+  public void setStoppingCondition(StoppingCondition<S> stoppingCondition) {
+    this.stoppingCondition = stoppingCondition;
+  }
+
+  /**
+   * @return The condition given to {@link #setStoppingCondition}, or null
+   */
+  public StoppingCondition<S> getStoppingCondition() {
+    return stoppingCondition;
+  }
+
+  /**
+   * Record the metrics of every generation into {@code telemetry}, e.g. one registered
+   * with a {@link TelemetryWriter}, instead of an unlabeled one of 256 rows.
+   */
+  public void setTelemetry(GenerationTelemetry telemetry) {
+    this.telemetry = telemetry;
+  }
+
+  public GenerationTelemetry getTelemetry() {
+    return telemetry;
+  }
+
+  public void addGenerationListener(GenerationListener<S> listener) {
+    generationListeners.add(listener);
+  }
+
+  /**
+   * Start the next {@link #run()} from a saved population instead of a random one. The
+   * population is re-evaluated but those evaluations are not counted again.
+   *
+   * @param population  Solutions of the saved population
+   * @param evaluations Evaluation counter at the time it was saved
+   */
+  public void restore(List<S> population, int evaluations) {
+    this.restoredPopulation = population;
+    this.restoredEvaluations = evaluations;
+  }
+
+  /**
+   * Merge already evaluated {@code immigrants} into the current population through the
+   * replacement: they compete with the residents and the worst solutions are dropped,
+   * keeping the population size. Meant for a {@link GenerationListener}, on the thread
+   * running the algorithm; in pooled mode the immigrants must come from its pool.
+   */
+  public void receive(List<S> immigrants) {
+    if (archive != null) {
+      archive.addAll(immigrants, archivePoint);
+    }
+    setPopulation(replacement(getPopulation(), immigrants));
+  }
+
+  public int getEvaluations() {
+    return evaluations;
+  }
+
+  public int getMaxEvaluations() {
+    return maxEvaluations;
+  }
+
+  /**
+   * @return Time since {@link #run()} started, including the initial population
+   */
+  public long getElapsedNanos() {
+    return System.nanoTime() - startNanos;
+  }
+
+  public FitnessTracker<S> getFitnessTracker() {
+    return tracker;
+  }
+
   public void saveFitnessToCsv() {
     tracker.saveToCsv();
   }
+
+  public void saveFitnessToCsv(String fileName) {
+    tracker.saveToCsv(fileName);
+  }
+
+  /**
+   * @return Best fitness of every generation so far, as tracked by {@link FitnessTracker}
+   */
+  public double[] getFitnessCurve() {
+    return tracker.fitnessCurve();
+  }
+
+  /**
+   * @return Mean fitness of the population of every generation so far
+   */
+  public double[] getMeanFitnessCurve() {
+    return tracker.meanFitnessCurve();
+  }
+
+  /**
+   * @return Hypervolume of the archive at the end of every generation so far, NaN without one
+   */
+  public double[] getHypervolumeCurve() {
+    return tracker.hypervolumeCurve();
+  }
 }
@@ -38,6 +38,14 @@ public class CustomAlgorithmBuilder<S extends Solution<?>> implements AlgorithmB
   private SelectionOperator<List<S>, S> selectionOperator;
   private SolutionListEvaluator<S> evaluator;
   private DominanceComparator<S> dominanceComparator ;
+  private boolean fastNonDominatedSorting ;
+  private boolean defaultSelectionOperator ;
+  private SolutionPool<S> solutionPool ;
+  private PopulationInitializer<S> populationInitializer ;
+  private ParetoArchive archive ;
+  private ParetoArchive.PointReader<S> archivePoint ;
+  private GenerationTelemetry telemetry ;
+  private StoppingCondition<S> stoppingCondition ;
 
   private NSGAIIVariant variant;
 
@@ -54,6 +62,7 @@ public class CustomAlgorithmBuilder<S extends Solution<?>> implements AlgorithmB
     this.crossoverOperator = crossoverOperator ;
     this.mutationOperator = mutationOperator ;
     selectionOperator = new BinaryTournamentSelection<S>(new RankingAndCrowdingDistanceComparator<S>()) ;
+    defaultSelectionOperator = true ;
     evaluator = new SequentialSolutionListEvaluator<S>();
     dominanceComparator = new DefaultDominanceComparator<>()  ;
 
@@ -93,6 +102,7 @@ public class CustomAlgorithmBuilder<S extends Solution<?>> implements AlgorithmB
       throw new JMetalException("selectionOperator is null");
     }
     this.selectionOperator = selectionOperator;
+    defaultSelectionOperator = false ;
 
     return this;
   }
@@ -113,6 +123,66 @@ public class CustomAlgorithmBuilder<S extends Solution<?>> implements AlgorithmB
     return this;
   }
 
+  /**
+   * Use {@link NonDominatedSorting} for the replacement. Unless a selection operator was
+   * set explicitly, the binary tournament then compares with {@link RankAndCrowdingComparator}.
+   */
+  public CustomAlgorithmBuilder<S> setFastNonDominatedSorting(boolean fastNonDominatedSorting) {
+    this.fastNonDominatedSorting = fastNonDominatedSorting ;
+
+    return this;
+  }
+
+  /**
+   * Recycle discarded solutions into {@code solutionPool}, see
+   * {@link CustomAlgorithm#setSolutionPool}. Implies {@link #setFastNonDominatedSorting}.
+   */
+  public CustomAlgorithmBuilder<S> setSolutionPool(SolutionPool<S> solutionPool) {
+    this.solutionPool = solutionPool ;
+
+    return this;
+  }
+
+  /**
+   * Build the first population with {@code populationInitializer}, see
+   * {@link CustomAlgorithm#setPopulationInitializer}. Random by default.
+   */
+  public CustomAlgorithmBuilder<S> setPopulationInitializer(PopulationInitializer<S> populationInitializer) {
+    this.populationInitializer = populationInitializer ;
+
+    return this;
+  }
+
+  /**
+   * Track the run's non-dominated points in {@code archive}, see
+   * {@link CustomAlgorithm#setArchive}. No archive by default.
+   */
+  public CustomAlgorithmBuilder<S> setArchive(ParetoArchive archive, ParetoArchive.PointReader<S> point) {
+    this.archive = archive ;
+    this.archivePoint = point ;
+
+    return this;
+  }
+
+  /**
+   * Stop the run once {@code stoppingCondition} is met, or the evaluation budget is
+   * spent, whichever comes first; see {@link StoppingCondition}. Only the budget by default.
+   */
+  public CustomAlgorithmBuilder<S> setStoppingCondition(StoppingCondition<S> stoppingCondition) {
+    this.stoppingCondition = stoppingCondition ;
+
+    return this;
+  }
+
+  /**
+   * Record the run's per-generation metrics into {@code telemetry}, see
+   * {@link CustomAlgorithm#setTelemetry}. An unlabeled one by default.
+   */
+  public CustomAlgorithmBuilder<S> setTelemetry(GenerationTelemetry telemetry) {
+    this.telemetry = telemetry ;
+
+    return this;
+  }
 
   public CustomAlgorithmBuilder<S> setVariant(NSGAIIVariant variant) {
     this.variant = variant;
@@ -122,7 +192,26 @@ public class CustomAlgorithmBuilder<S extends Solution<?>> implements AlgorithmB
 
   @Override
   public CustomAlgorithm<S> build() {
-    CustomAlgorithm<S> algorithm = new CustomAlgorithm<>(problem, maxEvaluations, populationSize, matingPoolSize, offspringPopulationSize, crossoverOperator, mutationOperator, selectionOperator, dominanceComparator, evaluator) ;
+    boolean fastNonDominatedSorting = this.fastNonDominatedSorting || solutionPool != null ;
+
+    SelectionOperator<List<S>, S> selection = selectionOperator ;
+    if (fastNonDominatedSorting && defaultSelectionOperator) {
+      selection = new BinaryTournamentSelection<S>(new RankAndCrowdingComparator<S>()) ;
+    }
+
+    CustomAlgorithm<S> algorithm = new CustomAlgorithm<>(problem, maxEvaluations, populationSize, matingPoolSize, offspringPopulationSize, crossoverOperator, mutationOperator, selection, dominanceComparator, evaluator) ;
+    if (fastNonDominatedSorting) {
+      algorithm.setNonDominatedSorting(new NonDominatedSorting()) ;
+    }
+    algorithm.setSolutionPool(solutionPool) ;
+    algorithm.setPopulationInitializer(populationInitializer) ;
+    if (archive != null) {
+      algorithm.setArchive(archive, archivePoint) ;
+    }
+    if (telemetry != null) {
+      algorithm.setTelemetry(telemetry) ;
+    }
+    algorithm.setStoppingCondition(stoppingCondition) ;
 
     return algorithm ;
   }
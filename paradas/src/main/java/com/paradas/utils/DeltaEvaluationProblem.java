@@ -0,0 +1,19 @@
+package com.paradas.utils;
+
+/**
+ * Problems that can score an offspring relative to the parent it was derived from.
+ * <p>
+ * {@link CustomAlgorithm#reproduction} calls {@link #recordParent} for every child
+ * after crossover and mutation, before the offspring population is evaluated.
+ *
+ * @param <S> Solution type
+ */
+public interface DeltaEvaluationProblem<S> {
+
+    /**
+     * Attach to {@code child} whatever is needed to evaluate it incrementally
+     * from {@code parent}. Implementations may decline and leave the child for a
+     * full evaluation.
+     */
+    void recordParent(S parent, S child);
+}
@@ -4,42 +4,120 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.uma.jmetal.solution.Solution;
 
+/**
+ * Best and mean fitness of every generation of a run, and the hypervolume reached,
+ * kept as primitive curves. The first objective is the negated fitness, or the
+ * negated coverage in the multi-objective problem.
+ */
 public class FitnessTracker<S extends Solution<?>> {
     private int generation = 0;
-    final private List<double[]> history = new ArrayList<>();
+    private double[] best = new double[128];
+    private double[] mean = new double[128];
+    private double[] hypervolumes = new double[128];
 
     public void update(List<S> data) {
+        update(data, Double.NaN);
+    }
+
+    /**
+     * @param hypervolume Hypervolume reached by the end of the generation, NaN if not tracked
+     */
+    public void update(List<S> data, double hypervolume) {
+        if (generation == best.length) {
+            best = Arrays.copyOf(best, 2 * generation);
+            mean = Arrays.copyOf(mean, 2 * generation);
+            hypervolumes = Arrays.copyOf(hypervolumes, 2 * generation);
+        }
+
+        double min = Double.POSITIVE_INFINITY;
+        double sum = 0;
+        for (int i = 0; i < data.size(); i++) {
+            double value = data.get(i).objectives()[0];
+            min = Math.min(min, value);
+            sum += value;
+        }
+
+        best[generation] = -min;
+        mean[generation] = -sum / data.size();
+        hypervolumes[generation] = hypervolume;
         generation++;
+    }
 
-        S max = data.get(0);
+    public int getGenerations() {
+        return generation;
+    }
 
-        for (int i = 0; i < data.size(); i++)
-            if (data.get(i).objectives()[0] < max.objectives()[0])
-                max = data.get(i);
+    /**
+     * @return Best fitness (or coverage) of the last generation, NaN before the first one
+     */
+    public double getBest() {
+        return generation == 0 ? Double.NaN : best[generation - 1];
+    }
 
-        history.add(max.objectives());
+    /**
+     * @return Mean fitness (or coverage) of the last generation, NaN before the first one
+     */
+    public double getMean() {
+        return generation == 0 ? Double.NaN : mean[generation - 1];
+    }
 
-        // Display fitness as positive value (0-10 scale)
-        System.out.printf("Generation %d: Best Fitness = %.4f (out of 1) \n",
-                generation, -max.objectives()[0]);
+    /**
+     * @return Best fitness (or coverage) of generation {@code generation}, counted from 0
+     */
+    public double getBest(int generation) {
+        return best[generation];
+    }
+
+    /**
+     * @return Hypervolume of generation {@code generation}, counted from 0, NaN if not tracked
+     */
+    public double getHypervolume(int generation) {
+        return hypervolumes[generation];
+    }
+
+    /**
+     * @return Best value of the first objective of every generation, negated back to
+     *         the fitness (or coverage)
+     */
+    public double[] fitnessCurve() {
+        return Arrays.copyOf(best, generation);
+    }
 
+    /**
+     * @return Mean value of the first objective of every generation, negated as in {@link #fitnessCurve()}
+     */
+    public double[] meanFitnessCurve() {
+        return Arrays.copyOf(mean, generation);
+    }
+
+    /**
+     * @return Hypervolume given to {@link #update} every generation, NaN where not tracked
+     */
+    public double[] hypervolumeCurve() {
+        return Arrays.copyOf(hypervolumes, generation);
     }
 
     public void saveToCsv() {
         String dateTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
-        String fileName = "fitness_" + dateTime + ".csv";
+        saveToCsv("fitness_" + dateTime + ".csv");
+    }
 
+    public void saveToCsv(String fileName) {
         try (FileWriter writer = new FileWriter(fileName)) {
-            writer.write("generation,fitness\n");
+            boolean tracked = false;
+            for (int v = 0; v < generation; v++) {
+                tracked |= !Double.isNaN(hypervolumes[v]);
+            }
+            writer.write(tracked ? "generation,fitness,hypervolume\n" : "generation,fitness\n");
 
-            for (int v = 0; v < history.size(); v++) {
+            for (int v = 0; v < generation; v++) {
                 // Save as positive fitness value (0-10 scale)
-                writer.write((v + 1) + "," + (-history.get(v)[0]) + "\n");
+                writer.write((v + 1) + "," + best[v] + (tracked ? "," + hypervolumes[v] : "") + "\n");
             }
 
             System.out.println("Results from fitness saved to: " + fileName);
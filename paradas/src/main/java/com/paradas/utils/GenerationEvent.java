@@ -0,0 +1,70 @@
+package com.paradas.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of one generation, committed by {@link GenerationTelemetry} when a
+ * recording enables it, e.g. with
+ * {@code -XX:StartFlightRecording=filename=run.jfr,settings=profile}.
+ */
+@Name("com.paradas.Generation")
+@Label("Generation")
+@Category({ "Paradas", "Genetic Algorithm" })
+@Description("Metrics of one generation of a genetic algorithm run")
+@StackTrace(false)
+class GenerationEvent extends Event {
+
+    @Label("Run")
+    String run;
+
+    @Label("Generation")
+    int generation;
+
+    @Label("Evaluations")
+    @Description("Evaluations spent by the end of the generation")
+    int evaluations;
+
+    @Label("Best Fitness")
+    double bestFitness;
+
+    @Label("Mean Fitness")
+    double meanFitness;
+
+    @Label("Evaluations per Second")
+    double evaluationsPerSecond;
+
+    @Label("Selection")
+    @Timespan(Timespan.NANOSECONDS)
+    long selection;
+
+    @Label("Reproduction")
+    @Timespan(Timespan.NANOSECONDS)
+    long reproduction;
+
+    @Label("Evaluation")
+    @Timespan(Timespan.NANOSECONDS)
+    long evaluation;
+
+    @Label("Replacement")
+    @Timespan(Timespan.NANOSECONDS)
+    long replacement;
+
+    @Label("GC Pause")
+    @Description("Collection time of the whole JVM during the generation")
+    @Timespan(Timespan.MILLISECONDS)
+    long gcPause;
+
+    @Label("Cache Hit Rate")
+    @Description("Share of the evaluations answered by the evaluation cache, NaN without one")
+    double cacheHitRate;
+
+    @Label("Hypervolume")
+    @Description("Hypervolume of the Pareto archive, NaN without one")
+    double hypervolume;
+}
@@ -0,0 +1,14 @@
+package com.paradas.utils;
+
+import org.uma.jmetal.solution.Solution;
+
+/**
+ * Callback invoked by {@link CustomAlgorithm} at the end of every generation, once
+ * the population has been replaced and the evaluation counter updated.
+ *
+ * @param <S> Solution type
+ */
+public interface GenerationListener<S extends Solution<?>> {
+
+    void onGeneration(CustomAlgorithm<S> algorithm);
+}
@@ -0,0 +1,245 @@
+package com.paradas.utils;
+
+import java.lang.invoke.VarHandle;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+import jdk.jfr.EventType;
+
+/**
+ * Metrics of every generation of one run, recorded by the thread running it into a
+ * preallocated ring of primitive rows and read concurrently by a
+ * {@link TelemetryWriter}.
+ * <p>
+ * The algorithm times its phases with {@link #time} and closes each generation with
+ * {@link #record}, which takes a handful of clock reads and no allocation; when JFR is
+ * recording with the {@code com.paradas.Generation} event enabled, every row is also
+ * committed as one, which allocates the event.
+ * Rows not drained before the ring wraps are lost, and counted as dropped by the
+ * reader. GC pauses are those of the whole JVM, shared by every run in it.
+ */
+public class GenerationTelemetry {
+
+    public static final int SELECTION = 0;
+    public static final int REPRODUCTION = 1;
+    public static final int EVALUATION = 2;
+    public static final int REPLACEMENT = 3;
+
+    /**
+     * Columns of a row, see {@link #drain}.
+     */
+    public static final String[] COLUMNS = { "generation", "evaluations", "best_fitness", "mean_fitness",
+            "evaluations_per_second", "selection_ms", "reproduction_ms", "evaluation_ms", "replacement_ms",
+            "gc_pause_ms", "cache_hit_rate", "hypervolume" };
+
+    private static final int WIDTH = COLUMNS.length;
+    private static final int FIRST_PHASE_COLUMN = 5;
+    private static final String[] PHASES = { "selection", "reproduction", "evaluation", "replacement" };
+
+    // Checked before creating an event, so no event is allocated while JFR does not want it
+    private static final EventType GENERATION_EVENT = EventType.getEventType(GenerationEvent.class);
+
+    private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+
+    /**
+     * Receives a copy of one row, valid only during the call.
+     */
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(double[] row);
+    }
+
+    private final String label;
+    private final int mask;
+    private final double[] ring;
+    private volatile long recorded = 0;
+    private volatile boolean finished = false;
+
+    // State of the generation in progress
+    private final long[] phaseNanos = new long[PHASES.length];
+    private long generationStart;
+    private int lastEvaluations;
+    private long lastGcMillis;
+    private long lastCacheHits;
+    private long lastCacheLookups;
+
+    // Totals since start(), for statistics()
+    private final long[] totalPhaseNanos = new long[PHASES.length];
+    private long startNanos;
+    private int startEvaluations;
+    private long totalGcMillis;
+
+    /**
+     * @param label    Name of the run in the output, e.g. its weights
+     * @param capacity Rows kept until drained, rounded up to a power of two
+     */
+    public GenerationTelemetry(String label, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        size = size < capacity ? 2 * size : size;
+        this.label = label;
+        this.mask = size - 1;
+        this.ring = new double[size * WIDTH];
+    }
+
+    /**
+     * Start timing the first generation.
+     *
+     * @param evaluations  Evaluations spent so far, e.g. on the initial population
+     * @param cacheHits    Evaluations answered by a cache so far, 0 without one
+     * @param cacheLookups Evaluations asked of the cache so far, 0 without one
+     */
+    public void start(int evaluations, long cacheHits, long cacheLookups) {
+        startNanos = System.nanoTime();
+        generationStart = startNanos;
+        startEvaluations = evaluations;
+        lastEvaluations = evaluations;
+        lastGcMillis = gcMillis();
+        lastCacheHits = cacheHits;
+        lastCacheLookups = cacheLookups;
+        Arrays.fill(phaseNanos, 0);
+    }
+
+    /**
+     * Add the time since {@code startNanos} to a phase of the current generation.
+     *
+     * @param phase One of {@link #SELECTION}, {@link #REPRODUCTION}, {@link #EVALUATION}
+     *              and {@link #REPLACEMENT}
+     */
+    public void time(int phase, long startNanos) {
+        phaseNanos[phase] += System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Close the current generation and start the next one.
+     *
+     * @param evaluations Evaluations spent so far
+     * @param best        Best fitness of the population
+     * @param mean        Mean fitness of the population
+     * @param hypervolume Hypervolume reached so far, NaN if not tracked
+     */
+    public void record(int evaluations, double best, double mean, double hypervolume, long cacheHits,
+            long cacheLookups) {
+        long now = System.nanoTime();
+        long gcMillis = gcMillis();
+        long generation = recorded;
+
+        int row = (int) (generation & mask) * WIDTH;
+        ring[row] = generation + 1;
+        ring[row + 1] = evaluations;
+        ring[row + 2] = best;
+        ring[row + 3] = mean;
+        ring[row + 4] = now > generationStart ? (evaluations - lastEvaluations) * 1e9 / (now - generationStart) : 0;
+        for (int phase = 0; phase < PHASES.length; phase++) {
+            ring[row + FIRST_PHASE_COLUMN + phase] = phaseNanos[phase] / 1e6;
+        }
+        ring[row + 9] = gcMillis - lastGcMillis;
+        long lookups = cacheLookups - lastCacheLookups;
+        ring[row + 10] = lookups > 0 ? (double) (cacheHits - lastCacheHits) / lookups : Double.NaN;
+        ring[row + 11] = hypervolume;
+        // Publishes the row to drain()
+        recorded = generation + 1;
+
+        GenerationEvent event = GENERATION_EVENT.isEnabled() ? new GenerationEvent() : null;
+        if (event != null && event.shouldCommit()) {
+            event.run = label;
+            event.generation = (int) ring[row];
+            event.evaluations = evaluations;
+            event.bestFitness = best;
+            event.meanFitness = mean;
+            event.evaluationsPerSecond = ring[row + 4];
+            event.selection = phaseNanos[SELECTION];
+            event.reproduction = phaseNanos[REPRODUCTION];
+            event.evaluation = phaseNanos[EVALUATION];
+            event.replacement = phaseNanos[REPLACEMENT];
+            event.gcPause = gcMillis - lastGcMillis;
+            event.cacheHitRate = ring[row + 10];
+            event.hypervolume = hypervolume;
+            event.commit();
+        }
+
+        for (int phase = 0; phase < PHASES.length; phase++) {
+            totalPhaseNanos[phase] += phaseNanos[phase];
+            phaseNanos[phase] = 0;
+        }
+        totalGcMillis += gcMillis - lastGcMillis;
+        generationStart = now;
+        lastEvaluations = evaluations;
+        lastGcMillis = gcMillis;
+        lastCacheHits = cacheHits;
+        lastCacheLookups = cacheLookups;
+    }
+
+    /**
+     * Mark the run as over, once its last generation is recorded.
+     */
+    public void finish() {
+        finished = true;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return Rows recorded since the run started
+     */
+    public long recorded() {
+        return recorded;
+    }
+
+    /**
+     * Hand every row recorded from {@code from} on to {@code consumer}, skipping the ones
+     * the ring has already overwritten. Safe to call from any thread, but from one at a time.
+     *
+     * @param from Rows already drained
+     * @return Rows drained after this call, counting the skipped ones
+     */
+    public long drain(long from, RowConsumer consumer) {
+        double[] row = new double[WIDTH];
+        long end = recorded;
+        for (long r = Math.max(from, end - mask - 1); r < end; r++) {
+            System.arraycopy(ring, (int) (r & mask) * WIDTH, row, 0, WIDTH);
+            // The copy is valid if the writer had not started on the row that reuses its slot
+            VarHandle.loadLoadFence();
+            if (recorded - r <= mask) {
+                consumer.accept(row);
+            }
+        }
+        return end;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return One-line summary of the generations recorded so far
+     */
+    public String statistics() {
+        long elapsed = generationStart - startNanos;
+        long phases = 0;
+        for (long nanos : totalPhaseNanos) {
+            phases += nanos;
+        }
+        StringBuilder shares = new StringBuilder();
+        for (int phase = 0; phase < PHASES.length; phase++) {
+            shares.append(String.format(", %s %.1f%%", PHASES[phase],
+                    phases == 0 ? 0.0 : 100.0 * totalPhaseNanos[phase] / phases));
+        }
+        return String.format("Telemetry: %d generations, %.0f evaluations/s%s, GC %d ms", recorded,
+                elapsed > 0 ? (lastEvaluations - startEvaluations) * 1e9 / elapsed : 0.0, shares, totalGcMillis);
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (int i = 0; i < COLLECTORS.size(); i++) {
+            millis += Math.max(0, COLLECTORS.get(i).getCollectionTime());
+        }
+        return millis;
+    }
+}
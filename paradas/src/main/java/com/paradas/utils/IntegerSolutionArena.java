@@ -0,0 +1,103 @@
+package com.paradas.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.bounds.Bounds;
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+
+/**
+ * Preallocated set of {@link PooledIntegerSolution}s for one run. Solutions come out
+ * through {@link #createSolution()} and {@link PooledIntegerSolution#copy()} and go
+ * back through {@link #release}; when the free list runs dry the arena grows.
+ * <p>
+ * Not thread-safe: solutions must be created, copied and released on the thread that
+ * runs the algorithm. Evaluating them concurrently is fine.
+ */
+public class IntegerSolutionArena implements SolutionPool<IntegerSolution> {
+
+    private final List<Bounds<Integer>> bounds;
+    private final int numberOfObjectives;
+    private final int cacheLength;
+
+    private PooledIntegerSolution[] free;
+    private int freeCount = 0;
+    private int allocated = 0;
+
+    /**
+     * @param cacheLength Length of the per-solution {@link PooledIntegerSolution#cache()}
+     * @param capacity    Solutions to preallocate, typically population plus offspring size
+     */
+    public IntegerSolutionArena(List<Bounds<Integer>> bounds, int numberOfObjectives, int cacheLength, int capacity) {
+        this.bounds = bounds;
+        this.numberOfObjectives = numberOfObjectives;
+        this.cacheLength = cacheLength;
+        this.free = new PooledIntegerSolution[Math.max(capacity, 1)];
+
+        for (int i = 0; i < capacity; i++) {
+            PooledIntegerSolution solution = allocate();
+            solution.free = true;
+            free[freeCount++] = solution;
+        }
+    }
+
+    /**
+     * New solution with uniformly random genes, drawn from {@link JMetalRandom} in the
+     * same order as {@code DefaultIntegerSolution} does.
+     */
+    public PooledIntegerSolution createSolution() {
+        PooledIntegerSolution solution = acquire();
+        int[] genes = solution.genes();
+        for (int v = 0; v < genes.length; v++) {
+            Bounds<Integer> bound = bounds.get(v);
+            genes[v] = JMetalRandom.getInstance().nextInt(bound.getLowerBound(), bound.getUpperBound());
+        }
+        Arrays.fill(solution.objectives(), 0.0);
+        Arrays.fill(solution.cache(), 0.0);
+        solution.attributes().clear();
+        solution.setScratch(null);
+        return solution;
+    }
+
+    @Override
+    public void release(IntegerSolution solution) {
+        if (!(solution instanceof PooledIntegerSolution pooled) || pooled.free) {
+            throw new IllegalArgumentException("Not an in-use solution of this arena: " + solution);
+        }
+        pooled.free = true;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, free.length * 2);
+        }
+        free[freeCount++] = pooled;
+    }
+
+    /**
+     * @return A solution with stale content, to be overwritten by the caller
+     */
+    PooledIntegerSolution acquire() {
+        PooledIntegerSolution solution = freeCount > 0 ? free[--freeCount] : allocate();
+        solution.free = false;
+        return solution;
+    }
+
+    /**
+     * @return Solutions created so far, in use or free
+     */
+    public int allocated() {
+        return allocated;
+    }
+
+    public int available() {
+        return freeCount;
+    }
+
+    List<Bounds<Integer>> bounds() {
+        return bounds;
+    }
+
+    private PooledIntegerSolution allocate() {
+        allocated++;
+        return new PooledIntegerSolution(this, bounds.size(), numberOfObjectives, cacheLength);
+    }
+}
@@ -0,0 +1,97 @@
+package com.paradas.utils;
+
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+import org.uma.jmetal.util.pseudorandom.PseudoRandomGenerator;
+
+/**
+ * {@link PseudoRandomGenerator} for the {@link JMetalRandom} singleton that routes
+ * every call to the {@link RandomStream} bound to the calling thread.
+ * <p>
+ * jMetal operators and solution constructors all draw from the process-wide
+ * {@code JMetalRandom}, so concurrent runs would otherwise interleave on one
+ * generator and lose reproducibility. Each job binds its own stream on the thread
+ * that runs it; threads without a stream fall back to a shared, synchronized one.
+ */
+@SuppressWarnings("serial")
+public final class JobRandomGenerator implements PseudoRandomGenerator {
+
+    private static final ThreadLocal<RandomStream> BOUND = new ThreadLocal<>();
+
+    private final RandomStream fallback;
+    private long seed;
+
+    private JobRandomGenerator(long seed) {
+        this.seed = seed;
+        this.fallback = new RandomStream(seed);
+    }
+
+    /**
+     * Install a job-aware generator in {@link JMetalRandom}, seeding the fallback stream.
+     */
+    public static void install(long seed) {
+        JMetalRandom.getInstance().setRandomGenerator(new JobRandomGenerator(seed));
+    }
+
+    /**
+     * Make {@code stream} the source of randomness for the current thread.
+     */
+    public static void bind(RandomStream stream) {
+        BOUND.set(stream);
+    }
+
+    public static void unbind() {
+        BOUND.remove();
+    }
+
+    /**
+     * @return The stream bound to the current thread, or null
+     */
+    public static RandomStream bound() {
+        return BOUND.get();
+    }
+
+    @Override
+    public int nextInt(int lowerBound, int upperBound) {
+        RandomStream stream = BOUND.get();
+        if (stream == null) {
+            synchronized (fallback) {
+                return lowerBound + fallback.nextInt(upperBound - lowerBound + 1);
+            }
+        }
+        return lowerBound + stream.nextInt(upperBound - lowerBound + 1);
+    }
+
+    @Override
+    public double nextDouble(double lowerBound, double upperBound) {
+        return lowerBound + nextDouble() * (upperBound - lowerBound);
+    }
+
+    @Override
+    public double nextDouble() {
+        RandomStream stream = BOUND.get();
+        if (stream == null) {
+            synchronized (fallback) {
+                return fallback.nextDouble();
+            }
+        }
+        return stream.nextDouble();
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        synchronized (fallback) {
+            this.seed = seed;
+            fallback.setState(seed);
+        }
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public String getName() {
+        return "JobRandomGenerator";
+    }
+}
@@ -0,0 +1,293 @@
+package com.paradas.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.uma.jmetal.solution.Solution;
+
+/**
+ * Non-dominated sorting and crowding distance over primitive objective arrays, used
+ * by {@link CustomAlgorithm#replacement} in place of jMetal's
+ * {@code RankingAndCrowdingSelection}.
+ * <p>
+ * Ranking uses the Efficient Non-dominated Sort with binary search (ENS-BS, Zhang
+ * et al. 2015): points are sorted lexicographically, so a point can only be dominated
+ * by points before it, and each point goes to the first front none of whose members
+ * dominates it. Every member of front k+1 is dominated by a member of front k, so
+ * "dominated by front k" holds for a prefix of the fronts and the front can be
+ * found by binary search. Objectives are minimized.
+ * <p>
+ * Not thread-safe: an instance keeps its work arrays between calls, so each
+ * algorithm needs its own.
+ */
+public class NonDominatedSorting {
+
+    // Solution attributes written by select(), read by RankAndCrowdingComparator
+    public static final String RANK_ATTRIBUTE = "NonDominatedSorting.rank";
+    public static final String CROWDING_ATTRIBUTE = "NonDominatedSorting.crowding";
+
+    private double[] objectives = new double[0];
+    private int[] order = new int[0];
+    private int[] buffer = new int[0];
+    private int[] mergeBuffer = new int[0];
+    private int[] ranks = new int[0];
+    private double[] crowding = new double[0];
+
+    // Fronts as linked lists: head of each front, next member of each point
+    private int[] frontHead = new int[0];
+    private int[] nextInFront = new int[0];
+
+    /**
+     * Rank {@code n} points given row-major in {@code objectives} ({@code n * m} values).
+     *
+     * @param ranks Receives the front of each point, 0 being the non-dominated front
+     * @return Number of fronts
+     */
+    public int sort(double[] objectives, int n, int m, int[] ranks) {
+        ensureCapacity(n);
+
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        sortIndices(order, 0, n, objectives, m, -1);
+
+        int fronts = 0;
+        for (int s = 0; s < n; s++) {
+            int p = order[s];
+
+            // First front that does not dominate p
+            int low = 0;
+            int high = fronts;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (frontDominates(mid, p, objectives, m)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            if (low == fronts) {
+                frontHead[fronts] = -1;
+                fronts++;
+            }
+            nextInFront[p] = frontHead[low];
+            frontHead[low] = p;
+            ranks[p] = low;
+        }
+
+        return fronts;
+    }
+
+    /**
+     * Crowding distance of the points in {@code members[0 .. count)}, all of the same front.
+     * Boundary points of every objective get infinity.
+     */
+    public void crowdingDistance(double[] objectives, int m, int[] members, int count, double[] distance) {
+        for (int i = 0; i < count; i++) {
+            distance[members[i]] = 0;
+        }
+        if (count <= 2) {
+            for (int i = 0; i < count; i++) {
+                distance[members[i]] = Double.POSITIVE_INFINITY;
+            }
+            return;
+        }
+
+        for (int j = 0; j < m; j++) {
+            sortIndices(members, 0, count, objectives, m, j);
+
+            double min = objectives[members[0] * m + j];
+            double max = objectives[members[count - 1] * m + j];
+            distance[members[0]] = Double.POSITIVE_INFINITY;
+            distance[members[count - 1]] = Double.POSITIVE_INFINITY;
+
+            if (max == min) {
+                continue;
+            }
+            for (int i = 1; i < count - 1; i++) {
+                distance[members[i]] += (objectives[members[i + 1] * m + j] - objectives[members[i - 1] * m + j])
+                        / (max - min);
+            }
+        }
+    }
+
+    /**
+     * Keep the best {@code size} solutions by rank and, within the last front that fits
+     * partially, by decreasing crowding distance. Selected solutions get their rank and
+     * crowding distance as attributes.
+     */
+    public <S extends Solution<?>> List<S> select(List<S> solutions, int size) {
+        return select(solutions, size, new ArrayList<>(size));
+    }
+
+    /**
+     * Same as {@link #select(List, int)}, adding the selected solutions to {@code result}.
+     */
+    public <S extends Solution<?>> List<S> select(List<S> solutions, int size, List<S> result) {
+        return select(solutions, size, result, null);
+    }
+
+    /**
+     * Same as {@link #select(List, int, List)}, also adding the solutions left out to
+     * {@code rejected} unless it is null.
+     */
+    public <S extends Solution<?>> List<S> select(List<S> solutions, int size, List<S> result, List<S> rejected) {
+        int n = solutions.size();
+        int m = n == 0 ? 0 : solutions.get(0).objectives().length;
+
+        ensureCapacity(n);
+        if (objectives.length < n * m) {
+            objectives = new double[n * m];
+        }
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(solutions.get(i).objectives(), 0, objectives, i * m, m);
+        }
+
+        int fronts = sort(objectives, n, m, ranks);
+
+        for (int f = 0; f < fronts && result.size() < size; f++) {
+            int count = 0;
+            for (int p = frontHead[f]; p != -1; p = nextInFront[p]) {
+                buffer[count++] = p;
+            }
+            // Linked lists hold the front in reverse insertion order
+            reverse(buffer, count);
+
+            crowdingDistance(objectives, m, buffer, count, crowding);
+
+            int take = Math.min(count, size - result.size());
+            if (take < count) {
+                sortByCrowding(buffer, count);
+            } else {
+                // crowdingDistance() reordered the members, restore insertion order
+                Arrays.sort(buffer, 0, count);
+            }
+
+            for (int i = 0; i < take; i++) {
+                S solution = solutions.get(buffer[i]);
+                solution.attributes().put(RANK_ATTRIBUTE, f);
+                solution.attributes().put(CROWDING_ATTRIBUTE, crowding[buffer[i]]);
+                result.add(solution);
+                ranks[buffer[i]] = -1;
+            }
+        }
+
+        if (rejected != null) {
+            for (int i = 0; i < n; i++) {
+                if (ranks[i] >= 0) {
+                    rejected.add(solutions.get(i));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return Whether some member of {@code front} dominates point {@code p}
+     */
+    private boolean frontDominates(int front, int p, double[] objectives, int m) {
+        for (int q = frontHead[front]; q != -1; q = nextInFront[q]) {
+            if (dominates(objectives, q, p, m)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean dominates(double[] objectives, int q, int p, int m) {
+        boolean strictlyBetter = false;
+        int a = q * m;
+        int b = p * m;
+        for (int j = 0; j < m; j++) {
+            double x = objectives[a + j];
+            double y = objectives[b + j];
+            if (x > y) {
+                return false;
+            }
+            if (x < y) {
+                strictlyBetter = true;
+            }
+        }
+        return strictlyBetter;
+    }
+
+    /**
+     * Stable merge sort of {@code indices[from .. to)} by objective {@code j}, or
+     * lexicographically over all objectives when {@code j < 0}.
+     */
+    private void sortIndices(int[] indices, int from, int to, double[] objectives, int m, int j) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sortIndices(indices, from, mid, objectives, m, j);
+        sortIndices(indices, mid, to, objectives, m, j);
+        if (compare(objectives, m, j, indices[mid - 1], indices[mid]) <= 0) {
+            return;
+        }
+
+        // Own scratch array: the indices being sorted may be the front members in buffer
+        System.arraycopy(indices, from, mergeBuffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int k = from; k < to; k++) {
+            if (right >= to || (left < mid && compare(objectives, m, j, mergeBuffer[left], mergeBuffer[right]) <= 0)) {
+                indices[k] = mergeBuffer[left++];
+            } else {
+                indices[k] = mergeBuffer[right++];
+            }
+        }
+    }
+
+    private static int compare(double[] objectives, int m, int j, int a, int b) {
+        if (j >= 0) {
+            return Double.compare(objectives[a * m + j], objectives[b * m + j]);
+        }
+        for (int k = 0; k < m; k++) {
+            int c = Double.compare(objectives[a * m + k], objectives[b * m + k]);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Insertion sort by decreasing crowding distance; the partial front is at most a
+     * population long and mostly sorted by index already.
+     */
+    private void sortByCrowding(int[] members, int count) {
+        for (int i = 1; i < count; i++) {
+            int p = members[i];
+            int k = i - 1;
+            while (k >= 0 && crowding[members[k]] < crowding[p]) {
+                members[k + 1] = members[k];
+                k--;
+            }
+            members[k + 1] = p;
+        }
+    }
+
+    private static void reverse(int[] values, int count) {
+        for (int i = 0, k = count - 1; i < k; i++, k--) {
+            int tmp = values[i];
+            values[i] = values[k];
+            values[k] = tmp;
+        }
+    }
+
+    private void ensureCapacity(int n) {
+        if (order.length < n) {
+            order = new int[n];
+            buffer = new int[n];
+            mergeBuffer = new int[n];
+            ranks = new int[n];
+            crowding = new double[n];
+            frontHead = new int[n];
+            nextInFront = new int[n];
+        }
+    }
+}
@@ -5,22 +5,170 @@ import org.uma.jmetal.solution.Solution;
 import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
 
 /**
- * High-performance parallel evaluator using Java's ExecutorService
- * Evaluates multiple solutions concurrently for faster processing
- * 
+ * High-performance parallel evaluator on a dedicated work-stealing pool.
+ * <p>
+ * The population is split recursively into chunks of {@code chunkSize} solutions,
+ * which idle workers steal from busy ones, so uneven evaluation costs still balance
+ * out. The pool belongs to the evaluator, sized for the run instead of competing
+ * for the common pool, and is released by {@link #shutdown()}. Populations smaller
+ * than the sequential threshold are evaluated on the calling thread.
+ * <p>
+ * Every batch is timed; see {@link #statistics()}.
+ *
  * @param <S> Solution type
  */
 public class ParallelEvaluator<S extends Solution<?>> implements SolutionListEvaluator<S> {
+
+    private final ForkJoinPool pool;
+    private final int threads;
+    private final int chunkSize;
+    private final int sequentialThreshold;
+
+    // Batch metrics
+    private long batches = 0;
+    private long sequentialBatches = 0;
+    private long solutions = 0;
+    private long totalNanos = 0;
+    private long maxBatchNanos = 0;
+
+    /**
+     * One thread per available processor, automatic chunk size.
+     */
+    public ParallelEvaluator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelEvaluator(int threads) {
+        this(threads, 0, 2 * threads);
+    }
+
+    /**
+     * @param threads             Worker threads of the evaluator's pool
+     * @param chunkSize           Solutions evaluated by a task without splitting further, or 0 to
+     *                            split each batch into about four chunks per thread
+     * @param sequentialThreshold Batches smaller than this are evaluated on the calling thread
+     */
+    public ParallelEvaluator(int threads, int chunkSize, int sequentialThreshold) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        if (chunkSize < 0) {
+            throw new IllegalArgumentException("chunkSize is negative: " + chunkSize);
+        }
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.sequentialThreshold = sequentialThreshold;
+        this.pool = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("evaluator-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
     @Override
     public List<S> evaluate(List<S> population, Problem<S> problem) {
-        population.parallelStream().forEach(problem::evaluate);
+        long start = System.nanoTime();
+
+        int size = population.size();
+        if (size < sequentialThreshold || threads == 1) {
+            for (int i = 0; i < size; i++) {
+                problem.evaluate(population.get(i));
+            }
+            sequentialBatches++;
+        } else {
+            int chunk = chunkSize > 0 ? chunkSize : Math.max(1, size / (4 * threads));
+            pool.invoke(new EvaluationTask<>(population, problem, 0, size, chunk));
+        }
+
+        long elapsed = System.nanoTime() - start;
+        batches++;
+        solutions += size;
+        totalNanos += elapsed;
+        maxBatchNanos = Math.max(maxBatchNanos, elapsed);
 
         return population;
     }
 
+    /**
+     * Release the pool's threads. The evaluator cannot be used afterwards.
+     */
     @Override
     public void shutdown() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getSolutions() {
+        return solutions;
+    }
+
+    /**
+     * @return Wall-clock time spent evaluating, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return One-line summary of the batch metrics
+     */
+    public String statistics() {
+        return String.format("Evaluator: %d threads, %d batches (%d sequential), %d solutions, "
+                + "%.2f ms/batch (max %.2f), %.0f solutions/s",
+                threads, batches, sequentialBatches, solutions,
+                batches == 0 ? 0.0 : totalNanos / 1e6 / batches, maxBatchNanos / 1e6,
+                totalNanos == 0 ? 0.0 : solutions * 1e9 / totalNanos);
+    }
+
+    /**
+     * Evaluates {@code population[from .. to)}, forking halves until they fit in a chunk.
+     */
+    @SuppressWarnings("serial")
+    private static final class EvaluationTask<S> extends RecursiveAction {
+        private final List<S> population;
+        private final Problem<S> problem;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        EvaluationTask(List<S> population, Problem<S> problem, int from, int to, int chunk) {
+            this.population = population;
+            this.problem = problem;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                for (int i = from; i < to; i++) {
+                    problem.evaluate(population.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new EvaluationTask<>(population, problem, from, mid, chunk),
+                    new EvaluationTask<>(population, problem, mid, to, chunk));
+        }
     }
 }
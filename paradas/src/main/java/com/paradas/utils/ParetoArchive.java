@@ -0,0 +1,234 @@
+package com.paradas.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.quality.SweepHypervolume;
+
+/**
+ * Bounded archive of the non-dominated points of three minimized objectives seen
+ * during a run, such as [-coverage, numStops, cost], updated one point at a time as
+ * solutions are evaluated, with the hypervolume of the archive.
+ * <p>
+ * Points are indexed by their second objective: each distinct value is a level
+ * holding a two-dimensional staircase of the other two objectives, ordered by the
+ * third. A point is dominated if, in some level not above its own, the staircase
+ * point just below it in the third objective is not worse in the first; the points it
+ * dominates are a contiguous run of the staircase in each level not below its own.
+ * Both take a lookup per level, so they are cheap when the second objective takes few
+ * values, as the stop count does.
+ * <p>
+ * Once the archive overflows {@code capacity} by a quarter, it drops the points with the
+ * lowest crowding distance, on objectives normalized between the ideal and nadir
+ * points, until {@code capacity} are left; the extremes of every objective are kept.
+ * The hypervolume is measured on the same normalized objectives up to (1, 1, 1), and
+ * recomputed only when the archive has changed since it was last asked for.
+ */
+public class ParetoArchive {
+
+    /**
+     * Reads the minimized objectives of a solution, e.g. from its attributes.
+     */
+    @FunctionalInterface
+    public interface PointReader<S> {
+        /**
+         * @return Whether {@code solution} had objectives to write into {@code point}
+         */
+        boolean read(S solution, double[] point);
+    }
+
+    private static final double[] REFERENCE_POINT = { 1.0, 1.0, 1.0 };
+
+    private final int capacity;
+    private final int slack;
+    private final double[] ideal;
+    private final double[] range;
+
+    // Second objective -> staircase of third objective -> point, first objective decreasing
+    private final TreeMap<Double, TreeMap<Double, double[]>> levels = new TreeMap<>();
+    private int size = 0;
+
+    private double hypervolume = 0;
+    private boolean changed = false;
+
+    private long offered = 0;
+    private long accepted = 0;
+
+    /**
+     * @param capacity Points kept after a prune
+     * @param ideal    Best possible value of every objective
+     * @param nadir    Worst value of every objective that still counts for the hypervolume
+     */
+    public ParetoArchive(int capacity, double[] ideal, double[] nadir) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        if (ideal.length != 3 || nadir.length != 3) {
+            throw new IllegalArgumentException("The archive holds points of 3 objectives");
+        }
+        this.capacity = capacity;
+        this.slack = Math.max(1, capacity / 4);
+        this.ideal = ideal.clone();
+        this.range = new double[3];
+        for (int i = 0; i < 3; i++) {
+            range[i] = nadir[i] > ideal[i] ? nadir[i] - ideal[i] : 1.0;
+        }
+    }
+
+    /**
+     * Offer a point, which is copied if it enters the archive.
+     *
+     * @return Whether the point is not dominated by, nor equal to, an archived one
+     */
+    public boolean add(double[] point) {
+        offered++;
+        double first = point[0];
+        double second = point[1];
+        double third = point[2];
+
+        // Nearest levels first: a dominating point usually has about as many stops
+        for (TreeMap<Double, double[]> level : levels.headMap(second, true).descendingMap().values()) {
+            Map.Entry<Double, double[]> below = level.floorEntry(third);
+            if (below != null && below.getValue()[0] <= first) {
+                return false;
+            }
+        }
+
+        Iterator<TreeMap<Double, double[]>> above = levels.tailMap(second, true).values().iterator();
+        while (above.hasNext()) {
+            TreeMap<Double, double[]> level = above.next();
+            Map.Entry<Double, double[]> next = level.ceilingEntry(third);
+            if (next == null || next.getValue()[0] < first) {
+                continue;
+            }
+            Iterator<double[]> dominated = level.tailMap(third, true).values().iterator();
+            while (dominated.hasNext() && dominated.next()[0] >= first) {
+                dominated.remove();
+                size--;
+            }
+            if (level.isEmpty()) {
+                above.remove();
+            }
+        }
+
+        levels.computeIfAbsent(second, key -> new TreeMap<>()).put(third, point.clone());
+        size++;
+        accepted++;
+        changed = true;
+
+        if (size > capacity + slack) {
+            prune();
+        }
+        return true;
+    }
+
+    /**
+     * Offer the point of every solution of {@code solutions}.
+     *
+     * @param reader Reads a solution's point into a scratch array
+     */
+    public <S> void addAll(List<S> solutions, PointReader<S> reader) {
+        double[] point = new double[3];
+        for (int i = 0; i < solutions.size(); i++) {
+            if (reader.read(solutions.get(i), point)) {
+                add(point);
+            }
+        }
+    }
+
+    /**
+     * Drop the most crowded points until {@code capacity} are left.
+     */
+    private void prune() {
+        // Each row is a point's objectives followed by its crowding distance
+        double[][] rows = new double[size][];
+        int n = 0;
+        for (double[] point : points()) {
+            rows[n++] = new double[] { point[0], point[1], point[2], 0 };
+        }
+        for (int objective = 0; objective < 3; objective++) {
+            int o = objective;
+            Arrays.sort(rows, (a, b) -> Double.compare(a[o], b[o]));
+            rows[0][3] = Double.POSITIVE_INFINITY;
+            rows[n - 1][3] = Double.POSITIVE_INFINITY;
+            for (int i = 1; i < n - 1; i++) {
+                rows[i][3] += (rows[i + 1][o] - rows[i - 1][o]) / range[o];
+            }
+        }
+
+        Arrays.sort(rows, (a, b) -> Double.compare(a[3], b[3]));
+        for (int i = 0; i < n - capacity; i++) {
+            TreeMap<Double, double[]> level = levels.get(rows[i][1]);
+            level.remove(rows[i][2]);
+            if (level.isEmpty()) {
+                levels.remove(rows[i][1]);
+            }
+            size--;
+        }
+    }
+
+    /**
+     * @return Hypervolume of the archive on normalized objectives, between 0 and 1
+     */
+    public double hypervolume() {
+        if (changed) {
+            double[][] normalized = new double[size][3];
+            int i = 0;
+            for (double[] point : points()) {
+                for (int o = 0; o < 3; o++) {
+                    normalized[i][o] = Math.min(1.0, Math.max(0.0, (point[o] - ideal[o]) / range[o]));
+                }
+                i++;
+            }
+            hypervolume = SweepHypervolume.compute(normalized, REFERENCE_POINT);
+            changed = false;
+        }
+        return hypervolume;
+    }
+
+    /**
+     * @return The archived points, by increasing second and then third objective; not copies
+     */
+    public List<double[]> points() {
+        List<double[]> points = new ArrayList<>(size);
+        for (NavigableMap<Double, double[]> level : levels.values()) {
+            points.addAll(level.values());
+        }
+        return points;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Points offered since the archive was created
+     */
+    public long getOffered() {
+        return offered;
+    }
+
+    /**
+     * @return Points that entered the archive, including the ones later dominated or pruned
+     */
+    public long getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * @return One-line summary of the archive
+     */
+    public String statistics() {
+        return String.format("Pareto archive: %d points (capacity %d), %d of %d offered accepted, hypervolume %.6f",
+                size, capacity, accepted, offered, hypervolume());
+    }
+}
@@ -0,0 +1,132 @@
+package com.paradas.utils;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.bounds.Bounds;
+
+/**
+ * {@link IntegerSolution} backed by primitive arrays and owned by an
+ * {@link IntegerSolutionArena}. {@link #copy()} takes a recycled solution from the
+ * arena and overwrites it, so a generation of crossover copies allocates nothing once
+ * the arena is warm.
+ * <p>
+ * Besides the genes and objectives, each solution carries a problem-defined
+ * {@link #cache()} array (e.g. raw objective values) that is copied by value.
+ * Attributes referring to the source's cache are redirected to the copy's own cache,
+ * so a problem can update it in place without touching the parent's.
+ */
+@SuppressWarnings("serial")
+public final class PooledIntegerSolution implements IntegerSolution {
+
+    private static final double[] NO_CONSTRAINTS = new double[0];
+
+    private final transient IntegerSolutionArena arena;
+    private final int[] genes;
+    private final double[] objectives;
+    private final double[] cache;
+    private final Map<Object, Object> attributes = new HashMap<>();
+    private final List<Integer> variables = new Variables();
+
+    // Problem-defined state that is not copied, e.g. a reusable change set
+    private Object scratch;
+
+    // Whether the solution sits in the arena's free list
+    boolean free;
+
+    PooledIntegerSolution(IntegerSolutionArena arena, int numberOfVariables, int numberOfObjectives, int cacheLength) {
+        this.arena = arena;
+        this.genes = new int[numberOfVariables];
+        this.objectives = new double[numberOfObjectives];
+        this.cache = new double[cacheLength];
+    }
+
+    @Override
+    public List<Integer> variables() {
+        return variables;
+    }
+
+    @Override
+    public double[] objectives() {
+        return objectives;
+    }
+
+    @Override
+    public double[] constraints() {
+        return NO_CONSTRAINTS;
+    }
+
+    @Override
+    public Map<Object, Object> attributes() {
+        return attributes;
+    }
+
+    @Override
+    public Bounds<Integer> getBounds(int index) {
+        return arena.bounds().get(index);
+    }
+
+    @Override
+    public PooledIntegerSolution copy() {
+        PooledIntegerSolution copy = arena.acquire();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * @return The genes, written through by {@code variables().set()}
+     */
+    public int[] genes() {
+        return genes;
+    }
+
+    public double[] cache() {
+        return cache;
+    }
+
+    public Object scratch() {
+        return scratch;
+    }
+
+    public void setScratch(Object scratch) {
+        this.scratch = scratch;
+    }
+
+    void copyFrom(PooledIntegerSolution source) {
+        System.arraycopy(source.genes, 0, genes, 0, genes.length);
+        System.arraycopy(source.objectives, 0, objectives, 0, objectives.length);
+        System.arraycopy(source.cache, 0, cache, 0, cache.length);
+
+        // Overwrite rather than clear, so the map keeps its entries for the recurring keys
+        attributes.keySet().retainAll(source.attributes.keySet());
+        for (Map.Entry<Object, Object> entry : source.attributes.entrySet()) {
+            Object value = entry.getValue();
+            attributes.put(entry.getKey(), value == source.cache ? cache : value);
+        }
+    }
+
+    private final class Variables extends AbstractList<Integer> implements RandomAccess {
+
+        @Override
+        public Integer get(int index) {
+            // Gene values are small, Integer.valueOf returns cached instances
+            return genes[index];
+        }
+
+        @Override
+        public Integer set(int index, Integer value) {
+            int previous = genes[index];
+            genes[index] = value;
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return genes.length;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.paradas.utils;
+
+import java.util.List;
+
+import org.uma.jmetal.solution.Solution;
+
+/**
+ * Builds the first population of {@link CustomAlgorithm} in place of one made of
+ * {@code problem.createSolution()} calls. The solutions are evaluated by the algorithm
+ * afterwards.
+ *
+ * @param <S> Solution type
+ */
+public interface PopulationInitializer<S extends Solution<?>> {
+
+    /**
+     * @return {@code populationSize} new, unevaluated solutions
+     */
+    List<S> createInitialPopulation(int populationSize);
+}
@@ -0,0 +1,70 @@
+package com.paradas.utils;
+
+/**
+ * Small deterministic pseudo-random stream (SplitMix64) whose whole state is a
+ * single {@code long}, so it can be derived per job and saved or restored exactly.
+ * <p>
+ * Not thread-safe: each stream belongs to one job.
+ */
+public final class RandomStream {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public RandomStream(long state) {
+        this.state = state;
+    }
+
+    /**
+     * Independent stream for a (weight combination, run) job of a sweep seeded with {@code seed}.
+     */
+    public static RandomStream forJob(long seed, int combination, int run) {
+        long state = mix(seed + GOLDEN_GAMMA);
+        state = mix(state ^ (combination + 1) * 0xBF58476D1CE4E5B9L);
+        state = mix(state ^ (run + 1) * 0x94D049BB133111EBL);
+        return new RandomStream(state);
+    }
+
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    /**
+     * @return Uniform double in [0, 1)
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * @return Uniform int in [0, bound)
+     */
+    public int nextInt(int bound) {
+        // Lemire's multiply-shift with rejection, unbiased
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
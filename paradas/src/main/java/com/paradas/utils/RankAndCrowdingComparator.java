@@ -0,0 +1,32 @@
+package com.paradas.utils;
+
+import java.util.Comparator;
+
+import org.uma.jmetal.solution.Solution;
+
+/**
+ * Orders solutions by the rank and crowding distance that {@link NonDominatedSorting}
+ * stores in their attributes: lower rank first, then larger crowding distance.
+ * Solutions that were never ranked go last.
+ */
+public class RankAndCrowdingComparator<S extends Solution<?>> implements Comparator<S> {
+
+    @Override
+    public int compare(S a, S b) {
+        int byRank = Integer.compare(rank(a), rank(b));
+        if (byRank != 0) {
+            return byRank;
+        }
+        return Double.compare(crowding(b), crowding(a));
+    }
+
+    private static int rank(Solution<?> solution) {
+        Object rank = solution.attributes().get(NonDominatedSorting.RANK_ATTRIBUTE);
+        return rank == null ? Integer.MAX_VALUE : (Integer) rank;
+    }
+
+    private static double crowding(Solution<?> solution) {
+        Object crowding = solution.attributes().get(NonDominatedSorting.CROWDING_ATTRIBUTE);
+        return crowding == null ? 0.0 : (Double) crowding;
+    }
+}
@@ -0,0 +1,17 @@
+package com.paradas.utils;
+
+/**
+ * Source of recyclable solutions. {@link CustomAlgorithm} hands back to the pool the
+ * solutions that {@link CustomAlgorithm#replacement} discards, so later copies reuse
+ * their storage instead of allocating.
+ *
+ * @param <S> Solution type
+ */
+public interface SolutionPool<S> {
+
+    /**
+     * Return a solution that is no longer referenced by the algorithm. It must not be
+     * used by the caller afterwards.
+     */
+    void release(S solution);
+}
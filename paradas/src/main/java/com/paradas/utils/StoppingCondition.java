@@ -0,0 +1,90 @@
+package com.paradas.utils;
+
+import org.uma.jmetal.solution.Solution;
+
+/**
+ * When {@link CustomAlgorithm} stops, checked before every generation on top of its
+ * evaluation budget, which stays a hard limit. Conditions combine with {@link #and}
+ * and {@link #or}, e.g. stop after ten minutes, or once the best fitness has not
+ * improved in 20 generations and reached 0.7:
+ *
+ * <pre>{@code
+ * StoppingCondition.<S>wallClock(600_000)
+ *         .or(StoppingCondition.<S>stagnation(20, 1e-6).and(StoppingCondition.targetFitness(0.7)))
+ * }</pre>
+ *
+ * The fitness and hypervolume conditions read the algorithm's {@link FitnessTracker};
+ * the fitness is the negated first objective, the coverage in the multi-objective
+ * problem. None of them is met before the first generation.
+ *
+ * @param <S> Solution type
+ */
+@FunctionalInterface
+public interface StoppingCondition<S extends Solution<?>> {
+
+    boolean isMet(CustomAlgorithm<S> algorithm);
+
+    default StoppingCondition<S> and(StoppingCondition<S> other) {
+        return algorithm -> isMet(algorithm) && other.isMet(algorithm);
+    }
+
+    default StoppingCondition<S> or(StoppingCondition<S> other) {
+        return algorithm -> isMet(algorithm) || other.isMet(algorithm);
+    }
+
+    /**
+     * @return Met once {@code evaluations} solutions have been evaluated
+     */
+    static <S extends Solution<?>> StoppingCondition<S> evaluations(int evaluations) {
+        return algorithm -> algorithm.getEvaluations() >= evaluations;
+    }
+
+    /**
+     * @return Met once the run has taken {@code millis} milliseconds; the generation in
+     *         progress is finished, so the run may take up to one generation longer
+     */
+    static <S extends Solution<?>> StoppingCondition<S> wallClock(long millis) {
+        return algorithm -> algorithm.getElapsedNanos() >= millis * 1_000_000L;
+    }
+
+    /**
+     * @return Met once the best fitness has improved by no more than {@code epsilon} over
+     *         the last {@code generations} generations
+     */
+    static <S extends Solution<?>> StoppingCondition<S> stagnation(int generations, double epsilon) {
+        if (generations < 1) {
+            throw new IllegalArgumentException("generations must be positive: " + generations);
+        }
+        return algorithm -> {
+            FitnessTracker<S> tracker = algorithm.getFitnessTracker();
+            int last = tracker.getGenerations() - 1;
+            return last >= generations && tracker.getBest(last) - tracker.getBest(last - generations) <= epsilon;
+        };
+    }
+
+    /**
+     * @return Met once the hypervolume of the archive has grown by less than
+     *         {@code threshold} over the last {@code generations} generations; never
+     *         without an archive
+     */
+    static <S extends Solution<?>> StoppingCondition<S> hypervolumeDelta(int generations, double threshold) {
+        if (generations < 1) {
+            throw new IllegalArgumentException("generations must be positive: " + generations);
+        }
+        return algorithm -> {
+            FitnessTracker<S> tracker = algorithm.getFitnessTracker();
+            int last = tracker.getGenerations() - 1;
+            // False while either is NaN
+            return last >= generations
+                    && tracker.getHypervolume(last) - tracker.getHypervolume(last - generations) < threshold;
+        };
+    }
+
+    /**
+     * @return Met once the best fitness reaches {@code fitness}
+     */
+    static <S extends Solution<?>> StoppingCondition<S> targetFitness(double fitness) {
+        return algorithm -> algorithm.getFitnessTracker().getGenerations() > 0
+                && algorithm.getFitnessTracker().getBest() >= fitness;
+    }
+}
@@ -0,0 +1,192 @@
+package com.paradas.utils;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the rows of every registered {@link GenerationTelemetry} to one file from a
+ * background thread, so the runs never wait on the disk.
+ * <p>
+ * Every {@code flushMillis} the writer drains the rows recorded since its last pass
+ * and appends them, one per line, as JSON objects, or as CSV rows if the file name
+ * ends in {@code .csv}. Each row starts with the run number, in order of registration,
+ * the run's label and the thread that registered it. A run is forgotten once it is
+ * finished and drained.
+ */
+public class TelemetryWriter implements Closeable {
+
+    private static final String[] PREFIX = { "run", "label", "thread" };
+
+    private final Path file;
+    private final boolean csv;
+    private final BufferedWriter writer;
+    private final ScheduledExecutorService flusher;
+
+    private final List<Source> sources = new ArrayList<>();
+    private int runs = 0;
+    private long rows = 0;
+    private long dropped = 0;
+    private boolean failed = false;
+
+    /**
+     * @param flushMillis Time between two passes over the runs
+     */
+    public TelemetryWriter(Path file, long flushMillis) {
+        this.file = file;
+        this.csv = file.getFileName().toString().endsWith(".csv");
+        try {
+            this.writer = Files.newBufferedWriter(file);
+            if (csv) {
+                writer.write(String.join(",", PREFIX) + "," + String.join(",", GenerationTelemetry.COLUMNS));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open telemetry file " + file, e);
+        }
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "telemetry-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Start streaming the rows of {@code telemetry}, from the calling thread's run.
+     */
+    public synchronized void register(GenerationTelemetry telemetry) {
+        sources.add(new Source(++runs, Thread.currentThread().getName(), telemetry));
+    }
+
+    /**
+     * Write the rows recorded since the last pass.
+     */
+    synchronized void flush() {
+        if (failed) {
+            return;
+        }
+        try {
+            StringBuilder line = new StringBuilder(256);
+            for (int i = 0; i < sources.size(); i++) {
+                Source source = sources.get(i);
+                // Read before draining: a run finished by now has recorded its last row
+                boolean finished = source.telemetry.isFinished();
+                long from = source.position;
+                long written = rows;
+                source.position = source.telemetry.drain(from, row -> {
+                    line.setLength(0);
+                    append(line, source, row);
+                    try {
+                        writer.append(line);
+                        writer.newLine();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows++;
+                });
+                dropped += source.position - from - (rows - written);
+                if (finished) {
+                    sources.remove(i--);
+                }
+            }
+            writer.flush();
+        } catch (IOException | UncheckedIOException e) {
+            // Losing telemetry must not stop the runs
+            failed = true;
+            System.err.println("Could not write telemetry to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void append(StringBuilder line, Source source, double[] row) {
+        if (csv) {
+            line.append(source.run).append(',').append(source.label).append(',').append(source.thread);
+            for (int c = 0; c < row.length; c++) {
+                line.append(',');
+                appendNumber(line, c, row[c], "");
+            }
+            return;
+        }
+        line.append("{\"run\":").append(source.run)
+                .append(",\"label\":\"").append(source.label).append('"')
+                .append(",\"thread\":\"").append(source.thread).append('"');
+        for (int c = 0; c < row.length; c++) {
+            line.append(",\"").append(GenerationTelemetry.COLUMNS[c]).append("\":");
+            appendNumber(line, c, row[c], "null");
+        }
+        line.append('}');
+    }
+
+    private static void appendNumber(StringBuilder line, int column, double value, String missing) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            line.append(missing);
+        } else if (column < 2) {
+            // Generation and evaluations
+            line.append((long) value);
+        } else {
+            line.append(value);
+        }
+    }
+
+    /**
+     * @return One-line summary of what was written
+     */
+    public synchronized String statistics() {
+        return String.format("Telemetry file %s: %d runs, %d rows written, %d dropped", file, runs, rows, dropped);
+    }
+
+    /**
+     * Write what is left and close the file. Failures are reported, not thrown: the
+     * writer is closed after the runs, whose results must still be saved.
+     */
+    @Override
+    public void close() {
+        // Not shutdownNow(): interrupting a pass in progress would close the file under it
+        flusher.shutdown();
+        boolean interrupted = false;
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            // Restored after the last pass, which an interrupt would abort the same way
+            interrupted = true;
+        }
+        synchronized (this) {
+            flush();
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("Could not close telemetry file " + file + ": " + e.getMessage());
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A registered run and the rows of it already written.
+     */
+    private static final class Source {
+        final int run;
+        final String thread;
+        final String label;
+        final GenerationTelemetry telemetry;
+        long position = 0;
+
+        Source(int run, String thread, GenerationTelemetry telemetry) {
+            this.run = run;
+            this.thread = thread;
+            this.label = telemetry.getLabel();
+            this.telemetry = telemetry;
+        }
+    }
+}
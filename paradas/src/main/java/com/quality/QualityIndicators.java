@@ -7,49 +7,233 @@ import org.uma.jmetal.qualityindicator.impl.hypervolume.impl.PISAHypervolume;
 import org.uma.jmetal.util.NormalizeUtils;
 import org.uma.jmetal.util.VectorUtils;
 
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
 import java.text.DecimalFormatSymbols;
 import java.text.DecimalFormat;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Error ratio, generational distance, generalized spread and hypervolume of many
+ * approximated fronts against one reference front, written as one CSV row per front.
+ * <p>
+ * The reference front is normalized once, and every front is normalized with its
+ * bounds. Fronts are read and scored in parallel, each thread with its own
+ * indicators. Rows are written in the natural order of the file names
+ * ({@code FUN2} before {@code FUN10}), so the output does not depend on scheduling.
+ * Hypervolume is measured up to (1, ..., 1) in the normalized space, with coordinates
+ * clamped to [0, 1] as PISA does; fronts of two or three objectives use the exact
+ * {@link SweepHypervolume}, others {@link PISAHypervolume}.
+ * <p>
+ * Usage: {@code QualityIndicators [reference] [fronts] [output] [threads]}, defaults
+ * to {@code src/main/resources/approximated_pareto_front_pgh.csv},
+ * {@code src/main/resources/FUN_PGH/FUN*.csv}, standard output ({@code -}) and one
+ * thread per processor. {@code fronts} is a directory, for all the CSV files in it,
+ * or a glob over the file names of one directory.
+ */
 public class QualityIndicators {
+
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+
+    private final double[][] referenceFront;
+    private final double[] minimums;
+    private final double[] maximums;
+    private final double[][] normalizedReferenceFront;
+
+    // jMetal's indicators may reorder the reference front they hold, so every thread gets its own copy
+    private final ThreadLocal<Indicators> indicators = ThreadLocal.withInitial(Indicators::new);
+
+    public QualityIndicators(double[][] referenceFront) {
+        this.referenceFront = referenceFront;
+        this.minimums = NormalizeUtils.getMinValuesOfTheColumnsOfAMatrix(referenceFront);
+        this.maximums = NormalizeUtils.getMaxValuesOfTheColumnsOfAMatrix(referenceFront);
+        this.normalizedReferenceFront = NormalizeUtils.normalize(referenceFront);
+    }
+
+    /**
+     * @return [error ratio, generational distance, generalized spread, hypervolume] of {@code front}
+     */
+    public double[] compute(double[][] front) {
+        double[][] normalizedFront = NormalizeUtils.normalize(front, minimums, maximums);
+        Indicators thread = indicators.get();
+        return new double[] {
+                thread.errorRatio.compute(normalizedFront),
+                thread.generationalDistance.compute(normalizedFront),
+                thread.generalizedSpread.compute(normalizedFront),
+                hypervolume(normalizedFront, thread) };
+    }
+
+    private double hypervolume(double[][] normalizedFront, Indicators thread) {
+        int dimensions = referenceFront[0].length;
+        if (dimensions != 2 && dimensions != 3) {
+            return thread.hypervolume().compute(normalizedFront);
+        }
+        double[][] clamped = new double[normalizedFront.length][dimensions];
+        for (int i = 0; i < clamped.length; i++) {
+            for (int j = 0; j < dimensions; j++) {
+                clamped[i][j] = Math.min(1.0, Math.max(0.0, normalizedFront[i][j]));
+            }
+        }
+        double[] referencePoint = new double[dimensions];
+        Arrays.fill(referencePoint, 1.0);
+        return SweepHypervolume.compute(clamped, referencePoint);
+    }
+
+    /**
+     * @param pattern A directory, for its CSV files, or a glob over the file names of one directory
+     * @return Matching files in the natural order of their names
+     */
+    static List<Path> fronts(String pattern) {
+        Path path = Paths.get(pattern);
+        Path directory;
+        PathMatcher matcher;
+        if (Files.isDirectory(path)) {
+            directory = path;
+            matcher = path.getFileSystem().getPathMatcher("glob:*.csv");
+        } else {
+            directory = path.getParent() != null ? path.getParent() : Paths.get(".");
+            matcher = path.getFileSystem().getPathMatcher("glob:" + path.getFileName());
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                if (matcher.matches(entry.getFileName()) && Files.isRegularFile(entry)) {
+                    files.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list fronts in " + directory, e);
+        }
+        files.sort(Comparator.comparing((Path file) -> prefix(file)).thenComparingLong(QualityIndicators::number)
+                .thenComparing(Path::toString));
+        return files;
+    }
+
+    /**
+     * @return Name of a front in the output: its number, as in {@code FUN12.csv}, or its file name
+     */
+    static String name(Path file) {
+        String stem = file.getFileName().toString().replaceFirst("\\.[^.]*$", "");
+        Matcher matcher = NUMBER.matcher(stem);
+        return matcher.find() ? matcher.group() : stem;
+    }
+
+    private static String prefix(Path file) {
+        String name = file.getFileName().toString();
+        Matcher matcher = NUMBER.matcher(name);
+        return matcher.find() ? name.substring(0, matcher.start()) : name;
+    }
+
+    private static long number(Path file) {
+        Matcher matcher = NUMBER.matcher(file.getFileName().toString());
+        return matcher.find() && matcher.group().length() < 19 ? Long.parseLong(matcher.group()) : -1;
+    }
+
     public static void main(String[] args) {
+        String referenceFile = args.length > 0 ? args[0] : "src/main/resources/approximated_pareto_front_pgh.csv";
+        String pattern = args.length > 1 ? args[1] : "src/main/resources/FUN_PGH/FUN*.csv";
+        String output = args.length > 2 ? args[2] : "-";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
 
         DecimalFormatSymbols decimalFormatSymbols = DecimalFormatSymbols.getInstance();
         decimalFormatSymbols.setDecimalSeparator('.');
         DecimalFormat df = new DecimalFormat("#.####", decimalFormatSymbols);
         df.setRoundingMode(RoundingMode.CEILING);
 
-        try {
-            double[][] referenceFront = VectorUtils.readVectors("src/main/resources/approximated_pareto_front_pgh.csv", ",");
-            double[][] normalizedReferenceFront = NormalizeUtils.normalize(referenceFront);
+        long start = System.nanoTime();
+        QualityIndicators engine = new QualityIndicators(read(Paths.get(referenceFile)));
+        List<Path> files = fronts(pattern);
 
-            System.out.println("FUN,TASA_ERROR,DISTANCIA_GENERACIONAL,SPREAD,HIPERVOLUMEN");
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "indicators-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
 
-            for (int i = 1; i < 811; i++) {
-            
-                double[][] solutionFront = VectorUtils.readVectors("src/main/resources/FUN_PGH/FUN" + i + ".csv", ",");
-                double[][] normalizedSolutionFront = NormalizeUtils.normalize(
-                                                                solutionFront,
-                                                                NormalizeUtils.getMinValuesOfTheColumnsOfAMatrix(referenceFront),
-                                                                NormalizeUtils.getMaxValuesOfTheColumnsOfAMatrix(referenceFront));
+        try (PrintStream out = output.equals("-") ? null : new PrintStream(output)) {
+            PrintStream target = out != null ? out : System.out;
+            List<Future<double[]>> values = new ArrayList<>(files.size());
+            for (Path file : files) {
+                values.add(executor.submit(() -> engine.compute(read(file))));
+            }
 
-                ErrorRatio errorRatio = new ErrorRatio(normalizedReferenceFront);
-                double errorRatioValue = errorRatio.compute(normalizedSolutionFront);
+            target.println("FUN,TASA_ERROR,DISTANCIA_GENERACIONAL,SPREAD,HIPERVOLUMEN");
+            for (int i = 0; i < files.size(); i++) {
+                double[] value = await(values.get(i), files.get(i));
+                target.println(name(files.get(i)) + "," + df.format(value[0]) + "," + df.format(value[1]) + ","
+                        + df.format(value[2]) + "," + df.format(value[3]));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + output, e);
+        } finally {
+            executor.shutdownNow();
+        }
 
-                GenerationalDistance generationalDistance = new GenerationalDistance(normalizedReferenceFront);
-                double generationalDistanceValue = generationalDistance.compute(normalizedSolutionFront);
+        System.err.println(String.format("%d fronts in %.2f s on %d threads", files.size(),
+                (System.nanoTime() - start) / 1e9, threads));
+    }
 
-                GeneralizedSpread generalizedSpread = new GeneralizedSpread(normalizedReferenceFront);
-                double generalizedSpreadValue = generalizedSpread.compute(normalizedSolutionFront);
+    private static double[][] read(Path file) {
+        try {
+            return VectorUtils.readVectors(file.toString(), ",");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read front " + file, e);
+        }
+    }
 
-                PISAHypervolume hypervolume = new PISAHypervolume(normalizedReferenceFront);
-                double hypervolumeValue = hypervolume.compute(normalizedSolutionFront);
+    private static double[] await(Future<double[]> value, Path file) {
+        try {
+            return value.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scoring " + file, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not score " + file, e.getCause());
+        }
+    }
+
+    /**
+     * One thread's indicators, on its own copy of the normalized reference front.
+     */
+    private final class Indicators {
+        final double[][] reference = copy(normalizedReferenceFront);
+        final ErrorRatio errorRatio = new ErrorRatio(reference);
+        final GenerationalDistance generationalDistance = new GenerationalDistance(reference);
+        final GeneralizedSpread generalizedSpread = new GeneralizedSpread(reference);
+        private PISAHypervolume hypervolume;
 
-                System.out.println(i + "," + df.format(errorRatioValue) + "," + df.format(generationalDistanceValue) + "," + df.format(generalizedSpreadValue) + "," + df.format(hypervolumeValue));
+        PISAHypervolume hypervolume() {
+            if (hypervolume == null) {
+                hypervolume = new PISAHypervolume(reference);
             }
+            return hypervolume;
+        }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+        private double[][] copy(double[][] front) {
+            double[][] copy = new double[front.length][];
+            for (int i = 0; i < front.length; i++) {
+                copy[i] = front[i].clone();
+            }
+            return copy;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,116 @@
+package com.quality;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exact hypervolume of a front of two or three minimized objectives, by dimension
+ * sweep in O(n log n).
+ * <p>
+ * In three dimensions the points are visited by increasing third objective while a
+ * two-dimensional staircase of the points seen so far, ordered by the first
+ * objective, keeps the area they dominate up to the reference point. Between two
+ * consecutive points the volume grows by that area times the gap in the third
+ * objective. Inserting a point removes the staircase points it dominates and adds
+ * the area it gains, so every point enters and leaves the staircase once. In two
+ * dimensions the result is the area of the final staircase.
+ * <p>
+ * Points that do not strictly dominate the reference point contribute nothing and
+ * are skipped.
+ */
+public final class SweepHypervolume {
+
+    private SweepHypervolume() {
+    }
+
+    /**
+     * @param front          Points of two or three objectives, any order, dominated points allowed
+     * @param referencePoint Upper bound of the measured region
+     * @return Volume dominated by the front and bounded by {@code referencePoint}
+     */
+    public static double compute(double[][] front, double[] referencePoint) {
+        int dimensions = referencePoint.length;
+        if (dimensions != 2 && dimensions != 3) {
+            throw new IllegalArgumentException("Only 2 or 3 objectives are supported: " + dimensions);
+        }
+
+        double[][] points = new double[front.length][];
+        int n = 0;
+        for (double[] point : front) {
+            if (point.length != dimensions) {
+                throw new IllegalArgumentException("Point of " + point.length + " objectives in a front of "
+                        + dimensions);
+            }
+            if (dominatesReference(point, referencePoint)) {
+                points[n++] = point;
+            }
+        }
+
+        Staircase staircase = new Staircase(referencePoint[0], referencePoint[1]);
+        if (dimensions == 2) {
+            for (int i = 0; i < n; i++) {
+                staircase.insert(points[i][0], points[i][1]);
+            }
+            return staircase.area;
+        }
+
+        Arrays.sort(points, 0, n, (a, b) -> Double.compare(a[2], b[2]));
+        double volume = 0;
+        double z = n == 0 ? referencePoint[2] : points[0][2];
+        for (int i = 0; i < n; i++) {
+            volume += staircase.area * (points[i][2] - z);
+            z = points[i][2];
+            staircase.insert(points[i][0], points[i][1]);
+        }
+        return volume + staircase.area * (referencePoint[2] - z);
+    }
+
+    private static boolean dominatesReference(double[] point, double[] referencePoint) {
+        for (int i = 0; i < point.length; i++) {
+            if (!(point[i] < referencePoint[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Non-dominated points of two objectives, by increasing x and so decreasing y,
+     * and the area they dominate up to {@code (referenceX, referenceY)}.
+     */
+    private static final class Staircase {
+        private final double referenceX;
+        private final double referenceY;
+        private final TreeMap<Double, Double> points = new TreeMap<>();
+        double area = 0;
+
+        Staircase(double referenceX, double referenceY) {
+            this.referenceX = referenceX;
+            this.referenceY = referenceY;
+        }
+
+        void insert(double x, double y) {
+            // The point with the largest x not above this one has the lowest y among them
+            Map.Entry<Double, Double> left = points.floorEntry(x);
+            if (left != null && left.getValue() <= y) {
+                return;
+            }
+
+            // Walk right over the points this one dominates, adding the strips it gains
+            double stripX = x;
+            double stripY = left != null ? left.getValue() : referenceY;
+            Map.Entry<Double, Double> right = points.ceilingEntry(x);
+            while (right != null && right.getValue() >= y) {
+                area += (right.getKey() - stripX) * (stripY - y);
+                stripX = right.getKey();
+                stripY = right.getValue();
+                points.remove(stripX);
+                right = points.higherEntry(stripX);
+            }
+            double end = right != null ? right.getKey() : referenceX;
+            area += (end - stripX) * (stripY - y);
+            points.put(x, y);
+        }
+    }
+}